@@ -0,0 +1,44 @@
+package springBootInitialDemo.configuration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import springBootInitialDemo.dto.GreetingResponseDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la serializacion de EntityModel&lt;GreetingResponseDto&gt; con el ObjectMapper
+ * definido en WebMVCConfiguration
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectMapperBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EntityModel<GreetingResponseDto> entityModel;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new WebMVCConfiguration().objectMapper();
+        entityModel = EntityModel.of(new GreetingResponseDto(1, "HELLO WORLD"),
+                Link.of("http://localhost:8080/?name=WORLD").withSelfRel(),
+                Link.of("http://localhost:8080/v1").withSelfRel(),
+                Link.of("http://localhost:8080/{?name}").withSelfRel());
+    }
+
+    @Benchmark
+    public byte[] serializeEntityModel() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entityModel);
+    }
+}
@@ -0,0 +1,65 @@
+package springBootInitialDemo.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import springBootInitialDemo.dto.GreetingResponseDto;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Benchmark de GreetingModelAssembler.toModel, comparado con la construccion original de
+ * enlaces mediante linkTo(methodOn(...)) en cada peticion
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GreetingModelAssemblerBenchmark {
+
+    private static final String NAME = "WORLD";
+
+    private GreetingModelAssembler assembler;
+    private GreetingResponseDto greetingResponseDto;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        assembler = new GreetingModelAssembler();
+        greetingResponseDto = new GreetingResponseDto(1, "HELLO " + NAME);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public EntityModel<GreetingResponseDto> toModel() {
+        return assembler.toModel(greetingResponseDto, NAME);
+    }
+
+    @Benchmark
+    public EntityModel<GreetingResponseDto> methodOnLinks() {
+        String requestParamValue = greetingResponseDto.getContent().substring(greetingResponseDto.getContent().indexOf(" ") + 1);
+        return EntityModel.of(greetingResponseDto,
+                linkTo(methodOn(GreetingController.class).helloWorld(requestParamValue)).withSelfRel(),
+                linkTo(methodOn(GreetingController.class).helloWorld()).withSelfRel(),
+                linkTo(methodOn(GreetingController.class).helloWorld(null)).withSelfRel());
+    }
+}
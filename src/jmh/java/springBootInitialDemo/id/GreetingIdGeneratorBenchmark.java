@@ -0,0 +1,85 @@
+package springBootInitialDemo.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de los generadores de identificadores (atomic, snowflake, range) con 1 a 64 hilos
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GreetingIdGeneratorBenchmark {
+
+    @Param({"atomic", "snowflake", "range"})
+    public String generator;
+
+    private IGreetingIdGenerator idGenerator;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (generator) {
+            case "snowflake":
+                idGenerator = new SnowflakeGreetingIdGenerator(1);
+                break;
+            case "range":
+                file = Files.createTempFile("greeting-id", ".hwm");
+                Files.delete(file);
+                idGenerator = new RangeLeasingGreetingIdGenerator(file, 1000);
+                break;
+            default:
+                idGenerator = new AtomicGreetingIdGenerator();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (idGenerator instanceof Closeable) {
+            ((Closeable) idGenerator).close();
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long threads01() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long threads04() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long threads16() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long threads64() {
+        return idGenerator.nextId();
+    }
+}
@@ -0,0 +1,110 @@
+package springBootInitialDemo.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.dto.UserPageResponseDto;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark de serializacion por formato (JSON, CBOR, Smile) y modo (STANDARD, FAST) de los DTO
+ * que devuelven los endpoints: GreetingResponseDto, su EntityModel con enlaces, UserResponseDto y
+ * una pagina de 50 usuarios.
+ *
+ * El tiempo por operacion lo mide JMH; los bytes en el cable (sin comprimir y con gzip, que solo se
+ * aplica por encima de server.compression.min-response-size) se imprimen al preparar cada combinacion
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"STANDARD", "FAST"})
+    private String mode;
+
+    private ObjectMapper objectMapper;
+    private GreetingResponseDto greeting;
+    private EntityModel<GreetingResponseDto> entityModel;
+    private UserResponseDto user;
+    private UserPageResponseDto userPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMappers.Mode serializationMode = ObjectMappers.Mode.fromProperty(mode);
+        switch (format) {
+            case "cbor":
+                objectMapper = ObjectMappers.cbor(serializationMode);
+                break;
+            case "smile":
+                objectMapper = ObjectMappers.smile(serializationMode);
+                break;
+            default:
+                objectMapper = ObjectMappers.json(serializationMode);
+        }
+
+        greeting = new GreetingResponseDto(1, "HELLO WORLD");
+        entityModel = EntityModel.of(greeting,
+                Link.of("http://localhost:8080/?name=WORLD").withSelfRel(),
+                Link.of("http://localhost:8080/v1").withSelfRel(),
+                Link.of("http://localhost:8080/{?name}").withSelfRel());
+        user = new UserResponseDto(UUID.randomUUID(), "Jonatan", "Garcia", "1990-01-01", "M");
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new UserResponseDto(UUID.randomUUID(), "Name" + i, "Surname" + i, "1990-01-01", "F"));
+        }
+        userPage = new UserPageResponseDto(users, "cursor");
+
+        System.out.printf("%n[%s %s] bytes (gzip): greeting %s, entityModel %s, user %s, userPage %s%n",
+                format, mode, wire(greeting), wire(entityModel), wire(user), wire(userPage));
+    }
+
+    @Benchmark
+    public byte[] serializeGreeting() throws IOException {
+        return objectMapper.writeValueAsBytes(greeting);
+    }
+
+    @Benchmark
+    public byte[] serializeEntityModel() throws IOException {
+        return objectMapper.writeValueAsBytes(entityModel);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws IOException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUserPage() throws IOException {
+        return objectMapper.writeValueAsBytes(userPage);
+    }
+
+    private String wire(Object value) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(value);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return bytes.length + " (" + compressed.size() + ")";
+    }
+}
@@ -0,0 +1,61 @@
+package springBootInitialDemo.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.id.AtomicGreetingIdGenerator;
+import springBootInitialDemo.template.GreetingTemplateEngine;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de GreetingRepository.getGreeting(String): plantilla precompilada + id, y de
+ * createGreetings, que genera en lote con un bloque de ids reservado de una vez (tiempo por saludo)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GreetingRepositoryBenchmark {
+
+    @Param({"WORLD", "Jonatan Vicente"})
+    public String name;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private GreetingRepository greetingRepository;
+    private List<String> batch;
+
+    @Setup
+    public void setUp() {
+        greetingRepository = new GreetingRepository(new GreetingTemplateEngine(), new AtomicGreetingIdGenerator());
+        batch = Collections.nCopies(BATCH_SIZE, name);
+    }
+
+    @Benchmark
+    public GreetingResponseDto getGreeting() {
+        return greetingRepository.getGreeting(name);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createGreetings(Blackhole blackhole) {
+        greetingRepository.createGreetings(batch, Locale.ROOT, blackhole::consume);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format("HELLO %s", name);
+    }
+}
@@ -0,0 +1,123 @@
+package springBootInitialDemo.repository.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de las consultas de UserSearchIndex con 10 millones de usuarios (2.000 nombres,
+ * 50.000 apellidos, fechas de nacimiento entre 1940 y 2010 y dos valores de gender), pidiendo
+ * una pagina de 50 resultados como GET /v1/users/search.
+ *
+ * fullScanCount fuerza un recorrido completo (un criterio SUFFIX no es indexable) como referencia
+ * de lo que cuesta la misma consulta sin indices
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class UserSearchIndexBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000000"})
+    public int users;
+
+    private UserSearchIndex index;
+    private UserQuery surnamePrefixAndGender;
+    private UserQuery nameAndSurname;
+    private UserQuery dateRangeAndGender;
+    private UserQuery surnameAndYear;
+    private UserQuery suffixScan;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] names = words(random, 2_000, 6);
+        String[] surnames = words(random, 50_000, 8);
+        LocalDate firstDate = LocalDate.of(1940, 1, 1);
+        String[] dates = new String[(int) (LocalDate.of(2010, 12, 31).toEpochDay() - firstDate.toEpochDay()) + 1];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = firstDate.plusDays(i).toString();
+        }
+        String[] genders = {"F", "M"};
+
+        index = new UserSearchIndex();
+        for (int i = 0; i < users; i++) {
+            index.onPut(null, new UserResponseDto(new UUID(random.nextLong(), random.nextLong()),
+                    names[random.nextInt(names.length)], surnames[random.nextInt(surnames.length)],
+                    dates[random.nextInt(dates.length)], genders[random.nextInt(genders.length)]));
+        }
+
+        String surname = surnames[12_345];
+        surnamePrefixAndGender = new UserQuery(Arrays.asList(
+                new UserQuery.Criterion(UserQuery.Field.SURNAME, surname.substring(0, 4), UserQuery.Match.PREFIX, true),
+                new UserQuery.Criterion(UserQuery.Field.GENDER, "f", UserQuery.Match.EXACT, true)), null, null);
+        nameAndSurname = new UserQuery(Arrays.asList(
+                new UserQuery.Criterion(UserQuery.Field.NAME, names[7], UserQuery.Match.EXACT, false),
+                new UserQuery.Criterion(UserQuery.Field.SURNAME, surname, UserQuery.Match.EXACT, false)), null, null);
+        dateRangeAndGender = new UserQuery(Collections.singletonList(
+                new UserQuery.Criterion(UserQuery.Field.GENDER, "M", UserQuery.Match.EXACT, false)),
+                "1985-03-01", "1985-03-07");
+        surnameAndYear = new UserQuery(Collections.singletonList(
+                new UserQuery.Criterion(UserQuery.Field.SURNAME, surname, UserQuery.Match.EXACT, false)),
+                "1980-01-01", "1989-12-31");
+        suffixScan = new UserQuery(Collections.singletonList(
+                new UserQuery.Criterion(UserQuery.Field.SURNAME, surname.substring(2), UserQuery.Match.SUFFIX, false)),
+                null, null);
+    }
+
+    @Benchmark
+    public void surnamePrefixAndGender(Blackhole blackhole) {
+        index.search(surnamePrefixAndGender, 0, PAGE_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public void nameAndSurname(Blackhole blackhole) {
+        index.search(nameAndSurname, 0, PAGE_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public void dateRangeAndGender(Blackhole blackhole) {
+        index.search(dateRangeAndGender, 0, PAGE_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public long surnameAndYearCount() {
+        return index.count(surnameAndYear);
+    }
+
+    @Benchmark
+    public long fullScanCount() {
+        return index.count(suffixScan);
+    }
+
+    private static String[] words(Random random, int count, int length) {
+        String[] ret = new String[count];
+        char[] chars = new char[length];
+        for (int i = 0; i < count; i++) {
+            chars[0] = (char) ('A' + random.nextInt(26));
+            for (int j = 1; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            ret[i] = new String(chars);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,46 @@
+package springBootInitialDemo.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.UserRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de UserServiceImpl.getUser sobre un almacen con @Param users usuarios
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserServiceImplBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int users;
+
+    private UserServiceImpl userService;
+    private String uuid;
+
+    @Setup
+    public void setUp() {
+        userService = new UserServiceImpl(new UserRepository());
+        for (int i = 0; i < users; i++) {
+            UserResponseDto user = userService.saveUser(new UserResponseDto(null, "Jonatan", "Vicente", null, "Male"));
+            uuid = user.getUuid().toString();
+        }
+    }
+
+    @Benchmark
+    public Optional<UserResponseDto> getUser() {
+        return userService.getUser(uuid);
+    }
+}
@@ -0,0 +1,342 @@
+package springBootInitialDemo.load;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import springBootInitialDemo.App;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de conexiones concurrentes: compara la pila Servlet (Tomcat, Spring MVC) con la
+ * reactiva (Netty, perfil "reactive") manteniendo abiertas muchas conexiones keep-alive a la vez.
+ *
+ * Arranca App en un puerto efimero con la pila indicada y abre las conexiones de forma
+ * escalonada durante el periodo de rampa. Cada conexion repite en bucle cerrado: envia una
+ * peticion del fichero, espera la respuesta completa y descansa el tiempo de reflexion antes de
+ * la siguiente, de modo que la mayor parte del tiempo las conexiones estan abiertas y ociosas,
+ * como los clientes reales. Todas las conexiones se gestionan con un unico Selector, sin un hilo
+ * por conexion en el cliente.
+ *
+ * Al terminar la medicion, con las conexiones aun abiertas, se informa de:
+ *  - conexiones establecidas, mantenidas y cerradas o fallidas
+ *  - memoria de heap tras un GC e hilos vivos, frente a los valores antes de abrir las conexiones
+ *  - percentiles de latencia por endpoint (y ficheros .hgrm en el directorio de informes)
+ *
+ * Argumentos: fichero-peticiones conexiones duracion-segundos directorio-informes
+ *             [servlet|reactive] [reflexion-ms] [rampa-segundos]
+ *
+ */
+public final class ConnectionSoakRunner {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int INITIAL_BUFFER = 16 * 1024;
+
+    private final InetSocketAddress address;
+    private final List<LoadRequest> requests;
+    private final long thinkNanos;
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private final PriorityQueue<Connection> thinking =
+            new PriorityQueue<>((a, b) -> Long.compare(a.dueAt, b.dueAt));
+
+    private Selector selector;
+    private boolean measuring;
+    private int nextRequest;
+    private int established;
+    private int open;
+    private int failed;
+    private long errors;
+
+    private ConnectionSoakRunner(int port, List<LoadRequest> requests, long thinkNanos) {
+        this.address = new InetSocketAddress("localhost", port);
+        this.requests = requests;
+        this.thinkNanos = thinkNanos;
+        for (LoadRequest request : requests) {
+            histograms.computeIfAbsent(request.getEndpoint(),
+                    endpoint -> new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Uso: ConnectionSoakRunner <fichero> <conexiones> <duracion s> <dir informes>"
+                    + " [servlet|reactive] [reflexion ms] [rampa s]");
+            System.exit(2);
+        }
+        List<LoadRequest> requests = LoadRequestFile.read(Paths.get(args[0]));
+        int connections = Integer.parseInt(args[1]);
+        int durationSeconds = Integer.parseInt(args[2]);
+        Path reportDir = Paths.get(args[3]);
+        String stack = args.length > 4 ? args[4] : "servlet";
+        long thinkNanos = TimeUnit.MILLISECONDS.toNanos(args.length > 5 ? Long.parseLong(args[5]) : 1000);
+        int rampSeconds = args.length > 6 ? Integer.parseInt(args[6]) : 10;
+
+        List<String> appArgs = new ArrayList<>();
+        appArgs.add("--server.port=0");
+        appArgs.add("--access-log.enabled=false");
+        // Tomcat acepta 8192 conexiones por defecto; se sube para comparar las dos pilas en igualdad
+        appArgs.add("--server.tomcat.max-connections=" + (connections + 1024));
+        if ("reactive".equals(stack)) {
+            appArgs.add("--spring.profiles.active=reactive");
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(App.class, appArgs.toArray(new String[0]));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.println("Aplicacion (" + stack + ") arrancada en el puerto " + port);
+
+            long baselineHeap = heapAfterGc();
+            int baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            ConnectionSoakRunner runner = new ConnectionSoakRunner(port, requests, thinkNanos);
+            runner.run(connections, TimeUnit.SECONDS.toNanos(rampSeconds), TimeUnit.SECONDS.toNanos(durationSeconds));
+
+            long heap = heapAfterGc();
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            runner.report(stack, reportDir, connections, baselineHeap, heap, baselineThreads, threads);
+            runner.selector.close();
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Abre las conexiones durante rampNanos y despues mide durante durationNanos
+     */
+    private void run(int connections, long rampNanos, long durationNanos) throws IOException {
+        selector = Selector.open();
+        long start = System.nanoTime();
+        long openInterval = connections == 0 ? 0 : rampNanos / connections;
+        long measureStart = start + rampNanos;
+        long end = measureStart + durationNanos;
+        int opened = 0;
+
+        System.out.println("Rampa: " + connections + " conexiones en " + TimeUnit.NANOSECONDS.toSeconds(rampNanos) + " s");
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            if (!measuring && now >= measureStart) {
+                measuring = true;
+                System.out.println("Medicion: " + open + " conexiones abiertas durante "
+                        + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + " s");
+            }
+            while (opened < connections && now >= start + opened * openInterval) {
+                connect();
+                opened++;
+            }
+            while (!thinking.isEmpty() && thinking.peek().dueAt <= now) {
+                send(thinking.poll());
+            }
+
+            long wakeAt = end;
+            if (opened < connections) {
+                wakeAt = Math.min(wakeAt, start + opened * openInterval);
+            }
+            if (!thinking.isEmpty()) {
+                wakeAt = Math.min(wakeAt, thinking.peek().dueAt);
+            }
+            long timeoutMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(wakeAt - System.nanoTime()));
+            selector.select(timeoutMillis);
+
+            for (SelectionKey key : selector.selectedKeys()) {
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        connection.channel.finishConnect();
+                        established++;
+                        open++;
+                        send(connection);
+                    } else if (key.isWritable()) {
+                        write(connection);
+                    } else if (key.isReadable()) {
+                        read(connection);
+                    }
+                } catch (IOException e) {
+                    close(connection);
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private void connect() {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_CONNECT, connection);
+            if (channel.connect(address)) {
+                established++;
+                open++;
+                send(connection);
+            }
+        } catch (IOException e) {
+            failed++;
+        }
+    }
+
+    private void send(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        LoadRequest request = requests.get(nextRequest);
+        nextRequest = (nextRequest + 1) % requests.size();
+        String head = request.getMethod() + " " + request.expandPath() + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Accept: */*\r\n"
+                + ("GET".equals(request.getMethod()) ? "" : "Content-Length: 0\r\n")
+                + "\r\n";
+        connection.request = request;
+        connection.out = ByteBuffer.wrap(head.getBytes(StandardCharsets.US_ASCII));
+        connection.sentAt = System.nanoTime();
+        try {
+            write(connection);
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    private void write(Connection connection) throws IOException {
+        connection.channel.write(connection.out);
+        connection.key.interestOps(connection.out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.inLength == connection.in.length) {
+            byte[] grown = new byte[connection.in.length * 2];
+            System.arraycopy(connection.in, 0, grown, 0, connection.inLength);
+            connection.in = grown;
+        }
+        int read = connection.channel.read(
+                ByteBuffer.wrap(connection.in, connection.inLength, connection.in.length - connection.inLength));
+        if (read < 0) {
+            close(connection);
+            return;
+        }
+        connection.inLength += read;
+
+        int length = HttpResponseParser.responseLength(connection.in, connection.inLength);
+        if (length < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        int status = HttpResponseParser.status(connection.in);
+        if (measuring) {
+            histograms.get(connection.request.getEndpoint())
+                    .recordValue(Math.min(now - connection.sentAt, HIGHEST_TRACKABLE_NANOS));
+            if (status >= 500 || status < 100) {
+                errors++;
+            }
+        }
+        System.arraycopy(connection.in, length, connection.in, 0, connection.inLength - length);
+        connection.inLength -= length;
+        connection.key.interestOps(0);
+
+        if (thinkNanos == 0) {
+            send(connection);
+        } else {
+            connection.dueAt = now + thinkNanos;
+            thinking.add(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection.key.isValid()) {
+            if (connection.channel.isConnected()) {
+                open--;
+            } else {
+                failed++;
+            }
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // la conexion ya estaba cerrada
+        }
+    }
+
+    private void report(String stack, Path reportDir, int connections, long baselineHeap, long heap,
+                        int baselineThreads, int threads) throws IOException {
+        Files.createDirectories(reportDir);
+        try (PrintStream summary = new PrintStream(
+                Files.newOutputStream(reportDir.resolve("soak-" + stack + ".txt")), false, "UTF-8")) {
+            for (PrintStream out : new PrintStream[] {System.out, summary}) {
+                out.printf("Pila: %s%n", stack);
+                out.printf("Conexiones: objetivo %d, establecidas %d, mantenidas %d, cerradas o fallidas %d%n",
+                        connections, established, open, connections - open);
+                out.printf("Heap tras GC: %.1f MB (antes de conectar %.1f MB, %.1f KB por conexion)%n",
+                        heap / 1048576.0, baselineHeap / 1048576.0,
+                        open == 0 ? 0 : (heap - baselineHeap) / 1024.0 / open);
+                out.printf("Hilos vivos: %d (antes de conectar %d)%n", threads, baselineThreads);
+                out.printf("Respuestas con error: %d%n", errors);
+                out.printf("%-32s %10s %10s %10s %10s %10s%n", "endpoint", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+                for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                    Histogram histogram = entry.getValue();
+                    out.printf("%-32s %10d %10.3f %10.3f %10.3f %10.3f%n",
+                            entry.getKey(), histogram.getTotalCount(),
+                            millis(histogram.getValueAtPercentile(50)),
+                            millis(histogram.getValueAtPercentile(99)),
+                            millis(histogram.getValueAtPercentile(99.9)),
+                            millis(histogram.getMaxValue()));
+                }
+            }
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String fileName = "soak-" + stack + "-"
+                    + entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(fileName)), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.println("Informes en " + reportDir.toAbsolutePath());
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Estado de una conexion keep-alive del cliente
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private LoadRequest request;
+        private ByteBuffer out;
+        private byte[] in = new byte[INITIAL_BUFFER];
+        private int inLength;
+        private long sentAt;
+        private long dueAt;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package springBootInitialDemo.load;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Analisis minimo de respuestas HTTP/1.1 sobre un buffer de bytes, para ConnectionSoakRunner:
+ * solo lo necesario para saber donde termina cada respuesta en una conexion keep-alive
+ * (Content-Length o Transfer-Encoding: chunked) y cual es su status
+ *
+ */
+final class HttpResponseParser {
+
+    private HttpResponseParser() {
+    }
+
+    /**
+     * @return longitud total de la primera respuesta del buffer, o -1 si aun no esta completa
+     */
+    static int responseLength(byte[] buffer, int length) {
+        int headerEnd = indexOf(buffer, 0, length, "\r\n\r\n");
+        if (headerEnd < 0) {
+            return -1;
+        }
+        int bodyStart = headerEnd + 4;
+        String headers = new String(buffer, 0, headerEnd, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+
+        int status = status(buffer);
+        if (status == 204 || status == 304 || status < 200) {
+            return bodyStart;
+        }
+        String contentLength = header(headers, "content-length");
+        if (contentLength != null) {
+            int end = bodyStart + Integer.parseInt(contentLength);
+            return end <= length ? end : -1;
+        }
+        String transferEncoding = header(headers, "transfer-encoding");
+        if (transferEncoding != null && transferEncoding.contains("chunked")) {
+            return chunkedEnd(buffer, bodyStart, length);
+        }
+        return bodyStart;
+    }
+
+    /**
+     * @return status de la respuesta que empieza en el buffer ("HTTP/1.1 200 ..."), o 0 si no se reconoce
+     */
+    static int status(byte[] buffer) {
+        int space = indexOf(buffer, 0, Math.min(buffer.length, 16), " ");
+        if (space < 0 || space + 4 > buffer.length) {
+            return 0;
+        }
+        int ret = 0;
+        for (int i = space + 1; i < space + 4; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            ret = ret * 10 + digit;
+        }
+        return ret;
+    }
+
+    private static int chunkedEnd(byte[] buffer, int position, int length) {
+        while (true) {
+            int lineEnd = indexOf(buffer, position, length, "\r\n");
+            if (lineEnd < 0) {
+                return -1;
+            }
+            String sizeLine = new String(buffer, position, lineEnd - position, StandardCharsets.ISO_8859_1);
+            int extension = sizeLine.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                // sin trailers: el ultimo fragmento termina con una linea vacia
+                return position + 2 <= length ? position + 2 : -1;
+            }
+            position += size + 2;
+            if (position > length) {
+                return -1;
+            }
+        }
+    }
+
+    private static String header(String headers, String name) {
+        int start = headers.indexOf("\r\n" + name + ":");
+        if (start < 0) {
+            return null;
+        }
+        int valueStart = start + name.length() + 3;
+        int end = headers.indexOf("\r\n", valueStart);
+        return headers.substring(valueStart, end < 0 ? headers.length() : end).trim();
+    }
+
+    private static int indexOf(byte[] buffer, int from, int to, String pattern) {
+        byte[] bytes = pattern.getBytes(StandardCharsets.US_ASCII);
+        for (int i = from; i <= to - bytes.length; i++) {
+            int j = 0;
+            while (j < bytes.length && buffer[i + j] == bytes[j]) {
+                j++;
+            }
+            if (j == bytes.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+package springBootInitialDemo.load;
+
+import java.util.UUID;
+
+/**
+ * Peticion de la carga a reproducir: metodo, ruta y etiqueta del endpoint para el informe.
+ * En la ruta, "{uuid}" se sustituye por un UUID aleatorio en cada envio
+ *
+ */
+final class LoadRequest {
+
+    private static final String UUID_VARIABLE = "{uuid}";
+
+    private final String method;
+    private final String path;
+
+    LoadRequest(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return etiqueta del endpoint, la ruta sin expandir y sin query
+     */
+    String getEndpoint() {
+        int query = path.indexOf('?');
+        return method + " " + (query < 0 ? path : path.substring(0, query));
+    }
+
+    String expandPath() {
+        return path.contains(UUID_VARIABLE) ? path.replace(UUID_VARIABLE, UUID.randomUUID().toString()) : path;
+    }
+}
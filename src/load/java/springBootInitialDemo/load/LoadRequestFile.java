@@ -0,0 +1,73 @@
+package springBootInitialDemo.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura del fichero de peticiones a reproducir. Se admiten dos formatos:
+ *  - texto: una peticion por linea, "GET /v1/user/{uuid}" o solo la ruta; '#' inicia un comentario
+ *  - coleccion de Postman (.json): se toman el metodo y la ruta de cada item, ignorando el host
+ *
+ */
+final class LoadRequestFile {
+
+    private LoadRequestFile() {
+    }
+
+    static List<LoadRequest> read(Path file) throws IOException {
+        List<LoadRequest> requests = file.getFileName().toString().endsWith(".json")
+                ? readPostmanCollection(file)
+                : readText(file);
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("El fichero de peticiones esta vacio: " + file);
+        }
+        return requests;
+    }
+
+    private static List<LoadRequest> readText(Path file) throws IOException {
+        List<LoadRequest> requests = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+", 2);
+            requests.add(parts.length == 2
+                    ? new LoadRequest(parts[0].toUpperCase(), parts[1])
+                    : new LoadRequest("GET", parts[0]));
+        }
+        return requests;
+    }
+
+    private static List<LoadRequest> readPostmanCollection(Path file) throws IOException {
+        List<LoadRequest> requests = new ArrayList<>();
+        collect(new ObjectMapper().readTree(file.toFile()).path("item"), requests);
+        return requests;
+    }
+
+    private static void collect(JsonNode items, List<LoadRequest> requests) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.get("item"), requests);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+            URI uri = URI.create(raw.replaceAll("\\{\\{[^}]*}}", "localhost"));
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            if (uri.getRawQuery() != null) {
+                path += "?" + uri.getRawQuery();
+            }
+            requests.add(new LoadRequest(request.path("method").asText("GET"), path));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package springBootInitialDemo.load;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import springBootInitialDemo.App;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga extremo a extremo.
+ *
+ * Arranca App en un puerto efimero y reproduce el fichero de peticiones en bucle abierto, a una
+ * tasa de llegada fija: la peticion i se programa para el instante inicio + i / tasa, con
+ * independencia de lo que tarden las anteriores. La latencia se mide desde ese instante
+ * programado y no desde el envio real, de modo que las esperas por un servidor saturado cuentan
+ * como latencia (sin "coordinated omission").
+ *
+ * Las latencias de cada endpoint se registran en un HdrHistogram. Al terminar se imprime un
+ * resumen y se escribe en el directorio de informes un fichero .hgrm por endpoint con la
+ * distribucion de percentiles, para poder comparar antes y despues de un cambio.
+ *
+ * Argumentos: fichero-peticiones tasa-por-segundo duracion-segundos directorio-informes [calentamiento-segundos]
+ *
+ */
+public final class LoadTestRunner {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int CONNECTIONS = 256;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Uso: LoadTestRunner <fichero> <peticiones/s> <duracion s> <dir informes> [calentamiento s]");
+            System.exit(2);
+        }
+        List<LoadRequest> requests = LoadRequestFile.read(Paths.get(args[0]));
+        int rate = Integer.parseInt(args[1]);
+        int durationSeconds = Integer.parseInt(args[2]);
+        Path reportDir = Paths.get(args[3]);
+        int warmupSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        ConfigurableApplicationContext context = SpringApplication.run(App.class,
+                "--server.port=0", "--access-log.enabled=false");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            System.out.println("Aplicacion arrancada en " + baseUrl);
+
+            System.out.println("Calentamiento: " + warmupSeconds + " s a " + rate + " peticiones/s");
+            run(baseUrl, requests, rate, warmupSeconds);
+
+            System.out.println("Medicion: " + durationSeconds + " s a " + rate + " peticiones/s");
+            Map<String, Histogram> histograms = run(baseUrl, requests, rate, durationSeconds);
+            report(histograms, reportDir);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Map<String, Histogram> run(String baseUrl, List<LoadRequest> requests, int rate, int seconds)
+            throws InterruptedException {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (LoadRequest request : requests) {
+            histograms.computeIfAbsent(request.getEndpoint(),
+                    endpoint -> new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+        }
+        AtomicLong errors = new AtomicLong();
+        ExecutorService connections = Executors.newFixedThreadPool(CONNECTIONS);
+
+        long total = (long) rate * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRequest request = requests.get((int) (i % requests.size()));
+            Histogram histogram = histograms.get(request.getEndpoint());
+            connections.execute(() -> {
+                boolean ok = send(baseUrl, request);
+                long latency = System.nanoTime() - intended;
+                synchronized (histogram) {
+                    histogram.recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                }
+                if (!ok) {
+                    errors.incrementAndGet();
+                }
+            });
+        }
+        connections.shutdown();
+        connections.awaitTermination(1, TimeUnit.MINUTES);
+        if (errors.get() > 0) {
+            System.out.println("Peticiones con error: " + errors.get());
+        }
+        return histograms;
+    }
+
+    private static boolean send(String baseUrl, LoadRequest request) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUrl + request.expandPath()).openConnection();
+            connection.setRequestMethod(request.getMethod());
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            int status = connection.getResponseCode();
+            InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body != null) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) >= 0) {
+                    // se consume el cuerpo para reutilizar la conexion keep-alive
+                }
+                body.close();
+            }
+            return status < 500;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+
+    private static void report(Map<String, Histogram> histograms, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        System.out.printf("%-32s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "count", "p50 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            System.out.printf("%-32s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    entry.getKey(), histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getValueAtPercentile(99.99)),
+                    millis(histogram.getMaxValue()));
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(fileName)), false, "UTF-8")) {
+                histogram.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.println("Informes de percentiles (ms) en " + reportDir.toAbsolutePath());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
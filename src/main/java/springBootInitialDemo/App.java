@@ -4,13 +4,28 @@
 package springBootInitialDemo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
 
 
 @SpringBootApplication
 public class App {
 
+    /**
+     * Pasos de arranque (fases del contexto e instanciacion de cada bean) que se guardan para
+     * StartupReport y /actuator/startup
+     */
+    private static final int STARTUP_STEPS = 4096;
+
     public static void main(String[] args) {
 
-        SpringApplication.run(App.class, args);
+        SpringApplication application = new SpringApplication(App.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        ConfigurableApplicationContext context = application.run(args);
+
+        // Usado por las tareas appCds y startupReport: arrancar, medir y salir
+        if (context.getEnvironment().getProperty("startup.exit-after-refresh", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
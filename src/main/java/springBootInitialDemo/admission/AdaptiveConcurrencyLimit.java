@@ -0,0 +1,119 @@
+package springBootInitialDemo.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de peticiones simultaneas que se ajusta a la latencia observada (gradiente, como en
+ * Netflix concurrency-limits): por cada ventana de windowMs (y al menos minSamples peticiones) se
+ * compara la latencia media de la ventana con una media movil de largo plazo. Si la latencia
+ * reciente supera tolerance veces la de largo plazo, el limite baja en proporcion; si no, sube en
+ * sqrt(limite), pero solo si en la ventana se llego a usar al menos la mitad del limite (con poca
+ * carga la latencia no dice nada de la capacidad).
+ *
+ * Adquirir y liberar son un compareAndSet y un decremento; el recalculo lo hace solo el hilo que
+ * cierra la ventana, y el limite se publica en un campo volatile.
+ *
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_ALPHA = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNs;
+    private final int minSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart;
+
+    private volatile double limit;
+    private volatile double longRttNs;
+
+    /**
+     * @param initialLimit, peticiones simultaneas al arrancar
+     * @param minLimit, limite minimo
+     * @param maxLimit, limite maximo
+     * @param tolerance, cuanto puede crecer la latencia sobre la de largo plazo antes de reducir el limite
+     * @param windowNs, duracion minima de la ventana de muestras
+     * @param minSamples, muestras minimas por ventana
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    long windowNs, int minSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Se necesita 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = Math.max(1.0, tolerance);
+        this.windowNs = windowNs;
+        this.minSamples = Math.max(1, minSamples);
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return true si la peticion cabe en el limite; en ese caso hay que llamar a release al terminar
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        maxInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * @param latencyNs, duracion de la peticion admitida
+     */
+    public void release(long latencyNs) {
+        inFlight.decrementAndGet();
+        latencySum.add(latencyNs);
+        samples.increment();
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNs && samples.sum() >= minSamples && windowStart.compareAndSet(start, now)) {
+            update();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        int peak = maxInFlight.getAndSet(inFlight.get());
+        if (count == 0) {
+            return;
+        }
+        double sampleRtt = Math.max(1.0, (double) sum / count);
+        double longRtt = longRttNs == 0 ? sampleRtt : longRttNs * (1 - LONG_RTT_ALPHA) + sampleRtt * LONG_RTT_ALPHA;
+        longRttNs = longRtt;
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / sampleRtt));
+        double newLimit = current * gradient;
+        if (gradient >= 1.0 && peak >= current / 2) {
+            newLimit += Math.sqrt(current);
+        }
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+    }
+}
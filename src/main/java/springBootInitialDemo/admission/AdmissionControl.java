@@ -0,0 +1,108 @@
+package springBootInitialDemo.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Control de admision de los endpoints HTTP: crea un AdmissionControlInterceptor por cada endpoint
+ * de admission.endpoints (WebMVCConfiguration los registra sobre sus rutas), evicta periodicamente
+ * los clientes inactivos y expone los contadores de admitidas y descartadas.
+ *
+ * Cada endpoint <nombre> se configura con admission.endpoint.<nombre>.*; lo que no se indica toma
+ * el valor comun admission.* (ver application.properties).
+ *
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final List<AdmissionControlInterceptor> interceptors;
+
+    @Autowired
+    public AdmissionControl(Environment environment) {
+        if (!environment.getProperty("admission.enabled", Boolean.class, true)) {
+            this.interceptors = Collections.emptyList();
+            return;
+        }
+        List<AdmissionControlInterceptor> ret = new ArrayList<>();
+        for (String name : split(environment.getProperty("admission.endpoints", ""))) {
+            ret.add(create(environment, name));
+        }
+        this.interceptors = Collections.unmodifiableList(ret);
+    }
+
+    public List<AdmissionControlInterceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    @Scheduled(fixedDelayString = "${admission.eviction-interval-ms:10000}")
+    public void evictIdle() {
+        for (AdmissionControlInterceptor interceptor : interceptors) {
+            int evicted = interceptor.evictIdle();
+            if (evicted > 0) {
+                log.debug("Admision {}: {} clientes inactivos eliminados", interceptor.getName(), evicted);
+            }
+        }
+    }
+
+    /**
+     * @return por endpoint: admitidas, descartadas por cliente (429) y por concurrencia (503),
+     * peticiones en curso, limite de concurrencia actual y clientes con cubo propio
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> ret = new LinkedHashMap<>();
+        for (AdmissionControlInterceptor interceptor : interceptors) {
+            ret.put(interceptor.getName(), interceptor.getStats());
+        }
+        return ret;
+    }
+
+    private static AdmissionControlInterceptor create(Environment environment, String name) {
+        String prefix = "admission.endpoint." + name + ".";
+        List<String> paths = split(environment.getRequiredProperty(prefix + "paths"));
+
+        TokenBucketTable buckets = new TokenBucketTable(
+                property(environment, name, "rate-per-second", Double.class, 100.0),
+                property(environment, name, "burst", Integer.class, 200),
+                environment.getProperty("admission.stripes", Integer.class, 16),
+                environment.getProperty("admission.max-clients", Integer.class, 100000),
+                TimeUnit.MILLISECONDS.toNanos(environment.getProperty("admission.idle-timeout-ms", Long.class, 60000L)),
+                TimeUnit.MILLISECONDS.toNanos(environment.getProperty("admission.stripe-sweep-interval-ms", Long.class, 1000L)));
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(
+                property(environment, name, "concurrency.initial", Integer.class, 100),
+                property(environment, name, "concurrency.min", Integer.class, 10),
+                property(environment, name, "concurrency.max", Integer.class, 1000),
+                property(environment, name, "concurrency.tolerance", Double.class, 2.0),
+                TimeUnit.MILLISECONDS.toNanos(property(environment, name, "concurrency.window-ms", Long.class, 1000L)),
+                property(environment, name, "concurrency.min-samples", Integer.class, 50));
+
+        return new AdmissionControlInterceptor(name, paths, environment.getProperty("admission.client-key-header", ""),
+                buckets, concurrencyLimit);
+    }
+
+    private static <T> T property(Environment environment, String name, String key, Class<T> type, T defaultValue) {
+        T common = environment.getProperty("admission." + key, type, defaultValue);
+        return environment.getProperty("admission.endpoint." + name + "." + key, type, common);
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
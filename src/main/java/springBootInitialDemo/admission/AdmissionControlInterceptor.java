@@ -0,0 +1,131 @@
+package springBootInitialDemo.admission;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Control de admision de un endpoint (un grupo de rutas con los mismos limites). Antes de llegar
+ * al controlador, cada peticion pasa dos filtros:
+ *  - el token bucket de su cliente (TokenBucketTable); si esta vacio se responde 429 Too Many
+ *    Requests con Retry-After = segundos hasta el siguiente token.
+ *  - el limite adaptativo de peticiones simultaneas del endpoint (AdaptiveConcurrencyLimit); si
+ *    esta lleno se responde 503 Service Unavailable con Retry-After: 1.
+ * Las rechazadas se contestan sin cuerpo y sin pasar por el controlador, de modo que no ocupan
+ * la cola de Tomcat ni un hilo mas alla de este filtro.
+ *
+ * En los handlers asincronos la peticion se admite en el primer dispatch y el permiso se libera
+ * en afterCompletion del dispatch ASYNC, asi que la latencia medida incluye la parte asincrona.
+ *
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    private final String name;
+    private final List<String> paths;
+    private final String clientKeyHeader;
+    private final TokenBucketTable buckets;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shedRate = new LongAdder();
+    private final LongAdder shedConcurrency = new LongAdder();
+
+    /**
+     * @param clientKeyHeader, cabecera que identifica al cliente (p.ej. X-Forwarded-For tras un proxy);
+     *                         vacia o ausente = direccion remota de la conexion
+     */
+    public AdmissionControlInterceptor(String name, List<String> paths, String clientKeyHeader,
+                                       TokenBucketTable buckets, AdaptiveConcurrencyLimit concurrencyLimit) {
+        this.name = name;
+        this.paths = paths;
+        this.clientKeyHeader = clientKeyHeader;
+        this.buckets = buckets;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getAttribute(START_ATTRIBUTE) != null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long waitNs = buckets.tryAcquire(clientKey(request), now);
+        if (waitNs > 0) {
+            shedRate.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNs);
+            return false;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            shedConcurrency.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 0);
+            return false;
+        }
+        admitted.increment();
+        request.setAttribute(START_ATTRIBUTE, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            concurrencyLimit.release(System.nanoTime() - (Long) start);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return clientes con cubo propio eliminados por inactividad
+     */
+    public int evictIdle() {
+        return buckets.evictIdle(System.nanoTime());
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("admitted", admitted.sum());
+        ret.put("shedRate", shedRate.sum());
+        ret.put("shedConcurrency", shedConcurrency.sum());
+        ret.put("inFlight", (long) concurrencyLimit.getInFlight());
+        ret.put("limit", (long) concurrencyLimit.getLimit());
+        ret.put("clients", buckets.size());
+        return ret;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (clientKeyHeader != null && !clientKeyHeader.isEmpty()) {
+            String value = request.getHeader(clientKeyHeader);
+            if (value != null && !value.isEmpty()) {
+                int comma = value.indexOf(',');
+                return (comma < 0 ? value : value.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitNs) {
+        long retryAfterSeconds = Math.max(1L, (waitNs + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentLength(0);
+    }
+}
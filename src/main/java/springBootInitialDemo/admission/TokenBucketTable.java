@@ -0,0 +1,164 @@
+package springBootInitialDemo.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets por cliente, con el algoritmo GCRA (generic cell rate algorithm): cada cubo es un
+ * unico AtomicLong con el instante teorico de la siguiente llegada (TAT), que avanza una emision
+ * (1 / ratePerSecond) por peticion admitida. Se admite mientras el TAT no adelante al instante
+ * actual mas de burst emisiones, lo que equivale a un cubo de burst tokens que se rellena a
+ * ratePerSecond, pero se actualiza con un solo compareAndSet y sin hilo de relleno.
+ *
+ * La tabla esta repartida en stripes (potencia de dos) de ConcurrentHashMap, elegidos por el hash
+ * del cliente: la lectura de un cubo existente no bloquea, y el tamano y la eviccion se controlan
+ * por stripe. Un cubo esta lleno (y el cliente inactivo) cuando su TAT ha quedado en el pasado; los
+ * que llevan mas de idleTimeout asi se eliminan en evictIdle(). Si un stripe llega a su capacidad
+ * aun despues de evictar, los clientes nuevos comparten un cubo de desbordamiento, de modo que la
+ * memoria queda acotada aunque lleguen muchas direcciones distintas.
+ *
+ * Con un stripe lleno, el barrido de ese stripe al llegar un cliente nuevo es O(stripe), asi que se
+ * hace como mucho una vez cada sweepInterval por stripe; entre barridos los clientes nuevos van
+ * directamente al cubo de desbordamiento. El barrido completo lo hace la tarea programada.
+ *
+ */
+public final class TokenBucketTable {
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final int mask;
+    private final int maxClientsPerStripe;
+    private final long emissionIntervalNs;
+    private final long burstToleranceNs;
+    private final long idleTimeoutNs;
+    private final long sweepIntervalNs;
+    private final AtomicLongArray nextSweepNs;
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param ratePerSecond, peticiones por segundo sostenidas por cliente
+     * @param burst, peticiones que un cliente inactivo puede hacer seguidas
+     * @param stripes, numero de stripes; se redondea a la siguiente potencia de dos
+     * @param maxClients, clientes con cubo propio como maximo
+     * @param idleTimeoutNs, tiempo con el cubo lleno tras el que se elimina un cliente
+     * @param sweepIntervalNs, tiempo minimo entre dos barridos de un mismo stripe lleno
+     */
+    public TokenBucketTable(double ratePerSecond, int burst, int stripes, int maxClients, long idleTimeoutNs,
+                            long sweepIntervalNs) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("ratePerSecond y burst deben ser positivos");
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = newStripes(size);
+        this.mask = size - 1;
+        this.maxClientsPerStripe = Math.max(1, maxClients / size);
+        this.emissionIntervalNs = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNs = emissionIntervalNs * burst;
+        this.idleTimeoutNs = idleTimeoutNs;
+        this.sweepIntervalNs = sweepIntervalNs;
+        this.nextSweepNs = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            nextSweepNs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Java no permite crear arrays de un tipo generico: se crea el array sin parametrizar y se
+     * convierte, lo que es seguro porque el array no sale de la clase y solo contiene mapas del tipo declarado
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConcurrentHashMap<String, AtomicLong>[] newStripes(int size) {
+        ConcurrentHashMap<String, AtomicLong>[] ret = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            ret[i] = new ConcurrentHashMap<>();
+        }
+        return ret;
+    }
+
+    /**
+     * @return 0 si se admite la peticion del cliente; si no, nanosegundos hasta que habra un token
+     */
+    public long tryAcquire(String client, long nowNs) {
+        int index = stripeIndex(client);
+        AtomicLong bucket = stripes[index].get(client);
+        if (bucket == null) {
+            bucket = newBucket(index, client, nowNs);
+        }
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, nowNs) + emissionIntervalNs;
+            long ahead = newTat - nowNs;
+            if (ahead > burstToleranceNs) {
+                return ahead - burstToleranceNs;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Elimina los clientes cuyo cubo lleva lleno mas de idleTimeout
+     *
+     * @return clientes eliminados
+     */
+    public int evictIdle(long nowNs) {
+        int ret = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            ret += evictIdle(stripe, nowNs);
+        }
+        return ret;
+    }
+
+    /**
+     * @return clientes con cubo propio
+     */
+    public long size() {
+        long ret = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            ret += stripe.mappingCount();
+        }
+        return ret;
+    }
+
+    private AtomicLong newBucket(int index, String client, long nowNs) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+        if (stripe.mappingCount() >= maxClientsPerStripe
+                && (!claimSweep(index, nowNs) || evictIdle(stripe, nowNs) == 0)) {
+            return overflow;
+        }
+        // TAT en el pasado: el cliente nuevo empieza con el cubo lleno
+        AtomicLong bucket = new AtomicLong(nowNs - burstToleranceNs);
+        AtomicLong previous = stripe.putIfAbsent(client, bucket);
+        return previous != null ? previous : bucket;
+    }
+
+    /**
+     * @return true si el hilo actual debe barrer el stripe: no se ha barrido en el ultimo
+     * sweepInterval y ningun otro hilo se ha adelantado
+     */
+    private boolean claimSweep(int index, long nowNs) {
+        long next = nextSweepNs.get(index);
+        if (next != Long.MIN_VALUE && nowNs - next < 0) {
+            return false;
+        }
+        return nextSweepNs.compareAndSet(index, next, nowNs + sweepIntervalNs);
+    }
+
+    private int evictIdle(ConcurrentHashMap<String, AtomicLong> stripe, long nowNs) {
+        int ret = 0;
+        for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+            long tat = entry.getValue().get();
+            if (nowNs - tat > idleTimeoutNs && stripe.remove(entry.getKey(), entry.getValue())) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    private int stripeIndex(String client) {
+        int h = client.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,169 @@
+package springBootInitialDemo.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor de los handlers asincronos, de @Async y de las respuestas en streaming de Spring MVC.
+ *
+ * Dos modos, elegidos al arrancar con async.executor:
+ *  - PLATFORM: pool acotado de hilos de plataforma (async.pool-size) con una cola acotada
+ *    (async.queue-capacity); lo que no cabe en la cola se rechaza.
+ *  - VIRTUAL: un hilo virtual por tarea (JDK 21+), con un limite opcional de tareas simultaneas
+ *    (async.virtual.max-concurrency, 0 = sin limite). El proyecto compila para Java 8, asi que
+ *    Executors.newVirtualThreadPerTaskExecutor se obtiene por reflexion; en una JVM anterior a
+ *    la 21 se avisa en el log y se usa el modo PLATFORM.
+ *
+ * En ambos modos se cuentan las tareas enviadas, encoladas (pendientes de empezar), activas,
+ * completadas y rechazadas. Un rechazo se notifica con RejectedExecutionException, que los
+ * controladores traducen a 503.
+ *
+ */
+public final class RequestExecutor implements Executor {
+
+    public enum Mode {
+        PLATFORM, VIRTUAL;
+
+        public static Mode fromProperty(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RequestExecutor.class);
+
+    private final Mode mode;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong active = new AtomicLong();
+
+    private RequestExecutor(Mode mode, ExecutorService delegate, Semaphore permits) {
+        this.mode = mode;
+        this.delegate = delegate;
+        this.permits = permits;
+    }
+
+    /**
+     * @param poolSize, hilos del modo PLATFORM
+     * @param queueCapacity, tareas en espera del modo PLATFORM
+     * @param maxVirtualConcurrency, tareas simultaneas del modo VIRTUAL; 0 = sin limite
+     */
+    public static RequestExecutor create(Mode mode, int poolSize, int queueCapacity, int maxVirtualConcurrency) {
+        if (mode == Mode.VIRTUAL) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                Semaphore permits = maxVirtualConcurrency > 0 ? new Semaphore(maxVirtualConcurrency) : null;
+                return new RequestExecutor(Mode.VIRTUAL, virtual, permits);
+            }
+            log.warn("Los hilos virtuales necesitan Java 21 o superior (JVM actual: {}); se usa el modo PLATFORM",
+                    System.getProperty("java.version"));
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return new RequestExecutor(Mode.PLATFORM, pool, null);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submitted.increment();
+        if (permits != null && !permits.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Limite de tareas simultaneas alcanzado");
+        }
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            release();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            completed.increment();
+            release();
+        }
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return tareas enviadas, encoladas, activas, completadas y rechazadas
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("submitted", submitted.sum());
+        ret.put("queued", queued.get());
+        ret.put("active", active.get());
+        ret.put("completed", completed.sum());
+        ret.put("rejected", rejected.sum());
+        return ret;
+    }
+
+    public void shutdown() throws InterruptedException {
+        delegate.shutdown();
+        delegate.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor() o null si la JVM no tiene hilos virtuales
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread ret = new Thread(runnable, "request-executor-" + count.incrementAndGet());
+            ret.setDaemon(true);
+            return ret;
+        }
+    }
+}
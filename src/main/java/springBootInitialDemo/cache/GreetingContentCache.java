@@ -0,0 +1,122 @@
+package springBootInitialDemo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import springBootInitialDemo.template.GreetingTemplate;
+import springBootInitialDemo.template.GreetingTemplateEngine;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache acotada del contenido renderizado de los saludos, indexada por plantilla y nombre.
+ *
+ * Usa Caffeine (eviccion Window TinyLFU), de modo que los nombres frecuentes permanecen
+ * en la cache y una rafaga de nombres distintos no la vacia.
+ * La memoria esta acotada por dos limites configurables:
+ *  - greeting.cache.maximum-size: numero maximo de entradas
+ *  - greeting.cache.max-name-length: los nombres mas largos se renderizan pero no se guardan,
+ *    por lo que el peso de cada entrada tambien esta acotado
+ *
+ * Solo se guarda el contenido; el id del saludo se sigue generando en cada peticion.
+ *
+ * Anotaciones:
+ * @Component
+ * Indica que una clase es un "componente", candidata para la detección automática
+ * mediante el escaneo del classpath
+ *
+ */
+@Component
+public class GreetingContentCache {
+
+    private final GreetingTemplateEngine templateEngine;
+    private final Cache<Key, String> cache;
+    private final int maxNameLength;
+
+    @Autowired
+    public GreetingContentCache(GreetingTemplateEngine templateEngine,
+                                @Value("${greeting.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${greeting.cache.max-name-length:64}") int maxNameLength) {
+        this.templateEngine = templateEngine;
+        this.maxNameLength = maxNameLength;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna el saludo renderizado para el locale de la peticion en curso,
+     * reutilizando el contenido cacheado si existe
+     *
+     * @param name, nombre a saludar
+     * @return contenido del saludo, por ejemplo "HELLO WORLD"
+     */
+    public String getContent(String name) {
+        return getContent(templateEngine.currentTemplate(), name);
+    }
+
+    /**
+     * Igual que getContent(name), con la plantilla del locale indicado
+     *
+     * @param locale, locale de la plantilla de saludo
+     */
+    public String getContent(String name, Locale locale) {
+        return getContent(templateEngine.template(locale), name);
+    }
+
+    private String getContent(GreetingTemplate template, String name) {
+        if (name == null || name.length() > maxNameLength) {
+            return template.render(name);
+        }
+        return cache.get(new Key(template, name), key -> key.template.render(key.name));
+    }
+
+    /**
+     * @return contadores de aciertos, fallos y evicciones, y el tamaño estimado de la cache
+     */
+    public Map<String, Long> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("hits", stats.hitCount());
+        ret.put("misses", stats.missCount());
+        ret.put("evictions", stats.evictionCount());
+        ret.put("size", cache.estimatedSize());
+        return ret;
+    }
+
+    private static final class Key {
+
+        private final GreetingTemplate template;
+        private final String name;
+        private final int hash;
+
+        private Key(GreetingTemplate template, String name) {
+            this.template = template;
+            this.name = name;
+            this.hash = 31 * System.identityHashCode(template) + name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return template == other.template && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
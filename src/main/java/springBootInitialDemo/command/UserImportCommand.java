@@ -0,0 +1,53 @@
+package springBootInitialDemo.command;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import springBootInitialDemo.dto.UserImportStatusDto;
+import springBootInitialDemo.service.IUserImportService;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Importacion masiva de usuarios al arrancar, desde la linea de comandos:
+ *
+ *   java -jar app.jar --user.import.file=usuarios.csv
+ *
+ * El formato se deduce de la extension (.csv o .jsonl/.ndjson); se admiten varios ficheros separados por comas
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "user.import.file")
+public class UserImportCommand implements ApplicationRunner {
+
+    private final IUserImportService userImportService;
+    private final String[] files;
+
+    @Autowired
+    public UserImportCommand(IUserImportService userImportService, @Value("${user.import.file}") String[] files) {
+        this.userImportService = userImportService;
+        this.files = files;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (String file : files) {
+            Path path = Paths.get(file.trim());
+            IUserImportService.Format format = path.getFileName().toString().toLowerCase().endsWith(".csv")
+                    ? IUserImportService.Format.CSV
+                    : IUserImportService.Format.JSONL;
+            try (InputStream input = Files.newInputStream(path)) {
+                UserImportStatusDto status = userImportService.importUsers(input, format);
+                if (status.getError() != null) {
+                    throw new IllegalStateException("Fallo importando " + path + ": " + status.getError());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package springBootInitialDemo.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import springBootInitialDemo.async.RequestExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor compartido por los handlers asincronos (CompletableFuture), los metodos @Async y las
+ * respuestas en streaming de Spring MVC. El modo se elige con async.executor=platform|virtual
+ *
+ */
+@Configuration
+public class AsyncConfiguration implements AsyncConfigurer {
+
+    @Autowired
+    private ObjectProvider<RequestExecutor> requestExecutor;
+
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutor requestExecutor(@Value("${async.executor:platform}") String mode,
+                                           @Value("${async.pool-size:200}") int poolSize,
+                                           @Value("${async.queue-capacity:1000}") int queueCapacity,
+                                           @Value("${async.virtual.max-concurrency:0}") int maxVirtualConcurrency) {
+        return RequestExecutor.create(RequestExecutor.Mode.fromProperty(mode), poolSize, queueCapacity,
+                maxVirtualConcurrency);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return requestExecutor.getObject();
+    }
+}
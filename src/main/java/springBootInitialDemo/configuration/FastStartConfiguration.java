@@ -0,0 +1,38 @@
+package springBootInitialDemo.configuration;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import springBootInitialDemo.admission.AdmissionControl;
+import springBootInitialDemo.log.AccessLog;
+import springBootInitialDemo.repository.CountryCatalog;
+import springBootInitialDemo.repository.UserLogCompactionJob;
+import springBootInitialDemo.repository.UserRepository;
+import springBootInitialDemo.startup.StartupReport;
+import springBootInitialDemo.stats.GreetingStats;
+import springBootInitialDemo.template.GreetingTemplateEngine;
+
+/**
+ * Perfil "fast-start": con spring.main.lazy-initialization=true (application-fast-start.properties)
+ * los beans se crean la primera vez que se usan. Se excluyen de la inicializacion perezosa los que
+ * tienen que estar listos antes de recibir trafico:
+ *  - los que programan tareas con @Scheduled (CountryCatalog, UserLogCompactionJob,
+ *    AdmissionControl, GreetingStats), que si no nunca se crearian
+ *  - AccessLog, que arranca su hilo de escritura
+ *  - UserRepository, que recupera el log de usuarios, y GreetingTemplateEngine, que carga la
+ *    plantilla, para que la primera peticion no pague ese coste
+ *  - StartupReport, que escucha ApplicationReadyEvent
+ *
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(CountryCatalog.class, UserLogCompactionJob.class,
+                AdmissionControl.class, GreetingStats.class, AccessLog.class, UserRepository.class,
+                GreetingTemplateEngine.class, StartupReport.class);
+    }
+}
@@ -0,0 +1,43 @@
+package springBootInitialDemo.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import springBootInitialDemo.id.AtomicGreetingIdGenerator;
+import springBootInitialDemo.id.IGreetingIdGenerator;
+import springBootInitialDemo.id.RangeLeasingGreetingIdGenerator;
+import springBootInitialDemo.id.SnowflakeGreetingIdGenerator;
+
+import java.nio.file.Paths;
+
+/**
+ * Seleccion del generador de identificadores de saludos mediante la propiedad greeting.id.generator:
+ *  - atomic (por defecto): contador en memoria, reinicia en cada arranque
+ *  - snowflake: marca de tiempo + greeting.id.node-id + secuencia, sin coordinacion entre instancias
+ *  - range: bloques reservados por hilo con la marca de agua en greeting.id.range.file
+ *
+ */
+@Configuration
+public class IdGeneratorConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "greeting.id.generator", havingValue = "atomic", matchIfMissing = true)
+    public IGreetingIdGenerator atomicGreetingIdGenerator() {
+        return new AtomicGreetingIdGenerator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "greeting.id.generator", havingValue = "snowflake")
+    public IGreetingIdGenerator snowflakeGreetingIdGenerator(@Value("${greeting.id.node-id}") long nodeId) {
+        return new SnowflakeGreetingIdGenerator(nodeId);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "greeting.id.generator", havingValue = "range")
+    public IGreetingIdGenerator rangeLeasingGreetingIdGenerator(
+            @Value("${greeting.id.range.file:data/greeting-id.hwm}") String file,
+            @Value("${greeting.id.range.block-size:1000}") long blockSize) {
+        return new RangeLeasingGreetingIdGenerator(Paths.get(file), blockSize);
+    }
+}
@@ -0,0 +1,108 @@
+package springBootInitialDemo.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import springBootInitialDemo.admission.AdmissionControl;
+import springBootInitialDemo.admission.AdmissionControlInterceptor;
+import springBootInitialDemo.async.RequestExecutor;
+import springBootInitialDemo.cache.GreetingContentCache;
+import springBootInitialDemo.http.HttpClientStats;
+import springBootInitialDemo.log.AccessLog;
+
+/**
+ * Metricas propias de la aplicacion, publicadas junto a las de Spring Boot Actuator en /actuator/prometheus.
+ *
+ * Las metricas por endpoint (http.server.requests: peticiones, errores por status/excepcion y
+ * histograma de latencias) y las de la JVM (jvm.gc.pause, jvm.gc.memory.allocated) las registra
+ * Actuator automaticamente. Las peticiones en curso por endpoint las publica InFlightRequestsInterceptor.
+ *
+ * Micrometer registra sobre contadores LongAdder e histogramas con los buckets preasignados,
+ * sin bloqueos en el camino de la peticion.
+ *
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder greetingContentCacheMetrics(GreetingContentCache greetingContentCache) {
+        return registry -> {
+            FunctionCounter.builder("greeting.cache.hits", greetingContentCache,
+                    cache -> cache.getStats().get("hits")).register(registry);
+            FunctionCounter.builder("greeting.cache.misses", greetingContentCache,
+                    cache -> cache.getStats().get("misses")).register(registry);
+            FunctionCounter.builder("greeting.cache.evictions", greetingContentCache,
+                    cache -> cache.getStats().get("evictions")).register(registry);
+            Gauge.builder("greeting.cache.size", greetingContentCache,
+                    cache -> cache.getStats().get("size")).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder accessLogMetrics(AccessLog accessLog) {
+        return registry -> {
+            FunctionCounter.builder("access.log.written", accessLog,
+                    log -> log.getStats().get("written")).register(registry);
+            FunctionCounter.builder("access.log.dropped", accessLog,
+                    log -> log.getStats().get("dropped")).register(registry);
+            Gauge.builder("access.log.pending", accessLog,
+                    log -> log.getStats().get("pending")).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder httpClientMetrics(HttpClientStats httpClientStats) {
+        return registry -> {
+            Gauge.builder("http.client.pool.leased", httpClientStats,
+                    stats -> stats.getStats().get("leased")).register(registry);
+            Gauge.builder("http.client.pool.available", httpClientStats,
+                    stats -> stats.getStats().get("available")).register(registry);
+            Gauge.builder("http.client.pool.pending", httpClientStats,
+                    stats -> stats.getStats().get("pending")).register(registry);
+            FunctionCounter.builder("http.client.single.flight.executed", httpClientStats,
+                    stats -> stats.getStats().get("executed")).register(registry);
+            FunctionCounter.builder("http.client.single.flight.coalesced", httpClientStats,
+                    stats -> stats.getStats().get("coalesced")).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder requestExecutorMetrics(RequestExecutor requestExecutor) {
+        String mode = requestExecutor.getMode().name().toLowerCase();
+        return registry -> {
+            Gauge.builder("async.executor.queued", requestExecutor,
+                    executor -> executor.getStats().get("queued")).tag("mode", mode).register(registry);
+            Gauge.builder("async.executor.active", requestExecutor,
+                    executor -> executor.getStats().get("active")).tag("mode", mode).register(registry);
+            FunctionCounter.builder("async.executor.completed", requestExecutor,
+                    executor -> executor.getStats().get("completed")).tag("mode", mode).register(registry);
+            FunctionCounter.builder("async.executor.rejected", requestExecutor,
+                    executor -> executor.getStats().get("rejected")).tag("mode", mode).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionControlMetrics(AdmissionControl admissionControl) {
+        return registry -> {
+            for (AdmissionControlInterceptor interceptor : admissionControl.getInterceptors()) {
+                String endpoint = interceptor.getName();
+                FunctionCounter.builder("admission.admitted", interceptor,
+                        admission -> admission.getStats().get("admitted")).tag("endpoint", endpoint).register(registry);
+                FunctionCounter.builder("admission.shed", interceptor,
+                        admission -> admission.getStats().get("shedRate"))
+                        .tag("endpoint", endpoint).tag("reason", "rate").register(registry);
+                FunctionCounter.builder("admission.shed", interceptor,
+                        admission -> admission.getStats().get("shedConcurrency"))
+                        .tag("endpoint", endpoint).tag("reason", "concurrency").register(registry);
+                Gauge.builder("admission.in.flight", interceptor,
+                        admission -> admission.getStats().get("inFlight")).tag("endpoint", endpoint).register(registry);
+                Gauge.builder("admission.concurrency.limit", interceptor,
+                        admission -> admission.getStats().get("limit")).tag("endpoint", endpoint).register(registry);
+                Gauge.builder("admission.clients", interceptor,
+                        admission -> admission.getStats().get("clients")).tag("endpoint", endpoint).register(registry);
+            }
+        };
+    }
+}
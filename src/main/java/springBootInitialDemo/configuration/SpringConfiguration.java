@@ -1,13 +1,21 @@
 package springBootInitialDemo.configuration;
 
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
+import springBootInitialDemo.http.SingleFlightRequestInterceptor;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableScheduling
@@ -19,16 +27,59 @@ public class SpringConfiguration {
         return new PropertySourcesPlaceholderConfigurer();
     }
 
+    /**
+     * Pool de conexiones keep-alive del cliente HTTP saliente, con limite global y por ruta (host:puerto)
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(
+            @Value("${http.client.max-total:200}") int maxTotal,
+            @Value("${http.client.max-per-route:50}") int maxPerRoute,
+            @Value("${http.client.validate-after-inactivity-ms:2000}") int validateAfterInactivityMs) {
+        PoolingHttpClientConnectionManager ret = new PoolingHttpClientConnectionManager();
+        ret.setMaxTotal(maxTotal);
+        ret.setDefaultMaxPerRoute(maxPerRoute);
+        ret.setValidateAfterInactivity(validateAfterInactivityMs);
+        return ret;
+    }
+
     @Bean
-    public ClientHttpRequestFactory getClientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory ret = new SimpleClientHttpRequestFactory();
-        ret.setReadTimeout(10000); // 10 sec
+    public ClientHttpRequestFactory getClientHttpRequestFactory(
+            PoolingHttpClientConnectionManager connectionManager,
+            @Value("${http.client.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${http.client.read-timeout-ms:10000}") int readTimeoutMs,
+            @Value("${http.client.connection-request-timeout-ms:1000}") int connectionRequestTimeoutMs,
+            @Value("${http.client.keep-alive-ms:30000}") long keepAliveMs) {
+        // Si el servidor no indica Keep-Alive: timeout=..., la conexion se reutiliza durante keep-alive-ms
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? duration : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .build();
+        HttpComponentsClientHttpRequestFactory ret = new HttpComponentsClientHttpRequestFactory(httpClient);
+        ret.setConnectTimeout(connectTimeoutMs);
+        ret.setReadTimeout(readTimeoutMs);
+        ret.setConnectionRequestTimeout(connectionRequestTimeoutMs);
         return ret;
     }
 
     @Bean
-    public RestTemplate getRestTemplate(ClientHttpRequestFactory clientHttpRequestFactory) {
-        return new RestTemplate(clientHttpRequestFactory);
+    public SingleFlightRequestInterceptor singleFlightRequestInterceptor() {
+        return new SingleFlightRequestInterceptor();
+    }
+
+    @Bean
+    public RestTemplate getRestTemplate(ClientHttpRequestFactory clientHttpRequestFactory,
+                                        SingleFlightRequestInterceptor singleFlightRequestInterceptor,
+                                        @Value("${http.client.single-flight.enabled:true}") boolean singleFlight) {
+        RestTemplate ret = new RestTemplate(clientHttpRequestFactory);
+        if (singleFlight) {
+            ret.getInterceptors().add(singleFlightRequestInterceptor);
+        }
+        return ret;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package springBootInitialDemo.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import springBootInitialDemo.repository.store.UserLog;
+
+import java.nio.file.Paths;
+
+/**
+ * Persistencia de usuarios en disco (UserLog), activa salvo que user.persistence.enabled=false.
+ * Los ficheros se guardan en user.persistence.directory
+ *
+ */
+@Configuration
+public class UserPersistenceConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "user.persistence.enabled", havingValue = "true", matchIfMissing = true)
+    public UserLog userLog(@Value("${user.persistence.directory:data/users}") String directory) {
+        return new UserLog(Paths.get(directory));
+    }
+}
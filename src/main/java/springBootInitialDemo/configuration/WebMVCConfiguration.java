@@ -1,30 +1,93 @@
 package springBootInitialDemo.configuration;
 
-import java.util.TimeZone;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import springBootInitialDemo.admission.AdmissionControl;
+import springBootInitialDemo.admission.AdmissionControlInterceptor;
+import springBootInitialDemo.async.RequestExecutor;
+import springBootInitialDemo.json.ObjectMappers;
+import springBootInitialDemo.metrics.InFlightRequestsInterceptor;
 
-@ComponentScan(basePackages = {"springBootInitialDemo"})
+@Profile("!reactive")
 @Configuration
 @EnableWebMvc
 public class WebMVCConfiguration extends WebMvcConfigurerAdapter {
 
+    @Autowired
+    private InFlightRequestsInterceptor inFlightRequestsInterceptor;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private RequestExecutor requestExecutor;
+
+    @Value("${async.request-timeout-ms:30000}")
+    private long asyncRequestTimeoutMs;
+
+    @Value("${serialization.mode:fast}")
+    private String serializationMode;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(requestExecutor));
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+
+    /**
+     * El control de admision va antes que el resto de interceptores, para que una peticion
+     * descartada no cueste mas que la consulta a su token bucket y al limite de concurrencia
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        for (AdmissionControlInterceptor interceptor : admissionControl.getInterceptors()) {
+            registry.addInterceptor(interceptor).addPathPatterns(interceptor.getPaths().toArray(new String[0]));
+        }
+        registry.addInterceptor(inFlightRequestsInterceptor);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/**").addResourceLocations("classpath:/META-INF/resources/");
     }
 
+    /**
+     * Con jackson-dataformat-cbor y jackson-dataformat-smile en el classpath, Spring MVC registra
+     * junto al de JSON los conversores CBOR (application/cbor) y Smile (application/x-jackson-smile),
+     * que se eligen por negociacion de contenido con la cabecera Accept. Todos reciben los
+     * serializadores del modo serialization.mode
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        ObjectMappers.Mode mode = serializationMode();
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter) {
+                ObjectMappers.registerModules(((AbstractJackson2HttpMessageConverter) converter).getObjectMapper(), mode);
+            }
+        }
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setTimeZone(TimeZone.getDefault());
-        return mapper;
+        return ObjectMappers.json(serializationMode());
+    }
+
+    private ObjectMappers.Mode serializationMode() {
+        return ObjectMappers.Mode.fromProperty(serializationMode);
     }
 }
\ No newline at end of file
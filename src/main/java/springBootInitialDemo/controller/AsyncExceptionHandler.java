@@ -0,0 +1,23 @@
+package springBootInitialDemo.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Traduce a 503 Service Unavailable los rechazos del RequestExecutor (cola llena o limite de
+ * tareas simultaneas), tanto de los handlers asincronos como de las respuestas en streaming
+ *
+ */
+@RestControllerAdvice
+public class AsyncExceptionHandler {
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
@@ -0,0 +1,105 @@
+package springBootInitialDemo.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import springBootInitialDemo.dto.CountryDto;
+import springBootInitialDemo.repository.ContentHash;
+import springBootInitialDemo.repository.CountryCatalog;
+import springBootInitialDemo.service.ICountryService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Clase de la capa Controller.
+ * Sirve el catalogo de paises bajo http://localhost:8080/v1/countries. Todas las rutas responden
+ * 503 mientras el catalogo no se haya cargado por primera vez.
+ *
+ * Las respuestas llevan como ETag la version del catalogo (hash de su contenido, calculado al
+ * cargarlo) y como Last-Modified el instante de carga, ademas de Cache-Control. Las peticiones
+ * condicionales de un catalogo sin cambios reciben 304 sin que se serialice el cuerpo
+ *
+ */
+@RestController
+@RequestMapping("/v1/countries")
+public class CountryController {
+
+    private final ICountryService countryService;
+    private final CacheControl cacheControl;
+
+    @Autowired
+    public CountryController(ICountryService countryService,
+                             @Value("${country.cache-control.max-age-seconds:0}") long maxAgeSeconds) {
+        this.countryService = countryService;
+        this.cacheControl = maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic()
+                : CacheControl.noCache();
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CountryDto>> getCountries() {
+        return list(countryService::getCountries);
+    }
+
+    /**
+     * @param code, codigo alpha2 o alpha3 del pais
+     * @return 200 con el pais o 404 si no existe
+     */
+    @GetMapping("/alpha/{code}")
+    public ResponseEntity<CountryDto> getCountry(@PathVariable("code") String code) {
+        Optional<CountryCatalog.CatalogVersion> version = countryService.getVersion();
+        if (!version.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return countryService.getCountry(code)
+                .map(found -> conditional(version.get(), found))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/callingcode/{callingCode}")
+    public ResponseEntity<List<CountryDto>> getCountriesByCallingCode(@PathVariable("callingCode") String callingCode) {
+        return list(() -> countryService.getCountriesByCallingCode(callingCode));
+    }
+
+    /**
+     * @param language, codigo ISO 639-1 (es) o ISO 639-2 (spa)
+     */
+    @GetMapping("/lang/{language}")
+    public ResponseEntity<List<CountryDto>> getCountriesByLanguage(@PathVariable("language") String language) {
+        return list(() -> countryService.getCountriesByLanguage(language));
+    }
+
+    @GetMapping("/region/{region}")
+    public ResponseEntity<List<CountryDto>> getCountriesByRegion(@PathVariable("region") String region) {
+        return list(() -> countryService.getCountriesByRegion(region));
+    }
+
+    private ResponseEntity<List<CountryDto>> list(Supplier<List<CountryDto>> query) {
+        Optional<CountryCatalog.CatalogVersion> version = countryService.getVersion();
+        if (!version.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return conditional(version.get(), query.get());
+    }
+
+    /**
+     * @return 200 con las cabeceras de validacion; HttpEntityMethodProcessor lo convierte en 304
+     * si la peticion condicional coincide
+     */
+    private <T> ResponseEntity<T> conditional(CountryCatalog.CatalogVersion version, T body) {
+        return ResponseEntity.ok()
+                .eTag(ContentHash.toETag(version.getVersion()))
+                .lastModified(version.getLoadedAt())
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+}
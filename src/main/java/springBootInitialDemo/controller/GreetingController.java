@@ -1,13 +1,36 @@
 package springBootInitialDemo.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import springBootInitialDemo.async.RequestExecutor;
 import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.log.AccessLog;
 import springBootInitialDemo.service.IGreetingService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Clase de la capa Controller.
  * La anotacion @RestController convierte a la aplicacion en un REST Service, basado en el intercambio
@@ -38,11 +61,21 @@ import springBootInitialDemo.service.IGreetingService;
  * a la peticion será http://localhost:8080/v1
  *
  */
+@Profile("!reactive")
 @RestController
 public class GreetingController{
 
+    static final String DEFAULT_NAME = "WORLD";
+
+    private static final Logger log = LoggerFactory.getLogger(GreetingController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final IGreetingService greetingService;
     private final GreetingModelAssembler assembler;
+    private final AccessLog accessLog;
+    private final RequestExecutor requestExecutor;
+    private final ObjectMapper objectMapper;
+    private final int batchChunkSize;
 
     /**
      * Constructor de la clase, parametrizado con la la interface IGreetingService y la clase GreetingModelAssembler,
@@ -53,12 +86,22 @@ public class GreetingController{
      *                        en la cual se exponen los servicios o funcionalidades accesibles via HTTP
      * @param assembler, instancia de tipo GreetingModelAssembler, convierte un objeto de dominio en un
      *                   RepresentationModel, un EntityModel que envuelve al objeto de dominio y le agrega enlaces
+     * @param accessLog, log de accesos asincrono en el que se registra cada peticion atendida
+     * @param requestExecutor, executor en el que se atienden las variantes asincronas de los handlers
+     * @param objectMapper, ObjectMapper con el que se escriben las respuestas NDJSON del endpoint en lote
+     * @param batchChunkSize, nombres por bloque de ids reservado en el endpoint en lote
      *
      */
     @Autowired
-    public GreetingController(IGreetingService greetingService, GreetingModelAssembler assembler) {
+    public GreetingController(IGreetingService greetingService, GreetingModelAssembler assembler, AccessLog accessLog,
+                              RequestExecutor requestExecutor, ObjectMapper objectMapper,
+                              @Value("${greeting.batch.chunk-size:1024}") int batchChunkSize) {
         this.greetingService = greetingService;
         this.assembler = assembler;
+        this.accessLog = accessLog;
+        this.requestExecutor = requestExecutor;
+        this.objectMapper = objectMapper;
+        this.batchChunkSize = Math.max(1, batchChunkSize);
     }
 
     /**
@@ -79,11 +122,13 @@ public class GreetingController{
     @GetMapping(value = "/v1", produces = { "application/hal+json" })
     public ResponseEntity<?> helloWorld() {
 
+        long start = System.nanoTime();
+
         GreetingResponseDto greetingResponseDto = greetingService.getGreeting();
 
-        System.out.println(greetingResponseDto.toString());
+        EntityModel<GreetingResponseDto> entityModel = assembler.toModel(greetingResponseDto, DEFAULT_NAME);
 
-        EntityModel<GreetingResponseDto> entityModel = assembler.toModel(greetingResponseDto);
+        accessLog.log("/v1", greetingResponseDto.getId(), DEFAULT_NAME, System.nanoTime() - start);
 
         return ResponseEntity
                 .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
@@ -106,16 +151,133 @@ public class GreetingController{
      */
     @GetMapping(produces = { "application/hal+json" })
     public ResponseEntity<?> helloWorld(
-            @RequestParam(value = "name", defaultValue = "WORLD") String name) {
+            @RequestParam(value = "name", defaultValue = DEFAULT_NAME) String name) {
+
+        long start = System.nanoTime();
 
         GreetingResponseDto greetingResponseDto = greetingService.getGreeting(name);
 
-        System.out.println(greetingResponseDto.toString());
+        EntityModel<GreetingResponseDto> entityModel = assembler.toModel(greetingResponseDto, name);
 
-        EntityModel<GreetingResponseDto> entityModel = assembler.toModel(greetingResponseDto);
+        accessLog.log("/", greetingResponseDto.getId(), name, System.nanoTime() - start);
 
         return ResponseEntity
                 .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
                 .body(entityModel);
     }
+
+    /**
+     * Variante asincrona de helloWorld(), a la URL http://localhost:8080/v1/async
+     *
+     * El saludo se genera en el RequestExecutor y el hilo del contenedor queda libre mientras tanto.
+     * La URL base de los enlaces y el locale (Accept-Language) se resuelven antes, en el hilo de la
+     * peticion, porque en el hilo del executor LocaleContextHolder esta vacio. Si el executor
+     * esta saturado la peticion se rechaza con 503 (AsyncExceptionHandler)
+     */
+    @GetMapping(value = "/v1/async", produces = { "application/hal+json" })
+    public CompletableFuture<ResponseEntity<EntityModel<GreetingResponseDto>>> helloWorldAsync() {
+        return greet("/v1/async", DEFAULT_NAME, locale -> greetingService.getGreeting(locale));
+    }
+
+    /**
+     * Variante asincrona de helloWorld(name), a la URL http://localhost:8080/async
+     */
+    @GetMapping(value = "/async", produces = { "application/hal+json" })
+    public CompletableFuture<ResponseEntity<EntityModel<GreetingResponseDto>>> helloWorldAsync(
+            @RequestParam(value = "name", defaultValue = DEFAULT_NAME) String name) {
+        return greet("/async", name, locale -> greetingService.getGreeting(name, locale));
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP POST, a la URL http://localhost:8080/v1/greetings/batch
+     *
+     * Recibe un flujo de nombres (text/plain, uno por linea, o NDJSON, ver GreetingNameReader) y
+     * responde con un saludo por nombre en NDJSON ({"id":..,"content":".."} por linea), en el mismo
+     * orden y sin envoltorio HAL. Los nombres se procesan en bloques de greeting.batch.chunk-size: por
+     * cada bloque se reservan los ids consecutivos de una vez y se escriben los saludos, y la
+     * respuesta se vuelca al cliente al completar un bloque o cuando no quedan nombres recibidos
+     * por leer. La memoria usada es la de un bloque, sea cual sea el tamaño de la entrada.
+     *
+     * Si una linea NDJSON no es valida, la respuesta (ya empezada) termina con una linea
+     * {"error": ".."} y no se leen mas nombres
+     */
+    @PostMapping(value = "/v1/greetings/batch", consumes = {"text/plain", "application/x-ndjson"},
+            produces = {"application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> helloWorldBatch(
+            InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+
+        boolean ndjson = NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        Locale locale = LocaleContextHolder.getLocale();
+
+        StreamingResponseBody stream = out -> {
+            try (GreetingNameReader names = GreetingNameReader.open(body, ndjson, objectMapper.getFactory());
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                Consumer<GreetingResponseDto> writer = greeting -> {
+                    try {
+                        generator.writeObject(greeting);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                List<String> chunk = new ArrayList<>(batchChunkSize);
+                String error = null;
+                try {
+                    while (true) {
+                        String name;
+                        try {
+                            name = names.next();
+                        } catch (IllegalArgumentException e) {
+                            // solo los errores de la entrada; el bloque pendiente se escribe abajo una vez
+                            error = e.getMessage();
+                            break;
+                        }
+                        if (name == null) {
+                            break;
+                        }
+                        chunk.add(name);
+                        if (chunk.size() == batchChunkSize || !names.ready()) {
+                            greetingService.createGreetings(chunk, locale, writer);
+                            chunk.clear();
+                            generator.flush();
+                        }
+                    }
+                    greetingService.createGreetings(chunk, locale, writer);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                if (error != null) {
+                    log.debug("Entrada no valida en /v1/greetings/batch: {}", error);
+                    generator.writeStartObject();
+                    generator.writeStringField("error", error);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(stream);
+    }
+
+    private CompletableFuture<ResponseEntity<EntityModel<GreetingResponseDto>>> greet(
+            String endpoint, String name, Function<Locale, GreetingResponseDto> greeting) {
+
+        long start = System.nanoTime();
+        String baseUrl = GreetingModelAssembler.currentBaseUrl();
+        Locale locale = LocaleContextHolder.getLocale();
+
+        Supplier<GreetingResponseDto> localized = () -> greeting.apply(locale);
+
+        return CompletableFuture.supplyAsync(localized, requestExecutor).thenApply(greetingResponseDto -> {
+
+            EntityModel<GreetingResponseDto> entityModel = assembler.toModel(greetingResponseDto, name, baseUrl);
+
+            accessLog.log(endpoint, greetingResponseDto.getId(), name, System.nanoTime() - start);
+
+            return ResponseEntity
+                    .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                    .body(entityModel);
+        });
+    }
 }
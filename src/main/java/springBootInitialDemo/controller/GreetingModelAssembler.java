@@ -1,12 +1,18 @@
 package springBootInitialDemo.controller;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 import springBootInitialDemo.dto.GreetingResponseDto;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder.fromMethodName;
 
 /**
  * Clase de la capa Controller
@@ -26,14 +32,40 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * También se pueden considerar otras anotaciones a nivel de clase como identificación de un componente,
  * normalmente un tipo especial de componente: por ejemplo, la anotación @Repository
  *
+ * Las rutas de los enlaces se resuelven una sola vez, al crear el componente, a partir de los
+ * mapeos de GreetingController. En cada peticion solo se antepone la URL base de la peticion
+ * y se añade el nombre codificado, sin crear proxies de invocacion (methodOn) ni usar reflexion
+ *
  */
+@Profile("!reactive")
 @Component
 public class GreetingModelAssembler implements RepresentationModelAssembler<GreetingResponseDto, EntityModel<GreetingResponseDto>> {
 
+    private static final String NAME_PARAM = "name";
+
+    private final String rootPath;
+    private final String rootTemplate;
+    private final String v1Path;
+
+    /**
+     * Constructor de la clase. Resuelve las rutas de los metodos helloWorld de GreetingController
+     * relativas al context path, para no tener que recalcularlas en cada peticion
+     */
+    public GreetingModelAssembler() {
+        UriComponentsBuilder base = UriComponentsBuilder.fromPath("");
+        String root = fromMethodName(base.cloneBuilder(), GreetingController.class, "helloWorld", new Object[] {null})
+                .replaceQuery(null).build().getPath();
+        this.rootPath = root == null || root.isEmpty() ? "/" : root;
+        this.rootTemplate = rootPath + "{?" + NAME_PARAM + "}";
+        this.v1Path = fromMethodName(base.cloneBuilder(), GreetingController.class, "helloWorld")
+                .build().getPath();
+    }
+
     /**
      * Metodo abstracto de la interfaz RepresentationModelAssembler
      * Convierte un objeto de tipo GreetingResponseDto en un EntityModel.
-     * El objeto EntityModel envuelve a un objeto de dominio y le agrega enlaces
+     * El objeto EntityModel envuelve a un objeto de dominio y le agrega enlaces.
+     * Al no conocer el nombre saludado, se toma del contenido del saludo (lo que sigue al primer espacio)
      *
      * @param greetingResponseDto, objeto de tipo GreetingResponse
      * @return objeto de tipo EntityModel que envuelve un objeto de tipo GreetingResponseDto
@@ -42,11 +74,47 @@ public class GreetingModelAssembler implements RepresentationModelAssembler<Gree
     @Override
     public EntityModel<GreetingResponseDto> toModel(GreetingResponseDto greetingResponseDto) {
 
-        String requestParamValue= greetingResponseDto.getContent().substring(greetingResponseDto.getContent().indexOf(" ") + 1);
+        String content = greetingResponseDto.getContent();
+
+        return toModel(greetingResponseDto, content.substring(content.indexOf(' ') + 1));
+    }
+
+    /**
+     * Convierte un objeto de tipo GreetingResponseDto en un EntityModel, usando el nombre
+     * saludado para el enlace "/?name=<name>" en lugar de extraerlo del contenido del saludo
+     *
+     * @param greetingResponseDto, objeto de tipo GreetingResponse
+     * @param name, nombre saludado
+     * @return objeto de tipo EntityModel que envuelve un objeto de tipo GreetingResponseDto
+     * y le agrega enlaces
+     */
+    public EntityModel<GreetingResponseDto> toModel(GreetingResponseDto greetingResponseDto, String name) {
+        return toModel(greetingResponseDto, name, currentBaseUrl());
+    }
+
+    /**
+     * Igual que toModel(greetingResponseDto, name), pero con la URL base ya resuelta. Permite construir
+     * el modelo fuera del hilo de la peticion (handlers asincronos), donde no hay peticion en curso
+     *
+     * @param baseUrl, esquema, host, puerto y context path, obtenidos con currentBaseUrl()
+     */
+    public EntityModel<GreetingResponseDto> toModel(GreetingResponseDto greetingResponseDto, String name,
+                                                    String baseUrl) {
+
+        String encodedName = UriUtils.encodeQueryParam(name, StandardCharsets.UTF_8);
 
         return EntityModel.of(greetingResponseDto,
-                linkTo(methodOn(GreetingController.class).helloWorld(requestParamValue)).withSelfRel(),
-                linkTo(methodOn(GreetingController.class).helloWorld()).withSelfRel(),
-                linkTo(methodOn(GreetingController.class).helloWorld(null)).withSelfRel());
+                Link.of(baseUrl + rootPath + "?" + NAME_PARAM + "=" + encodedName).withSelfRel(),
+                Link.of(baseUrl + v1Path).withSelfRel(),
+                Link.of(baseUrl + rootTemplate).withSelfRel());
+    }
+
+    /**
+     * @return esquema, host, puerto y context path de la peticion en curso, tal como los ve el
+     * servidor. Las cabeceras Forwarded/X-Forwarded-* solo se tienen en cuenta si las aplica el
+     * ForwardedHeaderFilter (server.forward-headers-strategy=framework)
+     */
+    static String currentBaseUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
     }
 }
@@ -0,0 +1,188 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lectura incremental de los nombres de POST /v1/greetings/batch, de uno en uno y sin cargar
+ * el cuerpo de la peticion en memoria:
+ *  - text/plain: un nombre por linea; las lineas vacias se ignoran
+ *  - application/x-ndjson: un valor JSON por linea, o bien un string ("Ana") o bien un objeto
+ *    con el campo name ({"name": "Ana"}); el resto de campos se ignoran
+ *
+ */
+abstract class GreetingNameReader implements Closeable {
+
+    static GreetingNameReader open(InputStream input, boolean ndjson, JsonFactory jsonFactory) throws IOException {
+        return ndjson ? new NdjsonReader(new TrackingInputStream(input), jsonFactory) : new TextReader(input);
+    }
+
+    private GreetingNameReader() {
+    }
+
+    /**
+     * @return siguiente nombre, o null al terminar la entrada
+     * @throws IllegalArgumentException si una linea NDJSON no es JSON valido, ni un string ni un objeto con name
+     */
+    abstract String next() throws IOException;
+
+    /**
+     * @return true si hay datos ya recibidos sin leer, en el buffer del lector o en la conexion; si no,
+     * leer el siguiente nombre puede bloquear hasta que el cliente envie mas
+     */
+    abstract boolean ready() throws IOException;
+
+    private static final class TextReader extends GreetingNameReader {
+
+        private final BufferedReader reader;
+
+        private TextReader(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        String next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    return line.trim();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        boolean ready() throws IOException {
+            return reader.ready();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * El parser de Jackson lee la entrada por bloques en su propio buffer, asi que input.available()
+     * no cuenta los nombres que ya estan en ese buffer. ready() compara la posicion del parser con la
+     * del ultimo byte significativo (no blanco) que le ha entregado TrackingInputStream
+     */
+    private static final class NdjsonReader extends GreetingNameReader {
+
+        private final TrackingInputStream input;
+        private final JsonParser parser;
+
+        private NdjsonReader(TrackingInputStream input, JsonFactory jsonFactory) throws IOException {
+            this.input = input;
+            this.parser = jsonFactory.createParser(input);
+        }
+
+        @Override
+        String next() throws IOException {
+            try {
+                return nextName();
+            } catch (JsonParseException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage(), e);
+            }
+        }
+
+        private String nextName() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Se esperaba un nombre o un objeto con name: " + token);
+            }
+            String ret = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+                    ret = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (ret == null) {
+                throw new IllegalArgumentException("Objeto sin el campo name");
+            }
+            return ret;
+        }
+
+        @Override
+        boolean ready() throws IOException {
+            return input.lastSignificantOffset >= parser.getCurrentLocation().getByteOffset() || input.available() > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * Cuenta los bytes entregados al parser y guarda la posicion del ultimo que no es un blanco
+     * (espacio, tabulador o fin de linea)
+     */
+    private static final class TrackingInputStream extends FilterInputStream {
+
+        private long delivered;
+        private long lastSignificantOffset = -1;
+
+        private TrackingInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int ret = super.read();
+            if (ret >= 0) {
+                if (!isWhitespace((byte) ret)) {
+                    lastSignificantOffset = delivered;
+                }
+                delivered++;
+            }
+            return ret;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int ret = super.read(buffer, offset, length);
+            for (int i = ret - 1; i >= 0; i--) {
+                if (!isWhitespace(buffer[offset + i])) {
+                    lastSignificantOffset = delivered + i;
+                    break;
+                }
+            }
+            if (ret > 0) {
+                delivered += ret;
+            }
+            return ret;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long ret = super.skip(n);
+            delivered += ret;
+            return ret;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+}
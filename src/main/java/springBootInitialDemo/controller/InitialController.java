@@ -1,21 +1,69 @@
 package springBootInitialDemo.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import springBootInitialDemo.async.RequestExecutor;
+import springBootInitialDemo.dto.UserPageResponseDto;
 import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.log.AccessLog;
+import springBootInitialDemo.repository.ContentHash;
+import springBootInitialDemo.repository.store.UserOrdering;
+import springBootInitialDemo.repository.store.UserQuery;
+import springBootInitialDemo.repository.store.VersionedUser;
 import springBootInitialDemo.service.IUserService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Profile("!reactive")
 @RestController
 @RequestMapping("/v1")
 public class InitialController {
 
     private final IUserService userService;
+    private final AccessLog accessLog;
+    private final ObjectMapper objectMapper;
+    private final RequestExecutor requestExecutor;
+    private final int maxBatchSize;
+    private final int maxPageSize;
+    private final CacheControl cacheControl;
 
     @Autowired
-    public InitialController(IUserService userService){
+    public InitialController(IUserService userService, AccessLog accessLog, ObjectMapper objectMapper,
+                             RequestExecutor requestExecutor,
+                             @Value("${user.batch.max-size:1000}") int maxBatchSize,
+                             @Value("${user.page.max-size:1000}") int maxPageSize,
+                             @Value("${user.cache-control.max-age-seconds:0}") long maxAgeSeconds){
         this.userService = userService;
+        this.accessLog = accessLog;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = requestExecutor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
+        this.cacheControl = maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
     }
 
     @GetMapping("/test")
@@ -23,21 +71,274 @@ public class InitialController {
         return "Hello Gradle!";
     }
 
-    //@PutMapping(value ="", consumes = {"application/json"})
+    /**
+     * Retorna el usuario identificado por el UUID de la ruta:
+     * 200 con el usuario, 404 si no existe o 400 si el identificador no es un UUID.
+     *
+     * La respuesta lleva ETag (hash del contenido que mantiene el UserStore) y Last-Modified.
+     * Si la peticion trae If-None-Match o If-Modified-Since y el usuario no ha cambiado, Spring
+     * responde 304 sin cuerpo y el usuario no llega a serializarse
+     */
     @GetMapping("/user/{uuid}")
     public ResponseEntity<UserResponseDto> updatePrescription(
             @PathVariable(name="uuid") String user) throws Exception {
 
+        long start = System.nanoTime();
+
+        Optional<VersionedUser> versionedUser;
+        try {
+            versionedUser = userService.getVersionedUser(user);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        accessLog.log("/v1/user/{uuid}", 0, versionedUser.map(found -> found.getUser().getName()).orElse(null),
+                System.nanoTime() - start);
+
+        return versionedUser
+                .map(this::conditional)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+
+    }
+
+    /**
+     * Variante asincrona de GET /v1/user/{uuid}: la consulta se hace en el RequestExecutor,
+     * sin ocupar el hilo del contenedor. Mismas respuestas, y 503 si el executor esta saturado
+     */
+    @GetMapping("/async/user/{uuid}")
+    public CompletableFuture<ResponseEntity<UserResponseDto>> getUserAsync(
+            @PathVariable(name="uuid") String user) {
+
+        long start = System.nanoTime();
+
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<VersionedUser> versionedUser;
+            try {
+                versionedUser = userService.getVersionedUser(user);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
 
-        UserResponseDto userResponseDto = userService.getUser("pp");
+            accessLog.log("/v1/async/user/{uuid}", 0, versionedUser.map(found -> found.getUser().getName()).orElse(null),
+                    System.nanoTime() - start);
 
-        System.out.println(userResponseDto.getName());
-        System.out.println(userResponseDto.getSurname());
-        System.out.println(userResponseDto.getGender());
+            return versionedUser
+                    .map(this::conditional)
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }, requestExecutor);
+    }
 
-        return new ResponseEntity<>(userResponseDto, HttpStatus.OK);
+    /**
+     * Crea o sustituye el usuario identificado por el UUID de la ruta. Un campo que no cabe en el
+     * log de usuarios (UserLog.MAX_FIELD_BYTES) se rechaza con 400
+     */
+    @PutMapping(value = "/user/{uuid}", consumes = {"application/json"})
+    public ResponseEntity<UserResponseDto> saveUser(
+            @PathVariable(name="uuid") UUID uuid, @RequestBody UserResponseDto user) {
 
+        try {
+            return new ResponseEntity<>(userService.saveUser(user.withUuid(uuid)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
+    /**
+     * Resuelve en una sola pasada una lista de UUIDs, recibida como array JSON.
+     *
+     * La respuesta se escribe en streaming con un JsonGenerator a medida que se encuentran
+     * los usuarios: {"users": [...], "notFound": ["uuid", ...]}
+     *
+     * La peticion se lee token a token y se rechaza con 413 en cuanto supera user.batch.max-size
+     * UUIDs, sin llegar a leer el resto; un UUID mal formado o un JSON no valido se rechaza con 400
+     */
+    @PostMapping(value = "/users/batch", consumes = {"application/json"}, produces = {"application/json"})
+    public ResponseEntity<StreamingResponseBody> getUsers(InputStream body) throws IOException {
+
+        List<UUID> uuids = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                if (uuids.size() == maxBatchSize) {
+                    return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+                }
+                uuids.add(UUID.fromString(parser.getText()));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        StreamingResponseBody stream = out -> {
+            List<UUID> notFound = new ArrayList<>();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("users");
+                try {
+                    userService.getUsers(uuids, user -> {
+                        try {
+                            generator.writeObject(user);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, notFound::add);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("notFound");
+                for (UUID uuid : notFound) {
+                    generator.writeString(uuid.toString());
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(stream);
+    }
+
+    /**
+     * Lista los usuarios con paginacion por cursor (keyset), ordenados por uuid, surname o dateOfBirth.
+     * La respuesta incluye nextCursor, que se pasa como parametro cursor para pedir la pagina
+     * siguiente; cada pagina cuesta lo mismo independientemente de su posicion
+     */
+    @GetMapping(value = "/users", produces = {"application/json"})
+    public ResponseEntity<UserPageResponseDto> getUserPage(
+            @RequestParam(value = "sort", defaultValue = "uuid") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        UserOrdering ordering;
+        UserResponseDto after;
+        try {
+            ordering = UserOrdering.fromProperty(sort);
+            after = cursor == null ? null : UserCursor.decode(ordering, cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        List<UserResponseDto> users = userService.getUserPage(ordering, isDescending(direction), after, pageSize);
+        String nextCursor = users.size() < pageSize ? null : UserCursor.encode(ordering, users.get(users.size() - 1));
+
+        return new ResponseEntity<>(new UserPageResponseDto(users, nextCursor), HttpStatus.OK);
+    }
+
+    /**
+     * Busca usuarios por sus campos con los indices secundarios de UserSearchIndex:
+     * name y surname por prefijo, gender por valor (los tres sin distinguir mayusculas),
+     * dateOfBirth por valor y dateOfBirthFrom / dateOfBirthTo como rango incluido (yyyy-MM-dd).
+     * Se cumplen todos los filtros indicados; la pagina se pide con offset y limit.
+     * Responde 400 si alguna fecha no es una fecha ISO valida o si offset es negativo
+     */
+    @GetMapping(value = "/users/search", produces = {"application/json"})
+    public ResponseEntity<List<UserResponseDto>> searchUsers(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "surname", required = false) String surname,
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "dateOfBirth", required = false) String dateOfBirth,
+            @RequestParam(value = "dateOfBirthFrom", required = false) String dateOfBirthFrom,
+            @RequestParam(value = "dateOfBirthTo", required = false) String dateOfBirthTo,
+            @RequestParam(value = "offset", defaultValue = "0") long offset,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+
+        if (offset < 0 || !isDate(dateOfBirth) || !isDate(dateOfBirthFrom) || !isDate(dateOfBirthTo)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<UserQuery.Criterion> criteria = new ArrayList<>();
+        if (name != null) {
+            criteria.add(new UserQuery.Criterion(UserQuery.Field.NAME, name, UserQuery.Match.PREFIX, true));
+        }
+        if (surname != null) {
+            criteria.add(new UserQuery.Criterion(UserQuery.Field.SURNAME, surname, UserQuery.Match.PREFIX, true));
+        }
+        if (gender != null) {
+            criteria.add(new UserQuery.Criterion(UserQuery.Field.GENDER, gender, UserQuery.Match.EXACT, true));
+        }
+        if (dateOfBirth != null) {
+            criteria.add(new UserQuery.Criterion(UserQuery.Field.DATE_OF_BIRTH, dateOfBirth,
+                    UserQuery.Match.EXACT, false));
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        UserQuery query = new UserQuery(criteria, dateOfBirthFrom, dateOfBirthTo);
+        return new ResponseEntity<>(userService.searchUsers(query, offset, pageSize), HttpStatus.OK);
+    }
+
+    /**
+     * Exporta todos los usuarios en orden como NDJSON (un objeto JSON por linea), escribiendo
+     * directamente en la respuesta a medida que se recorre el indice, sin construir una lista
+     */
+    @GetMapping(value = "/users", produces = {"application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(value = "sort", defaultValue = "uuid") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+
+        UserOrdering ordering;
+        try {
+            ordering = UserOrdering.fromProperty(sort);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        StreamingResponseBody stream = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                try {
+                    userService.forEachUser(ordering, isDescending(direction), user -> {
+                        try {
+                            generator.writeObject(user);
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(stream);
+    }
+
+    /**
+     * @return 200 con el usuario y las cabeceras de validacion (ETag, Last-Modified, Cache-Control);
+     * HttpEntityMethodProcessor lo convierte en 304 si la peticion condicional coincide
+     */
+    private ResponseEntity<UserResponseDto> conditional(VersionedUser user) {
+        return ResponseEntity.ok()
+                .eTag(ContentHash.toETag(user.getVersion()))
+                .lastModified(user.getLastModified())
+                .cacheControl(cacheControl)
+                .body(user.getUser());
+    }
+
+    /**
+     * @return true si value es null o una fecha ISO (yyyy-MM-dd) valida; los indices comparan las
+     * fechas como texto, asi que otro formato daria resultados sin sentido
+     */
+    private static boolean isDate(String value) {
+        if (value == null) {
+            return true;
+        }
+        try {
+            LocalDate.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDescending(String direction) {
+        return "desc".equalsIgnoreCase(direction);
+    }
 
 }
@@ -0,0 +1,108 @@
+package springBootInitialDemo.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import springBootInitialDemo.admission.AdmissionControl;
+import springBootInitialDemo.async.RequestExecutor;
+import springBootInitialDemo.cache.GreetingContentCache;
+import springBootInitialDemo.http.HttpClientStats;
+import springBootInitialDemo.log.AccessLog;
+import springBootInitialDemo.stats.GreetingStats;
+
+import java.util.Map;
+
+/**
+ * Clase de la capa Controller.
+ * Expone las estadisticas internas de la aplicacion bajo http://localhost:8080/v1/stats
+ *
+ */
+@RestController
+@RequestMapping("/v1/stats")
+public class StatsController {
+
+    private final GreetingContentCache greetingContentCache;
+    private final AccessLog accessLog;
+    private final HttpClientStats httpClientStats;
+    private final RequestExecutor requestExecutor;
+    private final AdmissionControl admissionControl;
+    private final GreetingStats greetingStats;
+
+    @Autowired
+    public StatsController(GreetingContentCache greetingContentCache, AccessLog accessLog,
+                           HttpClientStats httpClientStats, RequestExecutor requestExecutor,
+                           AdmissionControl admissionControl, GreetingStats greetingStats) {
+        this.greetingContentCache = greetingContentCache;
+        this.accessLog = accessLog;
+        this.httpClientStats = httpClientStats;
+        this.requestExecutor = requestExecutor;
+        this.admissionControl = admissionControl;
+        this.greetingStats = greetingStats;
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/cache/greetings
+     *
+     * @return aciertos, fallos, evicciones y tamaño de la cache de saludos renderizados
+     */
+    @GetMapping("/cache/greetings")
+    public Map<String, Long> greetingCacheStats() {
+        return greetingContentCache.getStats();
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/access-log
+     *
+     * @return registros escritos, descartados y pendientes del log de accesos
+     */
+    @GetMapping("/access-log")
+    public Map<String, Long> accessLogStats() {
+        return accessLog.getStats();
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/http-client
+     *
+     * @return ocupacion del pool de conexiones salientes y peticiones GET agrupadas (single-flight)
+     */
+    @GetMapping("/http-client")
+    public Map<String, Long> httpClientStats() {
+        return httpClientStats.getStats();
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/executor
+     *
+     * @return tareas enviadas, encoladas, activas, completadas y rechazadas del RequestExecutor
+     */
+    @GetMapping("/executor")
+    public Map<String, Long> executorStats() {
+        return requestExecutor.getStats();
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/admission
+     *
+     * @return por endpoint, peticiones admitidas y descartadas (429 por cliente, 503 por concurrencia),
+     * en curso, limite de concurrencia actual y clientes con token bucket
+     */
+    @GetMapping("/admission")
+    public Map<String, Map<String, Long>> admissionStats() {
+        return admissionControl.getStats();
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL http://localhost:8080/v1/stats/greetings
+     *
+     * @param name, nombre del que estimar la frecuencia en la ventana actual (opcional)
+     * @param limit, numero de nombres mas frecuentes a devolver por ventana
+     * @return nombres mas saludados de la ventana actual, acumulados y por ventana, con su error maximo
+     */
+    @GetMapping("/greetings")
+    public Map<String, Object> greetingStats(@RequestParam(value = "name", required = false) String name,
+                                             @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return greetingStats.getStats(name, Math.max(0, limit));
+    }
+}
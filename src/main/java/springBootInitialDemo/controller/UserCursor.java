@@ -0,0 +1,50 @@
+package springBootInitialDemo.controller;
+
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.store.UserOrdering;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco de la paginacion de usuarios: codifica en Base64 (URL) la ordenacion, el valor
+ * de ordenacion y el UUID del ultimo usuario de la pagina. El valor puede contener el separador
+ * (nombres con saltos de linea), asi que al decodificar la propiedad llega hasta el primer
+ * separador y el UUID empieza tras el ultimo
+ *
+ */
+final class UserCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private UserCursor() {
+    }
+
+    static String encode(UserOrdering ordering, UserResponseDto last) {
+        String value = ordering.key(last);
+        String raw = ordering.getProperty() + SEPARATOR
+                + (value == null ? "-" : "=" + value) + SEPARATOR
+                + last.getUuid();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return usuario ficticio que marca la posicion del cursor en la ordenacion indicada
+     * @throws IllegalArgumentException si el cursor no es valido o pertenece a otra ordenacion
+     */
+    static UserResponseDto decode(UserOrdering ordering, String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || last == first || !ordering.getProperty().equals(raw.substring(0, first))) {
+            throw new IllegalArgumentException("Cursor no valido: " + cursor);
+        }
+        String marker = raw.substring(first + 1, last);
+        if (marker.isEmpty() || (marker.charAt(0) != '=' && !"-".equals(marker))) {
+            throw new IllegalArgumentException("Cursor no valido: " + cursor);
+        }
+        String value = marker.charAt(0) == '=' ? marker.substring(1) : null;
+        return ordering.probe(value, UUID.fromString(raw.substring(last + 1)));
+    }
+}
@@ -0,0 +1,66 @@
+package springBootInitialDemo.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import springBootInitialDemo.dto.UserImportStatusDto;
+import springBootInitialDemo.service.IUserImportService;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Clase de la capa Controller.
+ * Importacion masiva de usuarios bajo http://localhost:8080/v1/users/import
+ *
+ */
+@Profile("!reactive")
+@RestController
+@RequestMapping("/v1/users/import")
+public class UserImportController {
+
+    private final IUserImportService userImportService;
+
+    @Autowired
+    public UserImportController(IUserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Importa los usuarios del cuerpo de la peticion, leido en streaming, en formato
+     * jsonl (un usuario JSON por linea) o csv (name,surname,dateOfBirth,gender).
+     * Responde al terminar con el resumen; el progreso se puede consultar mientras tanto
+     * con GET /v1/users/import
+     */
+    @PostMapping(consumes = {"application/x-ndjson", "text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<UserImportStatusDto> importUsers(
+            @RequestParam(value = "format", defaultValue = "jsonl") String format, InputStream body) {
+
+        IUserImportService.Format importFormat;
+        try {
+            importFormat = IUserImportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(userImportService.importUsers(body, importFormat), HttpStatus.OK);
+    }
+
+    @GetMapping
+    public List<UserImportStatusDto> getStatuses() {
+        return userImportService.getStatuses();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UserImportStatusDto> getStatus(@PathVariable(name = "id") String id) {
+        return userImportService.getStatus(id)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
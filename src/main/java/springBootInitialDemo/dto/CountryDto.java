@@ -0,0 +1,75 @@
+package springBootInitialDemo.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DTO inmutable y compacto con los datos de un pais del catalogo de REST Countries.
+ * Solo guarda los campos que se sirven e indexan; las listas se guardan como arrays
+ * y se exponen como vistas no modificables
+ */
+public final class CountryDto extends ResponseDto {
+
+    private final String name;
+    private final String alpha2Code;
+    private final String alpha3Code;
+    private final String[] callingCodes;
+    private final String capital;
+    private final String region;
+    private final String subregion;
+    private final long population;
+    private final String[] languages;
+
+    public CountryDto(String name, String alpha2Code, String alpha3Code, String[] callingCodes, String capital,
+                      String region, String subregion, long population, String[] languages) {
+        this.name = name;
+        this.alpha2Code = alpha2Code;
+        this.alpha3Code = alpha3Code;
+        this.callingCodes = callingCodes.clone();
+        this.capital = capital;
+        this.region = region;
+        this.subregion = subregion;
+        this.population = population;
+        this.languages = languages.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAlpha2Code() {
+        return alpha2Code;
+    }
+
+    public String getAlpha3Code() {
+        return alpha3Code;
+    }
+
+    public List<String> getCallingCodes() {
+        return Collections.unmodifiableList(Arrays.asList(callingCodes));
+    }
+
+    public String getCapital() {
+        return capital;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getSubregion() {
+        return subregion;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return codigos ISO 639-1 de los idiomas del pais
+     */
+    public List<String> getLanguages() {
+        return Collections.unmodifiableList(Arrays.asList(languages));
+    }
+}
@@ -1,7 +1,5 @@
 package springBootInitialDemo.dto;
 
-import org.springframework.stereotype.Component;
-
 /**
  * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern) mediante la
  * creacion de un objeto plano (POJO) con una serie de atributos que puedan ser enviados o recuperados
@@ -9,40 +7,29 @@ import org.springframework.stereotype.Component;
  * fuentes o tablas y concentrarlas en una única clase simple, esto es, crear estructuras de datos
  * independientes del modelo de datos, para transmitir información entre un cliente y un servidor)
  *
- * Anotaciones:
- * @Component
- * Indica que una clase es un "componente".
- * Estas clases se consideran candidatas para la detección automática cuando se utiliza una configuración
- * basada en anotaciones y un escaneo de classpath.
- * También se pueden considerar otras anotaciones a nivel de clase como identificación de un componente,
- * normalmente un tipo especial de componente: por ejemplo, la anotación @Repository
+ * La clase es inmutable: cada peticion recibe su propia instancia, de modo que varios hilos
+ * atendiendo peticiones concurrentes nunca comparten ni sobrescriben el id o el contenido
+ * de otra peticion
  *
  */
-@Component
-public class GreetingResponseDto extends ResponseDto {
+public final class GreetingResponseDto extends ResponseDto {
 
-    private long id;
-    private String content;
+    private final long id;
+    private final String content;
 
-    public GreetingResponseDto() {
+    public GreetingResponseDto(long id, String content) {
+        this.id = id;
+        this.content = content;
     }
 
     public long getId() {
         return id;
     }
 
-    public void setId(long id) {
-        this.id = id;
-    }
-
     public String getContent() {
         return content;
     }
 
-    public void setContent(String content) {
-        this.content = content;
-    }
-
     @Override
     public String toString() {
         return "\nGreetingResponse {" +
@@ -0,0 +1,67 @@
+package springBootInitialDemo.dto;
+
+/**
+ * DTO inmutable con el estado de una importacion masiva de usuarios en un instante dado
+ */
+public final class UserImportStatusDto extends ResponseDto {
+
+    private final String id;
+    private final String state;
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+    private final double rowsPerSecond;
+    private final String error;
+
+    public UserImportStatusDto(String id, String state, long rowsRead, long imported, long rejected,
+                               double rowsPerSecond, String error) {
+        this.id = id;
+        this.state = state;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rowsPerSecond = rowsPerSecond;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "UserImport {" +
+                "id=" + id +
+                ", state=" + state +
+                ", rowsRead=" + rowsRead +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                ", rowsPerSecond=" + String.format("%.0f", rowsPerSecond) +
+                (error != null ? ", error='" + error + '\'' : "") +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package springBootInitialDemo.dto;
+
+import java.util.List;
+
+/**
+ * DTO inmutable con una pagina de usuarios y el cursor para pedir la siguiente
+ * (null si es la ultima pagina)
+ */
+public final class UserPageResponseDto extends ResponseDto {
+
+    private final List<UserResponseDto> users;
+    private final String nextCursor;
+
+    public UserPageResponseDto(List<UserResponseDto> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserResponseDto> getUsers() {
+        return users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
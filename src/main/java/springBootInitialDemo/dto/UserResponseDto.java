@@ -1,30 +1,45 @@
 package springBootInitialDemo.dto;
 
-import org.springframework.stereotype.Component;
-
-@Component
-public class UserResponseDto extends ResponseDto{
-
-    private String name;
-    private String surname;
-    private String dateOfBirth;
-    private String gender;
-
-
-    public void setName(String name) {
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * DTO inmutable con los datos de un usuario, identificado por su UUID.
+ * Cada consulta recibe su propia instancia, en lugar de un @Component compartido
+ * modificado por todos los hilos
+ */
+public final class UserResponseDto extends ResponseDto{
+
+    private final UUID uuid;
+    private final String name;
+    private final String surname;
+    private final String dateOfBirth;
+    private final String gender;
+
+    @JsonCreator
+    public UserResponseDto(@JsonProperty("uuid") UUID uuid,
+                           @JsonProperty("name") String name,
+                           @JsonProperty("surname") String surname,
+                           @JsonProperty("dateOfBirth") String dateOfBirth,
+                           @JsonProperty("gender") String gender) {
+        this.uuid = uuid;
         this.name = name;
-    }
-
-    public void setSurname(String surname) {
         this.surname = surname;
+        this.dateOfBirth = dateOfBirth;
+        this.gender = gender;
     }
 
-    public void setDateOfBirth(String dateOfBirth) {
-        this.dateOfBirth = dateOfBirth;
+    /**
+     * @return copia del usuario con el UUID indicado
+     */
+    public UserResponseDto withUuid(UUID uuid) {
+        return new UserResponseDto(uuid, name, surname, dateOfBirth, gender);
     }
 
-    public void setGender(String gender) {
-        this.gender = gender;
+    public UUID getUuid() {
+        return uuid;
     }
 
     public String getName() {
@@ -42,4 +57,4 @@ public class UserResponseDto extends ResponseDto{
     public String getGender() {
         return gender;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package springBootInitialDemo.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Respuesta HTTP leida por completo en memoria. Es inmutable: varias peticiones agrupadas por
+ * SingleFlightRequestInterceptor pueden compartirla, y cada getBody() devuelve un stream nuevo
+ */
+final class BufferedClientHttpResponse implements ClientHttpResponse {
+
+    private final int statusCode;
+    private final String statusText;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    private BufferedClientHttpResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Lee por completo la respuesta y la cierra, devolviendo la conexion al pool
+     */
+    static BufferedClientHttpResponse of(ClientHttpResponse response) throws IOException {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            return new BufferedClientHttpResponse(response.getRawStatusCode(), response.getStatusText(),
+                    HttpHeaders.readOnlyHttpHeaders(headers), StreamUtils.copyToByteArray(response.getBody()));
+        } finally {
+            response.close();
+        }
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(statusCode);
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public String getStatusText() {
+        return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,44 @@
+package springBootInitialDemo.http;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estadisticas del cliente HTTP saliente: ocupacion del pool de conexiones y peticiones
+ * agrupadas por SingleFlightRequestInterceptor
+ *
+ */
+@Component
+public class HttpClientStats {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final SingleFlightRequestInterceptor singleFlight;
+
+    @Autowired
+    public HttpClientStats(PoolingHttpClientConnectionManager connectionManager,
+                           SingleFlightRequestInterceptor singleFlight) {
+        this.connectionManager = connectionManager;
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * @return conexiones prestadas, libres, peticiones esperando conexion, maximo del pool
+     *         y contadores de single-flight
+     */
+    public Map<String, Long> getStats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("leased", (long) pool.getLeased());
+        ret.put("available", (long) pool.getAvailable());
+        ret.put("pending", (long) pool.getPending());
+        ret.put("max", (long) pool.getMax());
+        ret.put("routes", (long) connectionManager.getRoutes().size());
+        ret.putAll(singleFlight.getStats());
+        return ret;
+    }
+}
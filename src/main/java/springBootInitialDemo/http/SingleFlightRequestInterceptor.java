@@ -0,0 +1,132 @@
+package springBootInitialDemo.http;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interceptor de RestTemplate que agrupa las peticiones GET identicas concurrentes (single-flight).
+ *
+ * La primera peticion a una URL (con las mismas cabeceras) se ejecuta contra el servidor; las que
+ * llegan mientras sigue en curso no abren otra conexion, sino que esperan a su resultado y
+ * reciben una copia de la misma respuesta (o la misma excepcion). En cuanto la peticion termina
+ * se olvida: esto no es una cache, solo evita duplicar trabajo simultaneo.
+ *
+ * Solo se agrupan los GET sin cuerpo; el resto de metodos pasa directamente.
+ *
+ */
+public class SingleFlightRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<BufferedClientHttpResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET || body.length > 0) {
+            return execution.execute(request, body);
+        }
+
+        Key key = new Key(request);
+        CompletableFuture<BufferedClientHttpResponse> flight = new CompletableFuture<>();
+        CompletableFuture<BufferedClientHttpResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+
+        executed.increment();
+        try {
+            BufferedClientHttpResponse response = BufferedClientHttpResponse.of(execution.execute(request, body));
+            flight.complete(response);
+            return response;
+        } catch (IOException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return peticiones ejecutadas contra el servidor, peticiones agrupadas con otra en curso
+     *         y peticiones en curso ahora mismo
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("executed", executed.sum());
+        ret.put("coalesced", coalesced.sum());
+        ret.put("inFlight", (long) inFlight.size());
+        return ret;
+    }
+
+    private static BufferedClientHttpResponse await(CompletableFuture<BufferedClientHttpResponse> leader)
+            throws IOException {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando una peticion agrupada");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+
+    /**
+     * Identidad de una peticion GET: URI y cabeceras
+     */
+    private static final class Key {
+
+        private final String uri;
+        private final Map<String, List<String>> headers;
+
+        private Key(HttpRequest request) {
+            this.uri = request.getURI().toString();
+            this.headers = new LinkedHashMap<>(request.getHeaders());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return uri.equals(other.uri) && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, headers);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package springBootInitialDemo.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de identificadores basado en un contador AtomicLong en memoria.
+ * Los identificadores empiezan en 1 en cada arranque y no son unicos entre instancias;
+ * es el comportamiento original de GreetingRepository y el modo por defecto
+ *
+ */
+public class AtomicGreetingIdGenerator implements IGreetingIdGenerator {
+
+    private final AtomicLong id = new AtomicLong();
+
+    @Override
+    public long nextId() {
+        return id.incrementAndGet();
+    }
+
+    @Override
+    public GreetingIdBlock reserve(int count) {
+        return new GreetingIdBlock(id.getAndAdd(count) + 1, count);
+    }
+}
@@ -0,0 +1,24 @@
+package springBootInitialDemo.id;
+
+/**
+ * Bloque de identificadores consecutivos reservado de una vez: [first, first + size)
+ *
+ */
+public final class GreetingIdBlock {
+
+    private final long first;
+    private final int size;
+
+    public GreetingIdBlock(long first, int size) {
+        this.first = first;
+        this.size = size;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,33 @@
+package springBootInitialDemo.id;
+
+/**
+ * Interface del generador de identificadores de saludos
+ *
+ */
+public interface IGreetingIdGenerator {
+
+    /**
+     * @return identificador nuevo, positivo y no repetido
+     */
+    long nextId();
+
+    /**
+     * Reserva de una vez un bloque de identificadores consecutivos, para generar saludos en lote
+     * sin pasar por el generador en cada uno
+     *
+     * @param count, identificadores que se quieren reservar (positivo)
+     * @return bloque de entre 1 y count identificadores; si es menor que count, se pide el resto
+     * con otra llamada
+     */
+    GreetingIdBlock reserve(int count);
+
+    /**
+     * Indica si nextId() o reserve() pueden bloquear el hilo que llama (E/S o espera al reloj),
+     * de modo que no deben ejecutarse en un hilo de event loop
+     *
+     * @return true si el generador puede bloquear; por defecto false
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package springBootInitialDemo.id;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Generador de identificadores por reserva de rangos.
+ *
+ * Cada hilo reserva un bloque de blockSize identificadores consecutivos y los entrega sin
+ * ninguna sincronizacion; solo al agotar el bloque vuelve a pasar por el contador global.
+ *
+ * La marca de agua (el primer identificador todavia no reservado) se guarda en un pequeño
+ * fichero mapeado en memoria y se fuerza a disco antes de entregar el bloque. Al arrancar se
+ * continua desde la marca guardada, por lo que un reinicio nunca vuelve a emitir un
+ * identificador; como mucho se pierden los restos de los bloques sin terminar.
+ *
+ */
+public class RangeLeasingGreetingIdGenerator implements IGreetingIdGenerator, Closeable {
+
+    private static final int FILE_SIZE = Long.BYTES * 2;
+    private static final long MAGIC = 0x4752454554494431L;
+
+    private final long blockSize;
+    private final FileChannel channel;
+    private final MappedByteBuffer highWaterMark;
+    private long nextBlockStart;
+
+    private final ThreadLocal<long[]> threadBlock = ThreadLocal.withInitial(() -> new long[2]);
+
+    public RangeLeasingGreetingIdGenerator(Path file, long blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize debe ser positivo: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.highWaterMark = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede abrir el fichero de identificadores " + file, e);
+        }
+        if (highWaterMark.getLong(0) == MAGIC) {
+            this.nextBlockStart = highWaterMark.getLong(Long.BYTES);
+        } else {
+            this.nextBlockStart = 1;
+            highWaterMark.putLong(Long.BYTES, nextBlockStart);
+            highWaterMark.putLong(0, MAGIC);
+            highWaterMark.force();
+        }
+    }
+
+    @Override
+    public long nextId() {
+        long[] block = threadBlock.get();
+        if (block[0] == block[1]) {
+            block[0] = leaseBlock(blockSize);
+            block[1] = block[0] + blockSize;
+        }
+        return block[0]++;
+    }
+
+    /**
+     * El bloque se reserva directamente del contador global, con su tamaño exacto, y la marca de
+     * agua se fuerza a disco una vez por bloque
+     */
+    @Override
+    public GreetingIdBlock reserve(int count) {
+        return new GreetingIdBlock(leaseBlock(count), count);
+    }
+
+    /**
+     * Cada bloque nuevo fuerza la marca de agua a disco
+     */
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    private synchronized long leaseBlock(long size) {
+        long start = nextBlockStart;
+        nextBlockStart = start + size;
+        highWaterMark.putLong(Long.BYTES, nextBlockStart);
+        highWaterMark.force();
+        return start;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        highWaterMark.force();
+        channel.close();
+    }
+}
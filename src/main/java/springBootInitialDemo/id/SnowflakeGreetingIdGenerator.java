@@ -0,0 +1,150 @@
+package springBootInitialDemo.id;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de identificadores de tipo Snowflake, sin coordinacion entre instancias.
+ *
+ * Estructura del identificador (63 bits, siempre positivo):
+ *
+ *   | 41 bits milisegundos desde EPOCH | 10 bits nodo | 4 bits franja | 8 bits secuencia |
+ *
+ * Cada hilo reserva para si una de las 16 franjas la primera vez que pide un id, de modo que
+ * hasta 16 hilos tienen su propia secuencia sin competir entre si; la franja de un hilo que ha
+ * terminado queda libre para otro. Cuando todas estan reservadas, los hilos restantes comparten
+ * franja por turnos (y solo entonces compiten por su monitor). Dentro de cada franja la secuencia
+ * se reinicia cada milisegundo; si se agota, o si el reloj del sistema retrocede, el generador
+ * espera a que el reloj alcance el milisegundo siguiente al ultimo usado. Nunca adelanta un reloj
+ * logico al reloj real, asi que tras un reinicio no puede volver a emitir identificadores ya emitidos.
+ *
+ * Los identificadores de instancias con distinto nodo nunca colisionan, y tras un reinicio
+ * siguen siendo unicos mientras el reloj no retroceda mas que el tiempo de parada.
+ *
+ */
+public class SnowflakeGreetingIdGenerator implements IGreetingIdGenerator {
+
+    /** 2021-01-01T00:00:00Z */
+    static final long EPOCH = 1609459200000L;
+
+    static final int NODE_BITS = 10;
+    static final int STRIPE_BITS = 4;
+    static final int SEQUENCE_BITS = 8;
+
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int STRIPE_SHIFT = SEQUENCE_BITS;
+    private static final int NODE_SHIFT = SEQUENCE_BITS + STRIPE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + STRIPE_BITS + NODE_BITS;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicReferenceArray<Thread> owners = new AtomicReferenceArray<>(STRIPES);
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final ThreadLocal<Stripe> threadStripe = ThreadLocal.withInitial(this::claimStripe);
+
+    public SnowflakeGreetingIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODE + ": " + nodeId);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            long prefix = (nodeId << NODE_SHIFT) | ((long) i << STRIPE_SHIFT);
+            stripes[i] = new Stripe(prefix);
+        }
+    }
+
+    @Override
+    public long nextId() {
+        return threadStripe.get().next();
+    }
+
+    /**
+     * Los identificadores solo son consecutivos dentro de la secuencia de un milisegundo, asi que
+     * el bloque es como mucho lo que queda de la secuencia de la franja (256 identificadores)
+     */
+    @Override
+    public GreetingIdBlock reserve(int count) {
+        return threadStripe.get().reserve(count);
+    }
+
+    /**
+     * Si la secuencia se agota o el reloj retrocede, espera a que el reloj avance
+     */
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * @return franja libre (sin hilo o con su hilo ya terminado) reservada para el hilo actual o,
+     * si no queda ninguna, una franja compartida por turnos
+     */
+    private Stripe claimStripe() {
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < STRIPES; i++) {
+            Thread owner = owners.get(i);
+            if ((owner == null || !owner.isAlive()) && owners.compareAndSet(i, owner, current)) {
+                return stripes[i];
+            }
+        }
+        return stripes[nextStripe.getAndIncrement() & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final long prefix;
+        private long lastTimestamp = -1;
+        private long sequence;
+
+        private Stripe(long prefix) {
+            this.prefix = prefix;
+        }
+
+        private synchronized long next() {
+            advance();
+            return (lastTimestamp << TIMESTAMP_SHIFT) | prefix | sequence;
+        }
+
+        private synchronized GreetingIdBlock reserve(int count) {
+            advance();
+            long first = (lastTimestamp << TIMESTAMP_SHIFT) | prefix | sequence;
+            int size = (int) Math.min(count, MAX_SEQUENCE - sequence + 1);
+            sequence += size - 1;
+            return new GreetingIdBlock(first, size);
+        }
+
+        private void advance() {
+            long timestamp = System.currentTimeMillis() - EPOCH;
+            if (timestamp < lastTimestamp) {
+                // el reloj ha retrocedido
+                timestamp = awaitTimestamp(lastTimestamp);
+            }
+            if (timestamp > lastTimestamp) {
+                lastTimestamp = timestamp;
+                sequence = 0;
+            } else if (sequence < MAX_SEQUENCE) {
+                sequence++;
+            } else {
+                // secuencia agotada en este milisegundo
+                lastTimestamp = awaitTimestamp(lastTimestamp + 1);
+                sequence = 0;
+            }
+        }
+
+        /**
+         * Espera, con el monitor de la franja, a que el reloj alcance target
+         *
+         * @return milisegundo actual, igual o posterior a target
+         */
+        private static long awaitTimestamp(long target) {
+            long timestamp;
+            while ((timestamp = System.currentTimeMillis() - EPOCH) < target) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(target - timestamp, 10)) / 2);
+            }
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package springBootInitialDemo.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import springBootInitialDemo.dto.GreetingResponseDto;
+
+import java.io.IOException;
+
+/**
+ * Serializador escrito a mano para GreetingResponseDto: escribe {"id", "content"} directamente
+ * en el JsonGenerator, sin introspeccion de getters, con los nombres de campo ya codificados.
+ * Dentro de un EntityModel (@JsonUnwrapped) se usa la variante sin llaves de unwrappingSerializer
+ *
+ */
+final class GreetingResponseDtoSerializer extends StdSerializer<GreetingResponseDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SerializableString id;
+    private final SerializableString content;
+    private final boolean unwrapping;
+
+    GreetingResponseDtoSerializer() {
+        this(NameTransformer.NOP, false);
+    }
+
+    private GreetingResponseDtoSerializer(NameTransformer names, boolean unwrapping) {
+        super(GreetingResponseDto.class);
+        this.id = new SerializedString(names.transform("id"));
+        this.content = new SerializedString(names.transform("content"));
+        this.unwrapping = unwrapping;
+    }
+
+    @Override
+    public void serialize(GreetingResponseDto value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        if (!unwrapping) {
+            generator.writeStartObject(value);
+        }
+        generator.writeFieldName(id);
+        generator.writeNumber(value.getId());
+        generator.writeFieldName(content);
+        generator.writeString(value.getContent());
+        if (!unwrapping) {
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappingSerializer() {
+        return unwrapping;
+    }
+
+    @Override
+    public JsonSerializer<GreetingResponseDto> unwrappingSerializer(NameTransformer unwrapper) {
+        return new GreetingResponseDtoSerializer(unwrapper, true);
+    }
+}
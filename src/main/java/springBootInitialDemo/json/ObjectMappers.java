@@ -0,0 +1,81 @@
+package springBootInitialDemo.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.TSFBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Construccion de los ObjectMapper de la aplicacion (JSON, CBOR y Smile) con el modo de
+ * serializacion elegido en serialization.mode:
+ *  - STANDARD: introspeccion por reflexion de Jackson, sin modulos adicionales
+ *  - FAST: serializadores escritos a mano para GreetingResponseDto y UserResponseDto y, para el
+ *    resto de tipos (EntityModel, CountryDto, paginas...), AfterburnerModule, que genera en
+ *    bytecode los accesos a getters y constructores en lugar de invocarlos por reflexion
+ *
+ * Los buffers de salida se reutilizan por hilo mediante el BufferRecycler de Jackson
+ * (JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING, activado explicitamente).
+ *
+ */
+public final class ObjectMappers {
+
+    public enum Mode {
+        STANDARD, FAST;
+
+        public static Mode fromProperty(String value) {
+            return value == null ? FAST : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private ObjectMappers() {
+    }
+
+    public static ObjectMapper json(Mode mode) {
+        return configure(new ObjectMapper(recycling(new JsonFactoryBuilder())), mode);
+    }
+
+    public static ObjectMapper cbor(Mode mode) {
+        return configure(new ObjectMapper(recycling(CBORFactory.builder())), mode);
+    }
+
+    public static ObjectMapper smile(Mode mode) {
+        return configure(new ObjectMapper(recycling(SmileFactory.builder())), mode);
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper, Mode mode) {
+        mapper.setTimeZone(TimeZone.getDefault());
+        return registerModules(mapper, mode);
+    }
+
+    /**
+     * Registra en un ObjectMapper ya creado (por ejemplo el de un conversor de Spring) los
+     * serializadores del modo indicado, sin cambiar el resto de su configuracion
+     */
+    public static ObjectMapper registerModules(ObjectMapper mapper, Mode mode) {
+        if (mode == Mode.FAST) {
+            mapper.registerModule(dtoModule());
+            mapper.registerModule(new AfterburnerModule());
+        }
+        return mapper;
+    }
+
+    private static SimpleModule dtoModule() {
+        SimpleModule ret = new SimpleModule("springBootInitialDemo.dto");
+        ret.addSerializer(GreetingResponseDto.class, new GreetingResponseDtoSerializer());
+        ret.addSerializer(UserResponseDto.class, new UserResponseDtoSerializer());
+        return ret;
+    }
+
+    private static <F extends JsonFactory, B extends TSFBuilder<F, B>> F recycling(B builder) {
+        return builder.enable(JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING).build();
+    }
+}
@@ -0,0 +1,97 @@
+package springBootInitialDemo.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Serializador escrito a mano para UserResponseDto. Produce exactamente lo mismo que la
+ * serializacion por reflexion (mismos campos, orden y nulos): el UUID como texto en JSON y como
+ * 16 bytes en los formatos binarios (CBOR, Smile), igual que el UUIDSerializer de Jackson.
+ * Dentro de un EntityModel (@JsonUnwrapped) se usa la variante sin llaves de unwrappingSerializer
+ *
+ */
+final class UserResponseDtoSerializer extends StdSerializer<UserResponseDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SerializableString uuidField;
+    private final SerializableString name;
+    private final SerializableString surname;
+    private final SerializableString dateOfBirth;
+    private final SerializableString gender;
+    private final boolean unwrapping;
+
+    UserResponseDtoSerializer() {
+        this(NameTransformer.NOP, false);
+    }
+
+    private UserResponseDtoSerializer(NameTransformer names, boolean unwrapping) {
+        super(UserResponseDto.class);
+        this.uuidField = new SerializedString(names.transform("uuid"));
+        this.name = new SerializedString(names.transform("name"));
+        this.surname = new SerializedString(names.transform("surname"));
+        this.dateOfBirth = new SerializedString(names.transform("dateOfBirth"));
+        this.gender = new SerializedString(names.transform("gender"));
+        this.unwrapping = unwrapping;
+    }
+
+    @Override
+    public void serialize(UserResponseDto value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        if (!unwrapping) {
+            generator.writeStartObject(value);
+        }
+        generator.writeFieldName(uuidField);
+        writeUuid(value.getUuid(), generator);
+        generator.writeFieldName(name);
+        generator.writeString(value.getName());
+        generator.writeFieldName(surname);
+        generator.writeString(value.getSurname());
+        generator.writeFieldName(dateOfBirth);
+        generator.writeString(value.getDateOfBirth());
+        generator.writeFieldName(gender);
+        generator.writeString(value.getGender());
+        if (!unwrapping) {
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappingSerializer() {
+        return unwrapping;
+    }
+
+    @Override
+    public JsonSerializer<UserResponseDto> unwrappingSerializer(NameTransformer unwrapper) {
+        return new UserResponseDtoSerializer(unwrapper, true);
+    }
+
+    private static void writeUuid(UUID uuid, JsonGenerator generator) throws IOException {
+        if (uuid == null) {
+            generator.writeNull();
+        } else if (generator.canWriteBinaryNatively()) {
+            byte[] bytes = new byte[16];
+            putLong(bytes, 0, uuid.getMostSignificantBits());
+            putLong(bytes, 8, uuid.getLeastSignificantBits());
+            generator.writeBinary(bytes);
+        } else {
+            generator.writeString(uuid.toString());
+        }
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
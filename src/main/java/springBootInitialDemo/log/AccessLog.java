@@ -0,0 +1,274 @@
+package springBootInitialDemo.log;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de accesos asincrono.
+ *
+ * Los hilos que atienden peticiones publican registros de forma fija (endpoint, id, nombre,
+ * latencia) en un AccessLogRingBuffer preasignado. Un unico hilo de fondo los escribe por lotes
+ * en un fichero, lo vuelca cada access-log.flush-interval-ms y lo rota al superar
+ * access-log.max-file-size (bytes escritos en UTF-8), conservando access-log.max-files ficheros.
+ *
+ * Sin registros pendientes el hilo de fondo duerme, doblando la espera desde 1 ms hasta
+ * MAX_IDLE_PARK_NANOS (o el intervalo de volcado, si es menor). Si mientras duerme el buffer se
+ * llena hasta la mitad, el productor que lo detecta lo despierta, de modo que una rafaga no se
+ * descarta por esperar a que acabe la pausa.
+ *
+ * Si el buffer se llena los registros se descartan; el numero de descartados se publica en
+ * getStats() para que la perdida sea visible.
+ *
+ * Anotaciones:
+ * @Component
+ * Indica que una clase es un "componente", candidata para la detección automática
+ * mediante el escaneo del classpath
+ *
+ */
+@Component
+public class AccessLog {
+
+    private static final int MAX_BATCH = 1024;
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final Path file;
+    private final long flushIntervalNanos;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AccessLogRingBuffer buffer;
+    private final long maxIdleParkNanos;
+    private final long wakeUpPending;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private volatile boolean parked;
+    private Thread writerThread;
+    private BufferedWriter writer;
+    private long fileSize;
+
+    public AccessLog(@Value("${access-log.enabled:true}") boolean enabled,
+                     @Value("${access-log.file:logs/access.log}") String file,
+                     @Value("${access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${access-log.flush-interval-ms:1000}") long flushIntervalMs,
+                     @Value("${access-log.max-file-size:10485760}") long maxFileSize,
+                     @Value("${access-log.max-files:5}") int maxFiles) {
+        this.enabled = enabled;
+        this.file = Paths.get(file);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.buffer = new AccessLogRingBuffer(bufferSize);
+        this.maxIdleParkNanos = Math.max(MIN_IDLE_PARK_NANOS, Math.min(MAX_IDLE_PARK_NANOS, flushIntervalNanos));
+        this.wakeUpPending = Math.max(1, buffer.getCapacity() / 2);
+    }
+
+    /**
+     * Registra una peticion atendida. No bloquea: si el buffer esta lleno el registro se descarta
+     *
+     * @param endpoint, ruta atendida
+     * @param id, identificador del recurso devuelto (0 si no aplica)
+     * @param name, nombre asociado a la peticion
+     * @param latencyNanos, duracion de la peticion en nanosegundos
+     */
+    public void log(String endpoint, long id, String name, long latencyNanos) {
+        if (enabled) {
+            buffer.offer(System.currentTimeMillis(), endpoint, id, name, latencyNanos);
+            if (parked && buffer.getPendingCount() >= wakeUpPending) {
+                parked = false;
+                LockSupport.unpark(writerThread);
+            }
+        }
+    }
+
+    /**
+     * @return registros escritos, descartados, pendientes y errores de escritura
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+        ret.put("written", written.get());
+        ret.put("dropped", buffer.getDroppedCount());
+        ret.put("pending", buffer.getPendingCount());
+        ret.put("capacity", (long) buffer.getCapacity());
+        ret.put("writeErrors", writeErrors.get());
+        return ret;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        long idleParkNanos = MIN_IDLE_PARK_NANOS;
+        boolean dirty = false;
+        while (running || buffer.getPendingCount() > 0) {
+            int drained = buffer.drainTo(this::write, MAX_BATCH);
+            dirty |= drained > 0;
+            long now = System.nanoTime();
+            if (dirty && (now - lastFlush >= flushIntervalNanos || !running)) {
+                flush();
+                dirty = false;
+                lastFlush = now;
+            }
+            if (drained > 0) {
+                idleParkNanos = MIN_IDLE_PARK_NANOS;
+            } else if (running) {
+                // con datos sin volcar no se duerme mas alla del siguiente volcado
+                long park = dirty ? Math.min(idleParkNanos, flushIntervalNanos - (now - lastFlush)) : idleParkNanos;
+                parked = true;
+                if (buffer.getPendingCount() == 0) {
+                    LockSupport.parkNanos(this, park);
+                }
+                parked = false;
+                idleParkNanos = Math.min(idleParkNanos * 2, maxIdleParkNanos);
+            }
+        }
+        flush();
+        closeWriter();
+    }
+
+    private void write(long timestamp, String endpoint, long id, String name, long latencyNanos) {
+        line.setLength(0);
+        line.append(timestamp).append('\t');
+        appendSanitized(endpoint);
+        line.append('\t').append(id).append('\t');
+        appendSanitized(name);
+        line.append('\t').append(TimeUnit.NANOSECONDS.toMicros(latencyNanos)).append('\n');
+        try {
+            if (writer == null || fileSize >= maxFileSize) {
+                rotate();
+            }
+            writer.append(line);
+            fileSize += utf8Length(line);
+            written.incrementAndGet();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            closeWriter();
+        }
+    }
+
+    private void appendSanitized(String value) {
+        if (value == null) {
+            line.append('-');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            line.append(Character.isISOControl(c) ? ' ' : c);
+        }
+    }
+
+    /**
+     * @return bytes que ocupa el texto en UTF-8 (un surrogate sin pareja se escribe como '?')
+     */
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private void rotate() throws IOException {
+        closeWriter();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file) && Files.size(file) >= maxFileSize) {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path source = i == 1 ? file : rotated(i - 1);
+                if (Files.exists(source)) {
+                    Files.move(source, rotated(i), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles == 1) {
+                Files.delete(file);
+            }
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                StandardCharsets.UTF_8), 64 * 1024);
+        fileSize = Files.size(file);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+        }
+        writer = null;
+    }
+}
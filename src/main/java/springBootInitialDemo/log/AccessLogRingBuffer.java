@@ -0,0 +1,112 @@
+package springBootInitialDemo.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular preasignado de registros de acceso, con varios productores y un unico consumidor.
+ *
+ * Cada posicion guarda los campos del registro en arrays paralelos, de modo que publicar un
+ * registro no crea objetos. Un productor reserva una secuencia con CAS, escribe los campos y
+ * la publica; si el buffer esta lleno el registro se descarta y se contabiliza, sin bloquear
+ * nunca al hilo que atiende la peticion.
+ *
+ */
+class AccessLogRingBuffer {
+
+    private final int mask;
+    private final long capacity;
+
+    private final long[] timestamps;
+    private final String[] endpoints;
+    private final long[] ids;
+    private final String[] names;
+    private final long[] latencies;
+    private final AtomicLongArray published;
+
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    AccessLogRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = size - 1;
+        this.capacity = size;
+        this.timestamps = new long[size];
+        this.endpoints = new String[size];
+        this.ids = new long[size];
+        this.names = new String[size];
+        this.latencies = new long[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Publica un registro; nunca bloquea
+     *
+     * @return false si el buffer estaba lleno y el registro se ha descartado
+     */
+    boolean offer(long timestamp, String endpoint, long id, String name, long latencyNanos) {
+        long sequence;
+        do {
+            sequence = producerSequence.get();
+            if (sequence - consumerSequence.get() >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!producerSequence.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        timestamps[index] = timestamp;
+        endpoints[index] = endpoint;
+        ids[index] = id;
+        names[index] = name;
+        latencies[index] = latencyNanos;
+        published.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor, en orden, los registros publicados disponibles (como mucho maxBatch).
+     * Solo debe llamarse desde el hilo consumidor
+     *
+     * @return numero de registros entregados
+     */
+    int drainTo(AccessLogConsumer consumer, int maxBatch) {
+        long sequence = consumerSequence.get();
+        int count = 0;
+        while (count < maxBatch) {
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            consumer.accept(timestamps[index], endpoints[index], ids[index], names[index], latencies[index]);
+            endpoints[index] = null;
+            names[index] = null;
+            sequence++;
+            count++;
+        }
+        if (count > 0) {
+            consumerSequence.set(sequence);
+        }
+        return count;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getPendingCount() {
+        return producerSequence.get() - consumerSequence.get();
+    }
+
+    int getCapacity() {
+        return (int) capacity;
+    }
+
+    interface AccessLogConsumer {
+        void accept(long timestamp, String endpoint, long id, String name, long latencyNanos);
+    }
+}
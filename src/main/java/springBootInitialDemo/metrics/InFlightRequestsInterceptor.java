@@ -0,0 +1,70 @@
+package springBootInitialDemo.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interceptor que publica el numero de peticiones en curso por endpoint, como la metrica
+ * http.server.requests.active con las etiquetas method y uri (el patron de la ruta, no la
+ * ruta concreta, para que el numero de series este acotado).
+ *
+ * Cada endpoint tiene su propio AtomicInteger, creado y registrado como Gauge la primera vez
+ * que se atiende; a partir de ahi la peticion solo hace un incremento y un decremento.
+ *
+ */
+@Profile("!reactive")
+@Component
+public class InFlightRequestsInterceptor implements HandlerInterceptor {
+
+    private static final String COUNTER_ATTRIBUTE = InFlightRequestsInterceptor.class.getName() + ".counter";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InFlightRequestsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        AtomicInteger counter = inFlight.computeIfAbsent(method + ' ' + uri, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("http.server.requests.active", value, AtomicInteger::get)
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(registry);
+            return value;
+        });
+        counter.incrementAndGet();
+        request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object counter = request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter != null) {
+            request.removeAttribute(COUNTER_ATTRIBUTE);
+            ((AtomicInteger) counter).decrementAndGet();
+        }
+    }
+}
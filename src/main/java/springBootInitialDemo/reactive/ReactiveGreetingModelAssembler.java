@@ -0,0 +1,82 @@
+package springBootInitialDemo.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import springBootInitialDemo.dto.GreetingResponseDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Equivalente reactivo de GreetingModelAssembler: genera la misma representacion HAL del saludo
+ * ({"id", "content", "_links": {"self": [...]}}) a partir de la URL de la ServerRequest, sin
+ * depender del contexto de Servlet
+ *
+ */
+@Component
+@Profile("reactive")
+public class ReactiveGreetingModelAssembler {
+
+    private static final String NAME_PARAM = "name";
+
+    private final String rootTemplate = ReactiveRoutes.ROOT_PATH + "{?" + NAME_PARAM + "}";
+
+    /**
+     * @return modelo HAL del saludo con los enlaces "/?name=<name>", "/v1" y la plantilla "/{?name}";
+     * el primero es el que se usa como Location
+     */
+    public Map<String, Object> toModel(GreetingResponseDto greetingResponseDto, String name, ServerRequest request) {
+
+        String baseUrl = baseUrl(request);
+        String encodedName = UriUtils.encodeQueryParam(name, StandardCharsets.UTF_8);
+
+        List<Map<String, Object>> self = new ArrayList<>(3);
+        self.add(link(baseUrl + ReactiveRoutes.ROOT_PATH + "?" + NAME_PARAM + "=" + encodedName, false));
+        self.add(link(baseUrl + ReactiveRoutes.V1_PATH, false));
+        self.add(link(baseUrl + rootTemplate, true));
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("id", greetingResponseDto.getId());
+        ret.put("content", greetingResponseDto.getContent());
+        ret.put("_links", Collections.singletonMap("self", self));
+        return ret;
+    }
+
+    /**
+     * @return href del primer enlace self del modelo
+     */
+    @SuppressWarnings("unchecked")
+    public static String selfHref(Map<String, Object> model) {
+        Map<String, List<Map<String, Object>>> links = (Map<String, List<Map<String, Object>>>) model.get("_links");
+        return (String) links.get("self").get(0).get("href");
+    }
+
+    private static Map<String, Object> link(String href, boolean templated) {
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("href", href);
+        if (templated) {
+            ret.put("templated", true);
+        }
+        return ret;
+    }
+
+    /**
+     * @return esquema, host, puerto y context path de la peticion (ya corregidos por
+     * ForwardedHeaderTransformer si server.forward-headers-strategy=framework)
+     */
+    private static String baseUrl(ServerRequest request) {
+        return UriComponentsBuilder.fromUri(request.uri())
+                .replacePath(request.requestPath().contextPath().value())
+                .replaceQuery(null)
+                .fragment(null)
+                .build()
+                .toUriString();
+    }
+}
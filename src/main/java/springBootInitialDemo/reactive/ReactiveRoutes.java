@@ -0,0 +1,157 @@
+package springBootInitialDemo.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.id.IGreetingIdGenerator;
+import springBootInitialDemo.log.AccessLog;
+import springBootInitialDemo.repository.ContentHash;
+import springBootInitialDemo.repository.store.VersionedUser;
+import springBootInitialDemo.service.IGreetingService;
+import springBootInitialDemo.service.IUserService;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Rutas funcionales de WebFlux del perfil "reactive" (Netty, sin hilo por peticion).
+ *
+ * Sirven los mismos contratos que GreetingController e InitialController:
+ *  - GET /            saludo con ?name=, HAL, 201 con Location
+ *  - GET /v1          saludo por defecto, HAL, 201 con Location
+ *  - GET /v1/user/{uuid}  200, 404 o 400
+ * reutilizando IGreetingService e IUserService.
+ *
+ * El locale del saludo se toma del LocaleContext del intercambio (cabecera Accept-Language),
+ * ya que en el hilo de Netty LocaleContextHolder esta vacio.
+ *
+ * La plantilla, la cache de saludos y UserStore resuelven en memoria sin E/S, pero el generador de
+ * identificadores puede bloquear (IGreetingIdGenerator.isBlocking(): el de rangos fuerza la marca
+ * de agua a disco y el Snowflake espera al reloj). Con esos generadores el saludo se genera en
+ * Schedulers.boundedElastic(); con el generador atomico se genera directamente en el hilo de Netty.
+ *
+ * Con spring.profiles.active=reactive se activa application-reactive.properties, que arranca la
+ * aplicacion como WebFlux, y se desactivan los controladores y la configuracion de Spring MVC.
+ *
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveRoutes {
+
+    static final String ROOT_PATH = "/";
+    static final String V1_PATH = "/v1";
+    static final String DEFAULT_NAME = "WORLD";
+
+    private static final MediaType HAL_JSON = MediaType.parseMediaType("application/hal+json");
+
+    private final IGreetingService greetingService;
+    private final IUserService userService;
+    private final ReactiveGreetingModelAssembler assembler;
+    private final AccessLog accessLog;
+    private final Scheduler greetingScheduler;
+
+    @Autowired
+    public ReactiveRoutes(IGreetingService greetingService, IUserService userService,
+                          ReactiveGreetingModelAssembler assembler, AccessLog accessLog,
+                          IGreetingIdGenerator idGenerator) {
+        this.greetingService = greetingService;
+        this.userService = userService;
+        this.assembler = assembler;
+        this.accessLog = accessLog;
+        this.greetingScheduler = idGenerator.isBlocking() ? Schedulers.boundedElastic() : Schedulers.immediate();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> routes() {
+        return route(GET(ROOT_PATH).and(accept(HAL_JSON, MediaType.APPLICATION_JSON, MediaType.ALL)), this::hello)
+                .andRoute(GET(V1_PATH).and(accept(HAL_JSON, MediaType.APPLICATION_JSON, MediaType.ALL)), this::helloV1)
+                .andRoute(GET(V1_PATH + "/user/{uuid}"), this::getUser);
+    }
+
+    private Mono<ServerResponse> hello(ServerRequest request) {
+        String name = request.queryParam("name").orElse(DEFAULT_NAME);
+        Locale locale = locale(request);
+        long start = System.nanoTime();
+        return greet(request, ROOT_PATH, name, () -> greetingService.getGreeting(name, locale), start);
+    }
+
+    private Mono<ServerResponse> helloV1(ServerRequest request) {
+        Locale locale = locale(request);
+        long start = System.nanoTime();
+        return greet(request, V1_PATH, DEFAULT_NAME, () -> greetingService.getGreeting(locale), start);
+    }
+
+    private Mono<ServerResponse> greet(ServerRequest request, String endpoint, String name,
+                                       Supplier<GreetingResponseDto> greeting, long start) {
+
+        return Mono.fromSupplier(greeting).subscribeOn(greetingScheduler).flatMap(greetingResponseDto -> {
+
+            Map<String, Object> model = assembler.toModel(greetingResponseDto, name, request);
+
+            accessLog.log(endpoint, greetingResponseDto.getId(), name, System.nanoTime() - start);
+
+            return ServerResponse
+                    .created(URI.create(ReactiveGreetingModelAssembler.selfHref(model)))
+                    .contentType(HAL_JSON)
+                    .bodyValue(model);
+        });
+    }
+
+    /**
+     * @return locale resuelto por el LocaleContextResolver de WebFlux (Accept-Language), o null
+     * si la peticion no lo indica
+     */
+    private static Locale locale(ServerRequest request) {
+        return request.exchange().getLocaleContext().getLocale();
+    }
+
+    private Mono<ServerResponse> getUser(ServerRequest request) {
+
+        long start = System.nanoTime();
+
+        Optional<VersionedUser> versionedUser;
+        try {
+            versionedUser = userService.getVersionedUser(request.pathVariable("uuid"));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        accessLog.log("/v1/user/{uuid}", 0, versionedUser.map(found -> found.getUser().getName()).orElse(null),
+                System.nanoTime() - start);
+
+        if (!versionedUser.isPresent()) {
+            return ServerResponse.notFound().build();
+        }
+        VersionedUser found = versionedUser.get();
+        String eTag = ContentHash.toETag(found.getVersion());
+        Instant lastModified = Instant.ofEpochMilli(found.getLastModified());
+
+        // 304 sin serializar el usuario si la peticion condicional coincide
+        return request.checkNotModified(lastModified, eTag)
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                        .eTag(eTag)
+                        .lastModified(lastModified)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(found.getUser())));
+    }
+}
@@ -0,0 +1,47 @@
+package springBootInitialDemo.repository;
+
+/**
+ * Hash de contenido de 64 bits (FNV-1a) para versionar registros al escribirlos.
+ *
+ * Los repositorios lo calculan una sola vez por escritura y lo guardan junto al registro; los
+ * controladores lo usan como ETag fuerte sin volver a serializar ni recorrer el contenido en
+ * cada peticion. Al depender solo del contenido, el mismo registro tiene el mismo ETag tras
+ * reiniciar o en otra instancia
+ *
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    public ContentHash add(String value) {
+        if (value == null) {
+            return add(-1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        // la longitud separa campos: ("ab", "c") y ("a", "bc") no coinciden
+        return add(value.length());
+    }
+
+    public ContentHash add(long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * PRIME;
+        }
+        return this;
+    }
+
+    public long value() {
+        return hash;
+    }
+
+    /**
+     * @return valor del hash en hexadecimal, para usarlo como ETag
+     */
+    public static String toETag(long version) {
+        return Long.toHexString(version);
+    }
+}
@@ -0,0 +1,303 @@
+package springBootInitialDemo.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.client.RestTemplate;
+import springBootInitialDemo.dto.CountryDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Clase de la capa Repository: catalogo de paises en memoria con los datos de REST Countries.
+ *
+ * Los datos se cargan de country.source, que puede ser una URL http(s) (se descarga con el
+ * RestTemplate de SpringConfiguration) o una ubicacion de Spring (file:..., classpath:...). Por
+ * defecto se usa la respuesta grabada de /rest/v2/lang/es incluida en la aplicacion
+ * (classpath:countries/countries-es.json), ya que restcountries.eu ha dejado de existir.
+ * Cada carga construye una instantanea inmutable con:
+ *  - indices hash por alpha2Code, alpha3Code y callingCode
+ *  - indices invertidos por idioma (ISO 639-1 y 639-2) y por region
+ * y la publica con una sola escritura volatil, de modo que las consultas nunca ven un catalogo
+ * a medio construir ni necesitan bloqueos.
+ *
+ * El catalogo se refresca en segundo plano cada country.refresh-interval-ms (@Scheduled). Mientras
+ * se descarga la version nueva, o si la descarga falla, se sigue sirviendo la anterior
+ * (stale-while-revalidate).
+ *
+ */
+@Repository
+public class CountryCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(CountryCatalog.class);
+
+    static final String DEFAULT_SOURCE = "classpath:countries/countries-es.json";
+
+    private final RestTemplate restTemplate;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String source;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CountryCatalog(RestTemplate restTemplate, ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                          @Value("${country.source:" + DEFAULT_SOURCE + "}") String source) {
+        this.restTemplate = restTemplate;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.source = source;
+    }
+
+    /**
+     * Recarga el catalogo. La primera ejecucion se hace al arrancar, sin esperar al intervalo
+     */
+    @Scheduled(fixedDelayString = "${country.refresh-interval-ms:3600000}")
+    public void refresh() {
+        try {
+            Snapshot loaded = new Snapshot(parse(fetch()), Instant.now());
+            Snapshot current = snapshot;
+            if (current != null && current.version.getVersion() == loaded.version.getVersion()) {
+                // mismo contenido: se conserva la instantanea para no cambiar ETag ni Last-Modified
+                log.debug("Catalogo de paises de {} sin cambios", source);
+                return;
+            }
+            snapshot = loaded;
+            log.info("Catalogo de paises cargado de {}: {} paises", source, loaded.all.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se ha podido refrescar el catalogo de paises de {}; se mantiene la version anterior: {}",
+                    source, e.toString());
+        }
+    }
+
+    /**
+     * @return true si el catalogo se ha cargado al menos una vez
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return version (hash del contenido) e instante de carga de la instantanea actual, o vacio si
+     * aun no se ha cargado. Se consulta antes que los datos: si entre medias se publica una
+     * instantanea nueva, el ETag devuelto es el antiguo y la siguiente peticion condicional no coincide
+     */
+    public Optional<CatalogVersion> getVersion() {
+        Snapshot current = snapshot;
+        return current == null ? Optional.empty() : Optional.of(current.version);
+    }
+
+    public List<CountryDto> findAll() {
+        Snapshot current = snapshot;
+        return current == null ? Collections.emptyList() : current.all;
+    }
+
+    /**
+     * @param code, codigo alpha2 o alpha3, sin distinguir mayusculas
+     */
+    public Optional<CountryDto> findByAlphaCode(String code) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        String key = code.toUpperCase(Locale.ROOT);
+        return Optional.ofNullable(key.length() == 2 ? current.byAlpha2.get(key) : current.byAlpha3.get(key));
+    }
+
+    public List<CountryDto> findByCallingCode(String callingCode) {
+        Snapshot current = snapshot;
+        return current == null ? Collections.emptyList() : lookup(current.byCallingCode, callingCode);
+    }
+
+    /**
+     * @param language, codigo ISO 639-1 o 639-2
+     */
+    public List<CountryDto> findByLanguage(String language) {
+        Snapshot current = snapshot;
+        return current == null ? Collections.emptyList() : lookup(current.byLanguage, language.toLowerCase(Locale.ROOT));
+    }
+
+    public List<CountryDto> findByRegion(String region) {
+        Snapshot current = snapshot;
+        return current == null ? Collections.emptyList() : lookup(current.byRegion, region.toLowerCase(Locale.ROOT));
+    }
+
+    private static List<CountryDto> lookup(Map<String, List<CountryDto>> index, String key) {
+        List<CountryDto> ret = index.get(key);
+        return ret == null ? Collections.emptyList() : ret;
+    }
+
+    private JsonNode fetch() throws IOException {
+        if (source.startsWith("http://") || source.startsWith("https://")) {
+            String body = restTemplate.getForObject(source, String.class);
+            return objectMapper.readTree(body);
+        }
+        try (InputStream input = resourceLoader.getResource(source).getInputStream()) {
+            return objectMapper.readTree(input);
+        }
+    }
+
+    private static List<Entry> parse(JsonNode countries) {
+        if (!countries.isArray()) {
+            throw new IllegalArgumentException("Se esperaba un array de paises");
+        }
+        List<Entry> ret = new ArrayList<>(countries.size());
+        for (JsonNode country : countries) {
+            List<String> languages = new ArrayList<>();
+            Set<String> languageKeys = new LinkedHashSet<>();
+            for (JsonNode language : country.path("languages")) {
+                String iso6391 = internOrNull(language.path("iso639_1").asText(null));
+                String iso6392 = internOrNull(language.path("iso639_2").asText(null));
+                if (iso6391 != null) {
+                    languages.add(iso6391);
+                    languageKeys.add(iso6391.toLowerCase(Locale.ROOT));
+                }
+                if (iso6392 != null) {
+                    languageKeys.add(iso6392.toLowerCase(Locale.ROOT));
+                }
+            }
+            List<String> callingCodes = new ArrayList<>();
+            for (JsonNode callingCode : country.path("callingCodes")) {
+                String code = internOrNull(callingCode.asText(null));
+                if (code != null) {
+                    callingCodes.add(code);
+                }
+            }
+            CountryDto dto = new CountryDto(
+                    country.path("name").asText(),
+                    country.path("alpha2Code").asText().intern(),
+                    country.path("alpha3Code").asText().intern(),
+                    callingCodes.toArray(new String[0]),
+                    country.path("capital").asText(null),
+                    internOrNull(country.path("region").asText(null)),
+                    internOrNull(country.path("subregion").asText(null)),
+                    country.path("population").asLong(),
+                    languages.toArray(new String[0]));
+            ret.add(new Entry(dto, languageKeys));
+        }
+        return ret;
+    }
+
+    private static String internOrNull(String value) {
+        return value == null || value.isEmpty() ? null : value.intern();
+    }
+
+    /**
+     * Version de una instantanea del catalogo: hash de su contenido e instante en que se cargo
+     */
+    public static final class CatalogVersion {
+
+        private final long version;
+        private final Instant loadedAt;
+
+        private CatalogVersion(long version, Instant loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Instant getLoadedAt() {
+            return loadedAt;
+        }
+    }
+
+    /**
+     * Pais recien leido junto con todas las claves (ISO 639-1 y 639-2) por las que se indexan sus idiomas
+     */
+    private static final class Entry {
+
+        private final CountryDto country;
+        private final Set<String> languageKeys;
+
+        private Entry(CountryDto country, Set<String> languageKeys) {
+            this.country = country;
+            this.languageKeys = languageKeys;
+        }
+    }
+
+    /**
+     * Instantanea inmutable del catalogo con todos sus indices
+     */
+    private static final class Snapshot {
+
+        private final List<CountryDto> all;
+        private final CatalogVersion version;
+        private final Map<String, CountryDto> byAlpha2 = new HashMap<>();
+        private final Map<String, CountryDto> byAlpha3 = new HashMap<>();
+        private final Map<String, List<CountryDto>> byCallingCode = new HashMap<>();
+        private final Map<String, List<CountryDto>> byLanguage = new HashMap<>();
+        private final Map<String, List<CountryDto>> byRegion = new HashMap<>();
+
+        private Snapshot(List<Entry> entries, Instant loadedAt) {
+            List<CountryDto> countries = new ArrayList<>(entries.size());
+            ContentHash hash = new ContentHash();
+            for (Entry entry : entries) {
+                CountryDto country = entry.country;
+                countries.add(country);
+                hash(hash, country);
+                byAlpha2.put(country.getAlpha2Code().toUpperCase(Locale.ROOT), country);
+                byAlpha3.put(country.getAlpha3Code().toUpperCase(Locale.ROOT), country);
+                for (String callingCode : country.getCallingCodes()) {
+                    add(byCallingCode, callingCode, country);
+                }
+                for (String language : entry.languageKeys) {
+                    add(byLanguage, language, country);
+                }
+                if (country.getRegion() != null) {
+                    add(byRegion, country.getRegion().toLowerCase(Locale.ROOT), country);
+                }
+            }
+            this.all = Collections.unmodifiableList(countries);
+            this.version = new CatalogVersion(hash.value(), loadedAt);
+            freeze(byCallingCode);
+            freeze(byLanguage);
+            freeze(byRegion);
+        }
+
+        private static void hash(ContentHash hash, CountryDto country) {
+            hash.add(country.getName())
+                    .add(country.getAlpha2Code())
+                    .add(country.getAlpha3Code())
+                    .add(country.getCapital())
+                    .add(country.getRegion())
+                    .add(country.getSubregion())
+                    .add(country.getPopulation())
+                    .add(country.getCallingCodes().size());
+            for (String callingCode : country.getCallingCodes()) {
+                hash.add(callingCode);
+            }
+            hash.add(country.getLanguages().size());
+            for (String language : country.getLanguages()) {
+                hash.add(language);
+            }
+        }
+
+        private static void add(Map<String, List<CountryDto>> index, String key, CountryDto country) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(country);
+        }
+
+        private static void freeze(Map<String, List<CountryDto>> index) {
+            index.replaceAll((key, countries) -> Collections.unmodifiableList(countries));
+        }
+    }
+}
@@ -4,7 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import springBootInitialDemo.dto.GreetingResponseDto;
-import java.util.concurrent.atomic.AtomicLong;
+import springBootInitialDemo.id.GreetingIdBlock;
+import springBootInitialDemo.id.IGreetingIdGenerator;
+import springBootInitialDemo.template.GreetingTemplate;
+import springBootInitialDemo.template.GreetingTemplateEngine;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Clase de la capa Repository, implementa la interface IGreetingRepository
@@ -22,31 +29,44 @@ import java.util.concurrent.atomic.AtomicLong;
  * @Transactional
  * Describe un atributo de transacción en la clase, es decir, da soporte a la transacionalidad
  *
- * @Autowired
- * Marca un constructor, campo, método setter o método de configuración para ser detectado
- * automáticamente por la funcionalidad de inyección de dependencias de Spring
+ * Cada invocacion crea un GreetingResponseDto nuevo e inmutable, por lo que el repositorio
+ * no guarda estado por peticion y puede ser usado por varios hilos a la vez
  *
  */
 @Repository
 @Transactional
 public class GreetingRepository implements IGreetingRepository {
 
-    @Autowired
-    private GreetingResponseDto greetingResponseDto;
-
-    private AtomicLong id = new AtomicLong();
+    /**
+     * Generador de identificadores de los saludos, seleccionado en IdGeneratorConfiguration
+     */
+    private final IGreetingIdGenerator idGenerator;
 
     /**
-     * Variable de tipo String utilizada como plantilla para dar valor a
-     * una de las propiedades del objeto GreetingResponseDto, utilizando
-     * el formato "HELLO <NAME>", donde <NAME> es un String parametrizable
+     * Motor de plantillas utilizado para dar valor a una de las propiedades
+     * del objeto GreetingResponseDto, utilizando el formato "HELLO <NAME>"
+     * (o el equivalente del locale de la peticion), donde <NAME> es un
+     * String parametrizable
      */
-    private static final String TEMPLATE = "HELLO %s";
+    private final GreetingTemplateEngine templateEngine;
     private String defaultValue="WORLD";
 
+    /**
+     * Constructor de la clase, parametrizado con el motor de plantillas de saludo
+     * y el generador de identificadores
+     *
+     * @param templateEngine, objeto de tipo GreetingTemplateEngine con las plantillas precompiladas
+     * @param idGenerator, objeto de tipo IGreetingIdGenerator
+     */
+    @Autowired
+    public GreetingRepository(GreetingTemplateEngine templateEngine, IGreetingIdGenerator idGenerator) {
+        this.templateEngine = templateEngine;
+        this.idGenerator = idGenerator;
+    }
+
     /**
      * Metodo de la interface IGreetingRepository, implementada por la clase.
-     * Retorna un objeto de tipo GreetingResponseDto informando/seteando con
+     * Retorna un objeto nuevo de tipo GreetingResponseDto informando con
      * un valor sus atributos o propiedades.
      * Metodo sin parametros
      *
@@ -55,14 +75,23 @@ public class GreetingRepository implements IGreetingRepository {
      */
     @Override
     public GreetingResponseDto getGreeting() {
-        greetingResponseDto.setContent(String.format(TEMPLATE,defaultValue));
-        greetingResponseDto.setId(id.incrementAndGet());
-        return greetingResponseDto;
+        return new GreetingResponseDto(idGenerator.nextId(), templateEngine.render(defaultValue));
+    }
+
+    /**
+     * Igual que getGreeting(), con la plantilla del locale indicado en lugar del de la peticion
+     * en curso. Para hilos sin peticion (handlers asincronos, rutas reactivas)
+     *
+     * @param locale, locale de la plantilla de saludo
+     */
+    @Override
+    public GreetingResponseDto getGreeting(Locale locale) {
+        return new GreetingResponseDto(idGenerator.nextId(), templateEngine.template(locale).render(defaultValue));
     }
 
     /**
      * Metodo de la interface IGreetingRepository, implementada por la clase.
-     * Retorna un objeto de tipo GreetingResponseDto informando/seteando con
+     * Retorna un objeto nuevo de tipo GreetingResponseDto informando con
      * un valor sus atributos o propiedades.
      * Hace uso de la variable String pasada como parametro, para retornar
      * la cadena "HELLO <String param>", encapsulada en uno de los atributos
@@ -75,9 +104,55 @@ public class GreetingRepository implements IGreetingRepository {
      */
     @Override
     public GreetingResponseDto getGreeting(String greeting) {
-        greetingResponseDto.setContent(String.format(TEMPLATE, greeting));
-        greetingResponseDto.setId(id.incrementAndGet());
-        return greetingResponseDto;
+        return new GreetingResponseDto(idGenerator.nextId(), templateEngine.render(greeting));
+    }
+
+    /**
+     * Metodo de la interface IGreetingRepository, implementada por la clase.
+     * Retorna un objeto nuevo de tipo GreetingResponseDto con un id nuevo y
+     * el contenido ya renderizado que se pasa como parametro
+     *
+     * @param content, saludo ya renderizado, por ejemplo "HELLO WORLD"
+     * @return objeto de tipo GreetingResponseDto con un id nuevo y el contenido indicado
+     */
+    @Override
+    public GreetingResponseDto createGreeting(String content) {
+        return new GreetingResponseDto(idGenerator.nextId(), content);
+    }
+
+    /**
+     * Metodo de la interface IGreetingRepository, implementada por la clase.
+     * Reserva de una vez un bloque de ids consecutivos del generador
+     *
+     * @param count, numero de ids que se quieren reservar
+     * @return bloque de entre 1 y count ids consecutivos
+     */
+    @Override
+    public GreetingIdBlock reserveIds(int count) {
+        return idGenerator.reserve(count);
+    }
+
+    /**
+     * Metodo de la interface IGreetingRepository, implementada por la clase.
+     * Crea un GreetingResponseDto por nombre, en orden, con la plantilla del locale indicado
+     * (resuelta una sola vez) y con ids consecutivos reservados por bloques con reserveIds,
+     * en lugar de pedir un id al generador por cada saludo
+     *
+     * @param names, nombres a saludar
+     * @param locale, locale de la plantilla de saludo
+     * @param consumer, recibe cada GreetingResponseDto a medida que se crea
+     */
+    @Override
+    public void createGreetings(List<String> names, Locale locale, Consumer<GreetingResponseDto> consumer) {
+        GreetingTemplate template = templateEngine.template(locale);
+        int index = 0;
+        while (index < names.size()) {
+            GreetingIdBlock block = reserveIds(names.size() - index);
+            long id = block.getFirst();
+            for (int i = 0; i < block.getSize(); i++) {
+                consumer.accept(new GreetingResponseDto(id + i, template.render(names.get(index++))));
+            }
+        }
     }
 
 }
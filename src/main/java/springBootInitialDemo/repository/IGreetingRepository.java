@@ -1,6 +1,11 @@
 package springBootInitialDemo.repository;
 
 import springBootInitialDemo.dto.GreetingResponseDto;
+import springBootInitialDemo.id.GreetingIdBlock;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Interface de la capa Repository
@@ -11,4 +16,12 @@ public interface IGreetingRepository {
     public GreetingResponseDto getGreeting(String greeting);
 
     public GreetingResponseDto getGreeting();
+
+    public GreetingResponseDto getGreeting(Locale locale);
+
+    public GreetingResponseDto createGreeting(String content);
+
+    public GreetingIdBlock reserveIds(int count);
+
+    public void createGreetings(List<String> names, Locale locale, Consumer<GreetingResponseDto> consumer);
 }
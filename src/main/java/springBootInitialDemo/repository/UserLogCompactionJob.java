@@ -0,0 +1,32 @@
+package springBootInitialDemo.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import springBootInitialDemo.repository.store.UserLog;
+
+/**
+ * Tarea programada (@EnableScheduling en SpringConfiguration) que compacta el log de usuarios
+ * cuando acumula demasiadas versiones antiguas, o escribe un checkpoint de su indice en otro caso,
+ * cada user.persistence.compaction-interval-ms milisegundos
+ *
+ */
+@Component
+public class UserLogCompactionJob {
+
+    private final UserLog userLog;
+
+    @Autowired
+    public UserLogCompactionJob(ObjectProvider<UserLog> userLog) {
+        this.userLog = userLog.getIfAvailable();
+    }
+
+    @Scheduled(fixedDelayString = "${user.persistence.compaction-interval-ms:600000}",
+            initialDelayString = "${user.persistence.compaction-interval-ms:600000}")
+    public void compact() {
+        if (userLog != null) {
+            userLog.compactIfNeeded();
+        }
+    }
+}
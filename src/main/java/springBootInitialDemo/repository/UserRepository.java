@@ -1,8 +1,13 @@
 package springBootInitialDemo.repository;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,142 +15,488 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import springBootInitialDemo.dto.ResponseDto;
 import springBootInitialDemo.dto.UserResponseDto;
-
+import springBootInitialDemo.repository.store.UserLog;
+import springBootInitialDemo.repository.store.UserOrderIndex;
+import springBootInitialDemo.repository.store.UserOrdering;
+import springBootInitialDemo.repository.store.UserQuery;
+import springBootInitialDemo.repository.store.UserSearchIndex;
+import springBootInitialDemo.repository.store.UserStore;
+import springBootInitialDemo.repository.store.VersionedUser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Clase de la capa Repository de usuarios, identificados por UUID.
+ * Los usuarios se guardan en un UserStore en memoria, particionado por nucleo, y se mantienen
+ * ordenados por uuid, surname y dateOfBirth en un UserOrderIndex para los listados. Las consultas
+ * por campos (findAll(Example), count(Example), exists(Example), search) se resuelven con los
+ * indices secundarios de UserSearchIndex, sin recorrer todos los usuarios.
+ *
+ * Si existe un UserLog, al arrancar se recuperan los usuarios persistidos y cada cambio se añade
+ * al log. Con user.persistence.sync-on-write (por defecto) cada escritura espera al fsync; las
+ * operaciones por lotes (saveAll, deleteInBatch...) y flush hacen un unico fsync.
+ *
+ * Los identificadores se aceptan como UUID o como String con formato UUID.
+ */
 @Repository
 @Transactional
 public class UserRepository implements IRepository, JpaRepository {
 
+    private final UserStore store = new UserStore();
+    private final UserOrderIndex orderIndex = new UserOrderIndex();
+    private final UserSearchIndex searchIndex = new UserSearchIndex();
+    private final UserLog userLog;
+    private final boolean syncOnWrite;
+
+    /**
+     * Repositorio solo en memoria
+     */
+    public UserRepository() {
+        this((UserLog) null, false);
+    }
+
     @Autowired
-    private UserResponseDto userResponseDto;
+    public UserRepository(ObjectProvider<UserLog> userLog,
+                          @Value("${user.persistence.sync-on-write:true}") boolean syncOnWrite) {
+        this(userLog.getIfAvailable(), syncOnWrite);
+    }
+
+    public UserRepository(UserLog userLog, boolean syncOnWrite) {
+        this.userLog = userLog;
+        this.syncOnWrite = syncOnWrite;
+        store.addListener(orderIndex);
+        store.addListener(searchIndex);
+        if (userLog != null) {
+            userLog.recover(store);
+            store.setWriteAheadLog(userLog);
+        }
+    }
 
+    /**
+     * @param uuid, identificador del usuario en formato UUID
+     * @return usuario con ese identificador, o null si no existe
+     * @throws IllegalArgumentException si el identificador no es un UUID valido
+     */
     public UserResponseDto getUser (String uuid){
-        userResponseDto.setName("Jonatan");
-        userResponseDto.setSurname("Vicente");
-        userResponseDto.setGender("Male");
-        return userResponseDto;
+        return store.get(toUuid(uuid));
+    }
+
+    /**
+     * @param uuid, identificador del usuario en formato UUID
+     * @return usuario con su version (hash del contenido) y fecha de modificacion, o null si no existe
+     * @throws IllegalArgumentException si el identificador no es un UUID valido
+     */
+    public VersionedUser getVersionedUser(String uuid){
+        return store.getVersioned(toUuid(uuid));
     }
 
 
     @Override
     public List<ResponseDto> findAll(){
-        return null;
+        return new ArrayList<>(store.values());
     }
 
+    /**
+     * @param sort, ordenacion por uuid, surname o dateOfBirth (sin ordenacion equivale a uuid)
+     * @return todos los usuarios, en el orden mantenido por el indice correspondiente
+     */
     @Override
     public List findAll(Sort sort) {
-        return null;
+        List<UserResponseDto> ret = new ArrayList<>();
+        Sort.Order order = toOrder(sort);
+        forEachOrdered(toOrdering(order), isDescending(order), ret::add);
+        return ret;
+    }
+
+    /**
+     * Pagina de usuarios a partir de un cursor (paginacion keyset): el coste no depende de
+     * la posicion de la pagina, solo de su tamaño
+     *
+     * @param ordering, ordenacion
+     * @param descending, true para orden descendente
+     * @param after, ultimo usuario de la pagina anterior (o un UserOrdering.probe), null para la primera
+     * @param limit, tamaño maximo de la pagina
+     * @return usuarios posteriores al cursor
+     */
+    public List<UserResponseDto> findPage(UserOrdering ordering, boolean descending, UserResponseDto after, int limit) {
+        List<UserResponseDto> ret = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<UserResponseDto> iterator = orderIndex.view(ordering, descending, after).iterator();
+        while (ret.size() < limit && iterator.hasNext()) {
+            ret.add(iterator.next());
+        }
+        return ret;
+    }
+
+    /**
+     * Recorre todos los usuarios en orden sin construir una lista
+     */
+    public void forEachOrdered(UserOrdering ordering, boolean descending, Consumer<UserResponseDto> action) {
+        orderIndex.view(ordering, descending, null).forEach(action);
     }
 
     @Override
     public List findAllById(Iterable iterable) {
-        return null;
+        List<UserResponseDto> ret = new ArrayList<>();
+        forEachById(iterable, ret::add, missing -> { });
+        return ret;
     }
 
+    /**
+     * Resuelve los identificadores en una sola pasada, entregando cada usuario a medida que
+     * se encuentra, sin acumular el resultado en memoria
+     *
+     * @param ids, identificadores (UUID o String)
+     * @param found, recibe cada usuario encontrado, en el orden de los identificadores
+     * @param missing, recibe cada identificador que no corresponde a ningun usuario
+     */
+    public void forEachById(Iterable<?> ids, Consumer<UserResponseDto> found, Consumer<UUID> missing) {
+        for (Object id : ids) {
+            UUID uuid = toUuid(id);
+            UserResponseDto user = store.get(uuid);
+            if (user != null) {
+                found.accept(user);
+            } else {
+                missing.accept(uuid);
+            }
+        }
+    }
+
+    /**
+     * Guarda todos los usuarios con un unico fsync al final
+     */
     @Override
     public List saveAll(Iterable entities) {
-        return null;
+        List<UserResponseDto> ret = new ArrayList<>();
+        for (Object entity : entities) {
+            ret.add(put(entity));
+        }
+        sync();
+        return ret;
     }
 
     @Override
     public void flush() {
-
+        sync();
     }
 
     @Override
     public Object saveAndFlush(Object entity) {
-        return null;
+        UserResponseDto user = put(entity);
+        sync();
+        return user;
     }
 
     @Override
     public void deleteInBatch(Iterable entities) {
-
+        for (Object entity : entities) {
+            remove(entity);
+        }
+        sync();
     }
 
     @Override
     public void deleteAllInBatch() {
-
+        store.clear();
+        sync();
     }
 
     @Override
     public Object getOne(Object o) {
-        return null;
+        return store.get(toUuid(o));
+    }
+
+    /**
+     * @param query, consulta por campos
+     * @param offset, usuarios coincidentes que se saltan
+     * @param limit, maximo de usuarios a devolver
+     * @return usuarios que cumplen la consulta, en el orden del indice mas selectivo
+     */
+    public List<UserResponseDto> search(UserQuery query, long offset, int limit) {
+        List<UserResponseDto> ret = new ArrayList<>(Math.min(limit, 1024));
+        searchIndex.search(query, offset, limit, ret::add);
+        return ret;
+    }
+
+    /**
+     * @return numero de usuarios que cumplen la consulta
+     */
+    public long count(UserQuery query) {
+        return searchIndex.count(query);
     }
 
     @Override
     public List findAll(Example example) {
-        return null;
+        return findByExample(example, 0, Integer.MAX_VALUE);
     }
 
     @Override
     public List findAll(Example example, Sort sort) {
-        return null;
+        List<UserResponseDto> ret = findByExample(example, 0, Integer.MAX_VALUE);
+        if (sort.isSorted()) {
+            Sort.Order order = toOrder(sort);
+            Comparator<UserResponseDto> comparator = toOrdering(order).comparator();
+            ret.sort(isDescending(order) ? comparator.reversed() : comparator);
+        }
+        return ret;
     }
 
+    /**
+     * Paginacion por offset, por compatibilidad con Spring Data; recorre el indice hasta el offset.
+     * Para recorrer paginas lejanas es preferible findPage con cursor
+     */
     @Override
     public Page findAll(Pageable pageable) {
-        return null;
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        Sort.Order order = toOrder(pageable.getSort());
+        Iterator<UserResponseDto> iterator = orderIndex.view(toOrdering(order), isDescending(order), null).iterator();
+        for (long skipped = 0; skipped < pageable.getOffset() && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        List<UserResponseDto> content = new ArrayList<>(pageable.getPageSize());
+        while (content.size() < pageable.getPageSize() && iterator.hasNext()) {
+            content.add(iterator.next());
+        }
+        return new PageImpl<>(content, pageable, store.size());
     }
 
+    /**
+     * Guarda el usuario, sustituyendo al que tuviera el mismo UUID.
+     * Si el usuario no tiene UUID se le asigna uno aleatorio
+     *
+     * @param entity, objeto de tipo UserResponseDto
+     * @return usuario guardado, con su UUID
+     */
     @Override
     public Object save(Object entity) {
-        return null;
+        UserResponseDto user = put(entity);
+        syncOnWrite();
+        return user;
     }
 
     @Override
     public Optional findById(Object o) {
-        return Optional.empty();
+        return Optional.ofNullable(store.get(toUuid(o)));
     }
 
     @Override
     public boolean existsById(Object o) {
-        return false;
+        return store.contains(toUuid(o));
     }
 
     @Override
     public long count() {
-        return 0;
+        return store.size();
     }
 
     @Override
     public void deleteById(Object o) {
-
+        store.remove(toUuid(o));
+        syncOnWrite();
     }
 
     @Override
     public void delete(Object entity) {
-
+        remove(entity);
+        syncOnWrite();
     }
 
     @Override
     public void deleteAll(Iterable entities) {
-
+        for (Object entity : entities) {
+            remove(entity);
+        }
+        syncOnWrite();
     }
 
     @Override
     public void deleteAll() {
-
+        store.clear();
+        syncOnWrite();
     }
 
+    /**
+     * @throws IncorrectResultSizeDataAccessException si hay mas de un usuario coincidente
+     */
     @Override
     public Optional findOne(Example example) {
-        return Optional.empty();
+        List<UserResponseDto> users = findByExample(example, 0, 2);
+        if (users.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, users.size());
+        }
+        return users.stream().findFirst();
     }
 
+    /**
+     * Sin ordenacion la pagina se obtiene directamente del indice (offset y limit); con ordenacion
+     * se ordenan todos los usuarios coincidentes
+     */
     @Override
     public Page findAll(Example example, Pageable pageable) {
-        return null;
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example, pageable.getSort()));
+        }
+        List<UserResponseDto> content;
+        if (pageable.getSort().isSorted()) {
+            List<UserResponseDto> all = findAll(example, pageable.getSort());
+            int from = (int) Math.min(pageable.getOffset(), all.size());
+            content = all.subList(from, Math.min(from + pageable.getPageSize(), all.size()));
+        } else {
+            content = findByExample(example, pageable.getOffset(), pageable.getPageSize());
+        }
+        return new PageImpl<>(content, pageable, count(example));
     }
 
     @Override
     public long count(Example example) {
-        return 0;
+        if (isUuidLookup(example)) {
+            return findByExample(example, 0, 1).size();
+        }
+        return searchIndex.count(toQuery(example));
     }
 
     @Override
     public boolean exists(Example example) {
-        return false;
+        return !findByExample(example, 0, 1).isEmpty();
+    }
+
+    private UserResponseDto put(Object entity) {
+        UserResponseDto user = toUser(entity);
+        if (user.getUuid() == null) {
+            user = user.withUuid(UUID.randomUUID());
+        }
+        store.put(user);
+        return user;
+    }
+
+    private void remove(Object entity) {
+        UserResponseDto user = toUser(entity);
+        if (user.getUuid() != null) {
+            store.remove(user.getUuid());
+        }
+    }
+
+    private void sync() {
+        if (userLog != null) {
+            userLog.sync();
+        }
+    }
+
+    private void syncOnWrite() {
+        if (syncOnWrite) {
+            sync();
+        }
+    }
+
+    static UUID toUuid(Object id) {
+        if (id instanceof UUID) {
+            return (UUID) id;
+        }
+        if (id instanceof String) {
+            return UUID.fromString((String) id);
+        }
+        throw new IllegalArgumentException("Identificador de usuario no valido: " + id);
+    }
+
+    private static Sort.Order toOrder(Sort sort) {
+        Sort.Order ret = null;
+        for (Sort.Order order : sort) {
+            if (ret == null) {
+                ret = order;
+            } else if (!UserOrdering.UUID_ORDER.getProperty().equals(order.getProperty())) {
+                throw new IllegalArgumentException("Solo se admite una propiedad de ordenacion: " + sort);
+            }
+        }
+        return ret;
+    }
+
+    private static UserOrdering toOrdering(Sort.Order order) {
+        return UserOrdering.fromProperty(order == null ? null : order.getProperty());
+    }
+
+    private static boolean isDescending(Sort.Order order) {
+        return order != null && order.isDescending();
+    }
+
+    /**
+     * Un UUID en la sonda se resuelve con una busqueda directa en el UserStore; el resto de
+     * campos, con los indices secundarios
+     */
+    private List<UserResponseDto> findByExample(Example<?> example, long offset, int limit) {
+        UserQuery query = toQuery(example);
+        if (isUuidLookup(example)) {
+            UserResponseDto user = store.get(toUser(example.getProbe()).getUuid());
+            List<UserResponseDto> ret = new ArrayList<>(1);
+            if (user != null && query.matches(user) && offset == 0 && limit > 0) {
+                ret.add(user);
+            }
+            return ret;
+        }
+        return search(query, offset, limit);
+    }
+
+    /**
+     * @return true si la sonda tiene UUID y el matcher no lo ignora
+     */
+    private static boolean isUuidLookup(Example<?> example) {
+        return toUser(example.getProbe()).getUuid() != null && !example.getMatcher().isIgnoredPath("uuid");
+    }
+
+    /**
+     * Convierte la sonda de un Example en una UserQuery: un criterio por cada campo no nulo y no
+     * ignorado, con el StringMatcher y la sensibilidad a mayusculas del campo (o los del matcher)
+     *
+     * @throws IllegalArgumentException si el matcher no es matchingAll o usa expresiones regulares
+     */
+    private static UserQuery toQuery(Example<?> example) {
+        UserResponseDto probe = toUser(example.getProbe());
+        ExampleMatcher matcher = example.getMatcher();
+        if (!matcher.isAllMatching()) {
+            throw new IllegalArgumentException("Solo se admiten consultas por ejemplo con matchingAll");
+        }
+        List<UserQuery.Criterion> criteria = new ArrayList<>();
+        for (UserQuery.Field field : UserQuery.Field.values()) {
+            String value = field.value(probe);
+            String property = field.getProperty();
+            if (value == null || matcher.isIgnoredPath(property)) {
+                continue;
+            }
+            ExampleMatcher.PropertySpecifier specifier = matcher.getPropertySpecifiers().getForPath(property);
+            ExampleMatcher.StringMatcher stringMatcher = specifier != null && specifier.getStringMatcher() != null
+                    ? specifier.getStringMatcher() : matcher.getDefaultStringMatcher();
+            boolean ignoreCase = specifier != null && specifier.getIgnoreCase() != null
+                    ? specifier.getIgnoreCase() : matcher.isIgnoreCaseEnabled();
+            criteria.add(new UserQuery.Criterion(field, value, toMatch(stringMatcher), ignoreCase));
+        }
+        return new UserQuery(criteria, null, null);
+    }
+
+    private static UserQuery.Match toMatch(ExampleMatcher.StringMatcher stringMatcher) {
+        switch (stringMatcher) {
+            case STARTING:
+                return UserQuery.Match.PREFIX;
+            case ENDING:
+                return UserQuery.Match.SUFFIX;
+            case CONTAINING:
+                return UserQuery.Match.CONTAINS;
+            case REGEX:
+                throw new IllegalArgumentException("No se admiten expresiones regulares en las consultas por ejemplo");
+            default:
+                return UserQuery.Match.EXACT;
+        }
+    }
+
+    private static UserResponseDto toUser(Object entity) {
+        if (!(entity instanceof UserResponseDto)) {
+            throw new IllegalArgumentException("Se esperaba un UserResponseDto: " + entity);
+        }
+        return (UserResponseDto) entity;
     }
 }
@@ -0,0 +1,57 @@
+package springBootInitialDemo.repository.store;
+
+import java.util.Arrays;
+
+/**
+ * Lista de documentos (ids densos de usuario) de una clave de UserSearchIndex. No esta ordenada:
+ * se añade al final y se borra moviendo el ultimo elemento al hueco, asi que ambas operaciones son
+ * O(1) si el llamante guarda la posicion de cada documento (ver UserSearchIndex).
+ *
+ * No es thread-safe: el acceso lo coordina UserSearchIndex
+ *
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[2];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return posicion del documento en la lista
+     */
+    int add(int doc) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        docs[size] = doc;
+        return size++;
+    }
+
+    /**
+     * Borra el documento de la posicion indicada, moviendo a ella el ultimo
+     *
+     * @return documento movido a la posicion, o -1 si era el ultimo
+     */
+    int removeAt(int position) {
+        int last = --size;
+        if (position == last) {
+            return -1;
+        }
+        docs[position] = docs[last];
+        return docs[position];
+    }
+
+    /**
+     * Copia los documentos al principio de buffer, o de un array nuevo si no caben
+     *
+     * @return array con los size() documentos al principio
+     */
+    int[] copyTo(int[] buffer) {
+        int[] ret = buffer.length >= size ? buffer : new int[size];
+        System.arraycopy(docs, 0, ret, 0, size);
+        return ret;
+    }
+}
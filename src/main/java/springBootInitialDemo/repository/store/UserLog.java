@@ -0,0 +1,642 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistencia de usuarios en un log de solo escritura al final (append-only).
+ *
+ * Fichero users.log: cabecera [magic][generacion] seguida de registros
+ *
+ *   [int longitud payload][int crc32][byte tipo][long msb][long lsb][payload]
+ *
+ * donde el crc cubre desde el tipo hasta el final del payload. Un registro PUT contiene el
+ * usuario completo; un registro DELETE solo el UUID.
+ *
+ * Como log de escritura previa del UserStore (setWriteAheadLog), cada cambio se añade al log
+ * dentro del write lock del shard y antes de aplicarlo en memoria, de modo que el orden del log
+ * coincide con el de la memoria para cada UUID y un cambio que no se ha podido escribir no llega a
+ * verse. Los campos se codifican con DataOutput.writeUTF: un campo de mas de MAX_FIELD_BYTES bytes
+ * se rechaza con IllegalArgumentException antes de escribir nada. El fsync es independiente
+ * (sync()) y se comparte entre los hilos que lo piden a la vez (group commit): un saveAll o un
+ * flush cuestan un unico fsync, y varios save concurrentes tambien.
+ *
+ * Fichero users.idx: indice UUID -> posicion en el log, escrito periodicamente (checkpoint) y
+ * leido con un mapeo en memoria. Al arrancar solo se leen los registros vivos del indice y la
+ * cola del log posterior al checkpoint, en lugar de reproducir el log completo. La cabecera del
+ * indice guarda tambien el numero total de registros del log hasta el checkpoint, para que las
+ * versiones antiguas anteriores a un reinicio sigan contando al decidir la compactacion. Un registro
+ * incompleto o con crc incorrecto al final del log (escritura interrumpida) se descarta y el log
+ * se trunca en ese punto. Si detras del registro incorrecto quedan registros validos, no es una
+ * escritura interrumpida sino corrupcion: la recuperacion falla sin modificar el fichero, en lugar
+ * de descartar esos registros.
+ *
+ * compactIfNeeded() reescribe el log solo con los registros vivos cuando mas de la mitad son
+ * versiones antiguas o borrados; las escrituras solo se bloquean durante la copia de la cola
+ * final y el cambio de fichero. Tras renombrar el log o el indice se fuerza a disco el directorio,
+ * para que el cambio de nombre sobreviva a un corte de luz.
+ *
+ * Orden de los locks: compactionLock -> appendLock -> syncLock. sync() lee el canal y la posicion
+ * con appendLock y lo libera antes de tomar syncLock.
+ *
+ */
+public class UserLog implements UserStoreListener, Closeable {
+
+    private static final long LOG_MAGIC = 0x555345524c4f4731L;
+    private static final long INDEX_MAGIC = 0x5553455249445832L;
+    private static final int LOG_HEADER = Long.BYTES * 2;
+    private static final int INDEX_HEADER = Long.BYTES * 5;
+    private static final int INDEX_ENTRY = Long.BYTES * 3;
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+    private static final int RECORD_KEY = 1 + Long.BYTES * 2;
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    /**
+     * Longitud maxima de un campo en UTF-8 modificado (limite de DataOutput.writeUTF)
+     */
+    public static final int MAX_FIELD_BYTES = 65535;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private static final long MIN_COMPACTION_RECORDS = 1000;
+
+    private final Path directory;
+    private final Path logFile;
+    private final Path indexFile;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object syncLock = new Object();
+    private final Object compactionLock = new Object();
+
+    private FileChannel channel;
+    private long generation;
+    private long position;
+    private volatile long durablePosition;
+    private UuidOpenHashMap<Long> offsets = new UuidOpenHashMap<>();
+    private long records;
+
+    public UserLog(Path directory) {
+        this.directory = directory;
+        this.logFile = directory.resolve("users.log");
+        this.indexFile = directory.resolve("users.idx");
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < LOG_HEADER) {
+                generation = 1;
+                writeLogHeader(channel, generation);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+                readFully(channel, header, 0);
+                if (header.getLong(0) != LOG_MAGIC) {
+                    throw new IOException("El fichero no es un log de usuarios: " + logFile);
+                }
+                generation = header.getLong(Long.BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Carga en el almacen los usuarios persistidos. Debe llamarse antes de registrar el log
+     * en el almacen (setWriteAheadLog)
+     *
+     * @throws UncheckedIOException si el log tiene un registro corrupto seguido de registros validos
+     */
+    public void recover(UserStore store) {
+        appendLock.lock();
+        try {
+            long checkpoint = loadIndex(store);
+            position = replay(store, checkpoint);
+            durablePosition = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPut(UserResponseDto previous, UserResponseDto current) {
+        UUID uuid = current.getUuid();
+        append(PUT, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), encode(current));
+    }
+
+    @Override
+    public void onRemove(UserResponseDto previous) {
+        UUID uuid = previous.getUuid();
+        append(DELETE, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), new byte[0]);
+    }
+
+    /**
+     * Fuerza a disco todo lo escrito hasta ahora. Los hilos que llaman a la vez comparten el mismo fsync
+     */
+    public void sync() {
+        FileChannel target;
+        long end;
+        long syncGeneration;
+        appendLock.lock();
+        try {
+            target = channel;
+            end = position;
+            syncGeneration = generation;
+        } finally {
+            appendLock.unlock();
+        }
+        if (durablePosition >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            // una compactacion posterior ya ha forzado a disco el log nuevo, con todo lo escrito hasta end
+            if (generation != syncGeneration || durablePosition >= end) {
+                return;
+            }
+            try {
+                target.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            durablePosition = end;
+        }
+    }
+
+    /**
+     * Escribe el indice UUID -> posicion del estado actual (checkpoint)
+     */
+    public void checkpoint() {
+        synchronized (compactionLock) {
+            doCheckpoint();
+        }
+    }
+
+    private void doCheckpoint() {
+        long[] snapshot;
+        long checkpointPosition;
+        long checkpointGeneration;
+        long checkpointRecords;
+        appendLock.lock();
+        try {
+            snapshot = snapshotOffsets(offsets);
+            checkpointPosition = position;
+            checkpointGeneration = generation;
+            checkpointRecords = records;
+        } finally {
+            appendLock.unlock();
+        }
+        sync();
+        try {
+            writeIndex(snapshot, checkpointGeneration, checkpointPosition, checkpointRecords);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compacta el log si mas de la mitad de sus registros son versiones antiguas o borrados;
+     * en otro caso solo escribe un checkpoint del indice
+     */
+    public void compactIfNeeded() {
+        long live;
+        long total;
+        appendLock.lock();
+        try {
+            live = offsets.size();
+            total = records;
+        } finally {
+            appendLock.unlock();
+        }
+        if (total - live > Math.max(live, MIN_COMPACTION_RECORDS)) {
+            compact();
+        } else {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Reescribe el log con los registros vivos
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            try {
+                doCompact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpoint();
+        appendLock.lock();
+        try {
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void append(byte type, long msb, long lsb, byte[] payload) {
+        ByteBuffer record = record(type, msb, lsb, payload);
+        appendLock.lock();
+        try {
+            long offset = position;
+            int length = record.remaining();
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record, position + (length - record.remaining()));
+                }
+            } catch (IOException e) {
+                discardPartialWrite(e);
+                throw new UncheckedIOException(e);
+            }
+            position += length;
+            records++;
+            apply(offsets, type, msb, lsb, offset);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Elimina lo que se haya llegado a escribir de un registro fallido, para que no quede tras
+     * la posicion actual
+     */
+    private void discardPartialWrite(IOException cause) {
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void apply(UuidOpenHashMap<Long> offsets, byte type, long msb, long lsb, long offset) {
+        if (type == PUT) {
+            offsets.put(msb, lsb, offset);
+        } else {
+            offsets.remove(msb, lsb);
+        }
+    }
+
+    private long loadIndex(UserStore store) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return LOG_HEADER;
+        }
+        long logSize = channel.size();
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (indexChannel.size() < INDEX_HEADER) {
+                return LOG_HEADER;
+            }
+            MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+            long checkpoint = index.getLong(Long.BYTES * 2);
+            long count = index.getLong(Long.BYTES * 3);
+            long checkpointRecords = index.getLong(Long.BYTES * 4);
+            if (index.getLong(0) != INDEX_MAGIC || index.getLong(Long.BYTES) != generation
+                    || checkpoint > logSize || checkpointRecords < count
+                    || INDEX_HEADER + count * INDEX_ENTRY != indexChannel.size()) {
+                return LOG_HEADER;
+            }
+            for (long i = 0; i < count; i++) {
+                int at = (int) (INDEX_HEADER + i * INDEX_ENTRY);
+                long offset = index.getLong(at + Long.BYTES * 2);
+                Record record = readRecord(channel, offset, checkpoint);
+                if (record == null || record.type != PUT) {
+                    // indice inconsistente con el log: se descarta y se reproduce el log completo
+                    store.clear();
+                    offsets = new UuidOpenHashMap<>();
+                    records = 0;
+                    return LOG_HEADER;
+                }
+                store.put(record.user);
+                offsets.put(record.msb, record.lsb, offset);
+            }
+            records = checkpointRecords;
+            return checkpoint;
+        }
+    }
+
+    private long replay(UserStore store, long from) throws IOException {
+        long size = channel.size();
+        long offset = from;
+        while (offset < size) {
+            Record record = readRecord(channel, offset, size);
+            if (record == null) {
+                long next = nextValidRecord(channel, offset + 1, size);
+                if (next >= 0) {
+                    throw new IOException("Registro corrupto en la posicion " + offset + " de " + logFile
+                            + ", seguido de registros validos desde la posicion " + next
+                            + "; el log no se modifica y debe revisarse antes de arrancar");
+                }
+                // registro incompleto o corrupto al final del log: escritura interrumpida
+                channel.truncate(offset);
+                channel.force(true);
+                break;
+            }
+            if (record.type == PUT) {
+                store.put(record.user);
+            } else {
+                store.remove(new UUID(record.msb, record.lsb));
+            }
+            apply(offsets, record.type, record.msb, record.lsb, offset);
+            records++;
+            offset += record.size;
+        }
+        return offset;
+    }
+
+    /**
+     * @return posicion del primer registro valido a partir de from, o -1 si no hay ninguno. Solo se
+     * usa tras un registro incorrecto, normalmente con unos pocos bytes por delante
+     */
+    private static long nextValidRecord(FileChannel source, long from, long limit) throws IOException {
+        for (long offset = from; offset + RECORD_HEADER + RECORD_KEY <= limit; offset++) {
+            if (readRecord(source, offset, limit) != null) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private void doCompact() throws IOException {
+        long[] snapshot;
+        long snapshotEnd;
+        FileChannel source;
+        appendLock.lock();
+        try {
+            snapshot = snapshotOffsets(offsets);
+            snapshotEnd = position;
+            source = channel;
+        } finally {
+            appendLock.unlock();
+        }
+
+        long newGeneration = generation + 1;
+        Path tmpLog = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        FileChannel target = FileChannel.open(tmpLog, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            writeLogHeader(target, newGeneration);
+            long targetPosition = LOG_HEADER;
+            UuidOpenHashMap<Long> newOffsets = new UuidOpenHashMap<>();
+            for (int i = 0; i < snapshot.length; i += 3) {
+                targetPosition = copyRecord(source, snapshot[i + 2], snapshotEnd, target, targetPosition, newOffsets);
+            }
+            long newRecords = snapshot.length / 3;
+
+            appendLock.lock();
+            try {
+                long offset = snapshotEnd;
+                while (offset < position) {
+                    long next = offset + recordSize(source, offset);
+                    targetPosition = copyRecord(source, offset, position, target, targetPosition, newOffsets);
+                    newRecords++;
+                    offset = next;
+                }
+                target.force(true);
+                writeIndex(snapshotOffsets(newOffsets), newGeneration, targetPosition, newRecords);
+                Files.move(tmpLog, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory();
+                synchronized (syncLock) {
+                    channel = target;
+                    generation = newGeneration;
+                    position = targetPosition;
+                    durablePosition = targetPosition;
+                }
+                offsets = newOffsets;
+                records = newRecords;
+                target = null;
+            } finally {
+                appendLock.unlock();
+            }
+            source.close();
+        } finally {
+            if (target != null) {
+                target.close();
+                Files.deleteIfExists(tmpLog);
+            }
+        }
+    }
+
+    private static long copyRecord(FileChannel source, long offset, long limit, FileChannel target,
+                                   long targetPosition, UuidOpenHashMap<Long> newOffsets) throws IOException {
+        Record record = readRecord(source, offset, limit);
+        if (record == null) {
+            throw new IOException("Registro corrupto en la posicion " + offset);
+        }
+        ByteBuffer raw = ByteBuffer.allocate(record.size);
+        readFully(source, raw, offset);
+        raw.flip();
+        while (raw.hasRemaining()) {
+            target.write(raw, targetPosition + (record.size - raw.remaining()));
+        }
+        apply(newOffsets, record.type, record.msb, record.lsb, targetPosition);
+        return targetPosition + record.size;
+    }
+
+    private static int recordSize(FileChannel source, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(source, header, offset);
+        return RECORD_HEADER + RECORD_KEY + header.getInt(0);
+    }
+
+    private void writeIndex(long[] snapshot, long indexGeneration, long checkpointPosition,
+                            long checkpointRecords) throws IOException {
+        long count = snapshot.length / 3;
+        Path tmpIndex = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel indexChannel = FileChannel.open(tmpIndex, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + count * INDEX_ENTRY);
+            index.putLong(INDEX_MAGIC).putLong(indexGeneration).putLong(checkpointPosition).putLong(count)
+                    .putLong(checkpointRecords);
+            for (long value : snapshot) {
+                index.putLong(value);
+            }
+            index.force();
+        }
+        Files.move(tmpIndex, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Fuerza a disco la entrada de directorio tras un cambio de nombre. En las plataformas que no
+     * permiten abrir un directorio como canal (Windows) el error se ignora
+     */
+    private void syncDirectory() {
+        try (FileChannel dirChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dirChannel.force(true);
+        } catch (IOException e) {
+            // el sistema de ficheros no admite fsync de directorios
+        }
+    }
+
+    /**
+     * @return array plano [msb, lsb, offset, msb, lsb, offset, ...]
+     */
+    private static long[] snapshotOffsets(UuidOpenHashMap<Long> offsets) {
+        long[] ret = new long[offsets.size() * 3];
+        int[] i = {0};
+        offsets.forEachEntry((msb, lsb, offset) -> {
+            ret[i[0]++] = msb;
+            ret[i[0]++] = lsb;
+            ret[i[0]++] = offset;
+        });
+        return ret;
+    }
+
+    private static void writeLogHeader(FileChannel target, long logGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putLong(LOG_MAGIC).putLong(logGeneration).flip();
+        while (header.hasRemaining()) {
+            target.write(header, header.position());
+        }
+    }
+
+    private static ByteBuffer record(byte type, long msb, long lsb, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + RECORD_KEY + payload.length);
+        record.putInt(payload.length).putInt(0).put(type).putLong(msb).putLong(lsb).put(payload);
+        record.putInt(Integer.BYTES, crc(record.array(), RECORD_HEADER, RECORD_KEY + payload.length));
+        record.flip();
+        return record;
+    }
+
+    /**
+     * @return registro leido en offset, o null si esta incompleto (supera limit) o su crc no coincide
+     */
+    private static Record readRecord(FileChannel source, long offset, long limit) throws IOException {
+        if (offset + RECORD_HEADER + RECORD_KEY > limit) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        readFully(source, header, offset);
+        int payloadLength = header.getInt(0);
+        int size = RECORD_HEADER + RECORD_KEY + payloadLength;
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD || offset + size > limit) {
+            return null;
+        }
+        ByteBuffer body = ByteBuffer.allocate(RECORD_KEY + payloadLength);
+        readFully(source, body, offset + RECORD_HEADER);
+        if (crc(body.array(), 0, body.capacity()) != header.getInt(Integer.BYTES)) {
+            return null;
+        }
+        byte type = body.get(0);
+        long msb = body.getLong(1);
+        long lsb = body.getLong(1 + Long.BYTES);
+        UserResponseDto user = null;
+        if (type == PUT) {
+            user = decode(new UUID(msb, lsb), body.array(), RECORD_KEY, payloadLength);
+        } else if (type != DELETE) {
+            return null;
+        }
+        return new Record(type, msb, lsb, user, size);
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Fin de fichero inesperado en la posicion " + offset);
+            }
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(UserResponseDto user) {
+        checkFieldLength("name", user.getName());
+        checkFieldLength("surname", user.getSurname());
+        checkFieldLength("dateOfBirth", user.getDateOfBirth());
+        checkFieldLength("gender", user.getGender());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeNullable(out, user.getName());
+            writeNullable(out, user.getSurname());
+            writeNullable(out, user.getDateOfBirth());
+            writeNullable(out, user.getGender());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static UserResponseDto decode(UUID uuid, byte[] bytes, int offset, int length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return new UserResponseDto(uuid, readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si el campo no cabe en DataOutput.writeUTF
+     */
+    private static void checkFieldLength(String field, String value) {
+        if (!isEncodable(value)) {
+            throw new IllegalArgumentException("El campo " + field + " ocupa mas de " + MAX_FIELD_BYTES + " bytes");
+        }
+    }
+
+    /**
+     * @return true si el valor (o null) cabe en un campo del log: como mucho MAX_FIELD_BYTES bytes
+     * en UTF-8 modificado
+     */
+    public static boolean isEncodable(String value) {
+        if (value == null || value.length() * 3L <= MAX_FIELD_BYTES) {
+            return true;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            bytes += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return bytes <= MAX_FIELD_BYTES;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Record {
+
+        private final byte type;
+        private final long msb;
+        private final long lsb;
+        private final UserResponseDto user;
+        private final int size;
+
+        private Record(byte type, long msb, long lsb, UserResponseDto user, int size) {
+            this.type = type;
+            this.msb = msb;
+            this.lsb = lsb;
+            this.user = user;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Indices ordenados de usuarios, uno por cada UserOrdering, mantenidos de forma incremental
+ * en cada escritura del UserStore. Permiten recorrer los usuarios en orden, o continuar
+ * desde un cursor, sin ordenar el conjunto completo en cada peticion.
+ *
+ * Los recorridos son debilmente consistentes: reflejan las escrituras concurrentes
+ * que se produzcan durante el recorrido, o no, pero nunca fallan
+ *
+ */
+public class UserOrderIndex implements UserStoreListener {
+
+    private final Map<UserOrdering, NavigableSet<UserResponseDto>> indexes = new EnumMap<>(UserOrdering.class);
+
+    public UserOrderIndex() {
+        for (UserOrdering ordering : UserOrdering.values()) {
+            indexes.put(ordering, new ConcurrentSkipListSet<>(ordering.comparator()));
+        }
+    }
+
+    @Override
+    public void onPut(UserResponseDto previous, UserResponseDto current) {
+        for (NavigableSet<UserResponseDto> index : indexes.values()) {
+            if (previous != null) {
+                index.remove(previous);
+            }
+            index.add(current);
+        }
+    }
+
+    @Override
+    public void onRemove(UserResponseDto previous) {
+        for (NavigableSet<UserResponseDto> index : indexes.values()) {
+            index.remove(previous);
+        }
+    }
+
+    /**
+     * @param ordering, ordenacion
+     * @param descending, true para orden descendente
+     * @param after, posicion del cursor (excluida), o null para empezar desde el principio
+     * @return vista ordenada de los usuarios posteriores al cursor
+     */
+    public NavigableSet<UserResponseDto> view(UserOrdering ordering, boolean descending, UserResponseDto after) {
+        NavigableSet<UserResponseDto> index = indexes.get(ordering);
+        if (descending) {
+            index = index.descendingSet();
+        }
+        return after == null ? index : index.tailSet(after, false);
+    }
+}
@@ -0,0 +1,72 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Ordenaciones de usuarios mantenidas por UserOrderIndex. Todas desempatan por UUID,
+ * de modo que el orden es total y sirve como clave de paginacion por cursor
+ *
+ */
+public enum UserOrdering {
+
+    UUID_ORDER("uuid", user -> null),
+    SURNAME("surname", UserResponseDto::getSurname),
+    DATE_OF_BIRTH("dateOfBirth", UserResponseDto::getDateOfBirth);
+
+    private final String property;
+    private final Function<UserResponseDto, String> key;
+    private final Comparator<UserResponseDto> comparator;
+
+    UserOrdering(String property, Function<UserResponseDto, String> key) {
+        this.property = property;
+        this.key = key;
+        this.comparator = Comparator.comparing(key, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(UserResponseDto::getUuid);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Comparator<UserResponseDto> comparator() {
+        return comparator;
+    }
+
+    public String key(UserResponseDto user) {
+        return key.apply(user);
+    }
+
+    /**
+     * @return usuario ficticio con el valor de ordenacion y el UUID indicados, para posicionarse en el indice
+     */
+    public UserResponseDto probe(String value, UUID uuid) {
+        switch (this) {
+            case SURNAME:
+                return new UserResponseDto(uuid, null, value, null, null);
+            case DATE_OF_BIRTH:
+                return new UserResponseDto(uuid, null, null, value, null);
+            default:
+                return new UserResponseDto(uuid, null, null, null, null);
+        }
+    }
+
+    /**
+     * @param property, nombre de la propiedad (uuid, surname, dateOfBirth); null equivale a uuid
+     * @throws IllegalArgumentException si la propiedad no tiene una ordenacion mantenida
+     */
+    public static UserOrdering fromProperty(String property) {
+        if (property == null) {
+            return UUID_ORDER;
+        }
+        for (UserOrdering ordering : values()) {
+            if (ordering.property.equals(property)) {
+                return ordering;
+            }
+        }
+        throw new IllegalArgumentException("No se puede ordenar por la propiedad: " + property);
+    }
+}
@@ -0,0 +1,152 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Consulta de usuarios por sus campos, resuelta por UserSearchIndex: una conjuncion de criterios
+ * sobre name, surname, dateOfBirth y gender, mas un rango opcional de fechas de nacimiento
+ * (dateOfBirth en formato ISO yyyy-MM-dd, que se compara como texto).
+ *
+ * Los criterios EXACT y PREFIX se pueden resolver con los indices; SUFFIX y CONTAINS solo se
+ * comprueban sobre los usuarios candidatos que devuelven los demas criterios
+ *
+ */
+public final class UserQuery {
+
+    public enum Field {
+        NAME("name", UserResponseDto::getName),
+        SURNAME("surname", UserResponseDto::getSurname),
+        DATE_OF_BIRTH("dateOfBirth", UserResponseDto::getDateOfBirth),
+        GENDER("gender", UserResponseDto::getGender);
+
+        private final String property;
+        private final Function<UserResponseDto, String> getter;
+
+        Field(String property, Function<UserResponseDto, String> getter) {
+            this.property = property;
+            this.getter = getter;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public String value(UserResponseDto user) {
+            return getter.apply(user);
+        }
+    }
+
+    public enum Match {
+        EXACT, PREFIX, SUFFIX, CONTAINS
+    }
+
+    public static final class Criterion {
+
+        private final Field field;
+        private final String value;
+        private final Match match;
+        private final boolean ignoreCase;
+        private final String comparable;
+
+        public Criterion(Field field, String value, Match match, boolean ignoreCase) {
+            this.field = field;
+            this.value = value;
+            this.match = match;
+            this.ignoreCase = ignoreCase;
+            this.comparable = ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public Match getMatch() {
+            return match;
+        }
+
+        public boolean isIgnoreCase() {
+            return ignoreCase;
+        }
+
+        boolean matches(UserResponseDto user) {
+            String actual = field.value(user);
+            if (actual == null) {
+                return false;
+            }
+            if (ignoreCase) {
+                actual = actual.toLowerCase(Locale.ROOT);
+            }
+            switch (match) {
+                case PREFIX:
+                    return actual.startsWith(comparable);
+                case SUFFIX:
+                    return actual.endsWith(comparable);
+                case CONTAINS:
+                    return actual.contains(comparable);
+                default:
+                    return actual.equals(comparable);
+            }
+        }
+    }
+
+    private final List<Criterion> criteria;
+    private final String dateOfBirthFrom;
+    private final String dateOfBirthTo;
+
+    /**
+     * @param criteria, criterios que deben cumplirse todos
+     * @param dateOfBirthFrom, fecha de nacimiento minima (incluida), o null
+     * @param dateOfBirthTo, fecha de nacimiento maxima (incluida), o null
+     */
+    public UserQuery(List<Criterion> criteria, String dateOfBirthFrom, String dateOfBirthTo) {
+        this.criteria = Collections.unmodifiableList(new ArrayList<>(criteria));
+        this.dateOfBirthFrom = dateOfBirthFrom;
+        this.dateOfBirthTo = dateOfBirthTo;
+    }
+
+    public List<Criterion> getCriteria() {
+        return criteria;
+    }
+
+    public String getDateOfBirthFrom() {
+        return dateOfBirthFrom;
+    }
+
+    public String getDateOfBirthTo() {
+        return dateOfBirthTo;
+    }
+
+    public boolean hasDateOfBirthRange() {
+        return dateOfBirthFrom != null || dateOfBirthTo != null;
+    }
+
+    /**
+     * @return true si el usuario cumple todos los criterios y el rango de fechas
+     */
+    public boolean matches(UserResponseDto user) {
+        for (Criterion criterion : criteria) {
+            if (!criterion.matches(user)) {
+                return false;
+            }
+        }
+        if (hasDateOfBirthRange()) {
+            String dateOfBirth = user.getDateOfBirth();
+            if (dateOfBirth == null
+                    || (dateOfBirthFrom != null && dateOfBirth.compareTo(dateOfBirthFrom) < 0)
+                    || (dateOfBirthTo != null && dateOfBirth.compareTo(dateOfBirthTo) > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
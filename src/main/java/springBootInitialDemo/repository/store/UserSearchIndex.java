@@ -0,0 +1,557 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Indices secundarios de usuarios para las consultas por campos (UserQuery, findAll(Example)),
+ * mantenidos de forma incremental en cada escritura del UserStore.
+ *
+ * Cada usuario recibe un id denso (documento), que se reutiliza al borrarlo, y los indices
+ * guardan documentos en lugar de referencias:
+ *  - name y surname: indice de prefijos, un TreeMap de la clave en minusculas a su lista de
+ *    documentos; un prefijo es el rango [prefijo, prefijo + Character.MAX_VALUE) del mapa
+ *  - dateOfBirth: indice de rangos con la misma estructura (las fechas ISO se ordenan como texto)
+ *  - gender: un bitmap (BitSet sobre los documentos) por valor
+ * Las listas de documentos no estan ordenadas; cada indice guarda la posicion de cada documento
+ * en su lista, de modo que añadir y borrar son O(1) mas la busqueda de la clave en el TreeMap.
+ *
+ * Planificacion: cada criterio indexable (EXACT o PREFIX, y el rango de fechas) estima cuantos
+ * documentos devolveria, sumando los tamaños de las listas de su rango y parando en cuanto supera
+ * la mejor estimacion hasta el momento. Se recorre solo el mas selectivo; el bitmap de gender
+ * descarta candidatos sin tocar el usuario y el resto de criterios se comprueban sobre el usuario.
+ * Sin criterios indexables se recorren todos los documentos.
+ *
+ * Las escrituras (con el write lock del shard del UserStore) se serializan con el write lock de
+ * este indice. Las consultas recorren los candidatos por tramos de SCAN_CHUNK documentos, cada uno
+ * con el read lock, y entregan los usuarios de cada tramo ya sin el lock, de modo que una consulta
+ * larga (sin criterios indexables, o un count) no retiene las escrituras mas que un tramo. Entre
+ * tramos el indice puede cambiar: la consulta es debilmente consistente, como los iteradores de
+ * ConcurrentHashMap. Un usuario presente durante toda la consulta se entrega como mucho una vez, y
+ * siempre si su valor no cambia; uno añadido, borrado o modificado mientras tanto puede aparecer o no
+ *
+ */
+public class UserSearchIndex implements UserStoreListener {
+
+    private static final int INITIAL_CAPACITY = 16;
+    static final int SCAN_CHUNK = 4096;
+
+    private final StampedLock lock = new StampedLock();
+    private final UuidOpenHashMap<Integer> docIds = new UuidOpenHashMap<>();
+    private final KeyIndex names = new KeyIndex(UserQuery.Field.NAME);
+    private final KeyIndex surnames = new KeyIndex(UserQuery.Field.SURNAME);
+    private final KeyIndex datesOfBirth = new KeyIndex(UserQuery.Field.DATE_OF_BIRTH);
+    private final Map<String, Bitmap> genders = new HashMap<>();
+
+    private UserResponseDto[] rows = new UserResponseDto[INITIAL_CAPACITY];
+    /** version del indice en la que se indexo por ultima vez cada documento */
+    private long[] docVersions = new long[INITIAL_CAPACITY];
+    private long version;
+    private int[] freeDocs = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int docCount;
+
+    @Override
+    public void onPut(UserResponseDto previous, UserResponseDto current) {
+        long msb = current.getUuid().getMostSignificantBits();
+        long lsb = current.getUuid().getLeastSignificantBits();
+        long stamp = lock.writeLock();
+        try {
+            Integer doc = docIds.get(msb, lsb);
+            if (doc != null) {
+                unindex(doc, rows[doc]);
+            } else {
+                doc = allocate();
+                docIds.put(msb, lsb, doc);
+            }
+            index(doc, current);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void onRemove(UserResponseDto previous) {
+        long stamp = lock.writeLock();
+        try {
+            Integer doc = docIds.remove(previous.getUuid().getMostSignificantBits(),
+                    previous.getUuid().getLeastSignificantBits());
+            if (doc != null) {
+                unindex(doc, rows[doc]);
+                rows[doc] = null;
+                freeDocs[freeCount++] = doc;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param query, consulta
+     * @param offset, usuarios coincidentes que se saltan
+     * @param limit, maximo de usuarios a entregar
+     * @param action, recibe los usuarios coincidentes, tramo a tramo y sin el lock del indice
+     */
+    public void search(UserQuery query, long offset, long limit, Consumer<UserResponseDto> action) {
+        if (limit <= 0) {
+            return;
+        }
+        List<UserResponseDto> found = new ArrayList<>();
+        Matcher matcher;
+        Cursor cursor;
+        boolean more;
+        long stamp = lock.readLock();
+        try {
+            matcher = new Matcher(query, offset, limit, found::add);
+            if (matcher.empty) {
+                return;
+            }
+            cursor = plan(query).cursor();
+            more = cursor.next(matcher, SCAN_CHUNK);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        deliver(found, action);
+        while (more) {
+            stamp = lock.readLock();
+            try {
+                more = cursor.next(matcher, SCAN_CHUNK);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            deliver(found, action);
+        }
+    }
+
+    /**
+     * @return usuarios que cumplen la consulta
+     */
+    public long count(UserQuery query) {
+        long[] ret = new long[1];
+        search(query, 0, Long.MAX_VALUE, user -> ret[0]++);
+        return ret[0];
+    }
+
+    private static void deliver(List<UserResponseDto> found, Consumer<UserResponseDto> action) {
+        for (UserResponseDto user : found) {
+            action.accept(user);
+        }
+        found.clear();
+    }
+
+    public long size() {
+        long stamp = lock.readLock();
+        try {
+            return docCount - freeCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Candidates plan(UserQuery query) {
+        Candidates best = null;
+        long bestEstimate = Long.MAX_VALUE;
+        for (UserQuery.Criterion criterion : query.getCriteria()) {
+            Candidates candidates = candidates(criterion);
+            if (candidates != null) {
+                long estimate = candidates.estimate(bestEstimate);
+                if (estimate < bestEstimate) {
+                    best = candidates;
+                    bestEstimate = estimate;
+                }
+            }
+        }
+        if (query.hasDateOfBirthRange()) {
+            Candidates candidates = new PostingCandidates(
+                    datesOfBirth.range(query.getDateOfBirthFrom(), query.getDateOfBirthTo()));
+            if (candidates.estimate(bestEstimate) < bestEstimate) {
+                best = candidates;
+            }
+        }
+        return best != null ? best : new AllCandidates();
+    }
+
+    private Candidates candidates(UserQuery.Criterion criterion) {
+        UserQuery.Match match = criterion.getMatch();
+        switch (criterion.getField()) {
+            case GENDER:
+                if (match != UserQuery.Match.EXACT) {
+                    return null;
+                }
+                Bitmap bitmap = genders.get(key(criterion.getValue()));
+                return bitmap != null ? bitmap : new PostingCandidates(Collections.emptyNavigableMap());
+            case NAME:
+                return keyCandidates(names, criterion);
+            case SURNAME:
+                return keyCandidates(surnames, criterion);
+            default:
+                return keyCandidates(datesOfBirth, criterion);
+        }
+    }
+
+    private Candidates keyCandidates(KeyIndex index, UserQuery.Criterion criterion) {
+        String key = key(criterion.getValue());
+        switch (criterion.getMatch()) {
+            case EXACT:
+                return new PostingCandidates(index.exact(key));
+            case PREFIX:
+                return new PostingCandidates(index.prefix(key));
+            default:
+                return null;
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeDocs[--freeCount];
+        }
+        if (docCount == rows.length) {
+            int capacity = rows.length * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            docVersions = Arrays.copyOf(docVersions, capacity);
+            freeDocs = Arrays.copyOf(freeDocs, capacity);
+            names.grow(capacity);
+            surnames.grow(capacity);
+            datesOfBirth.grow(capacity);
+        }
+        return docCount++;
+    }
+
+    private void index(int doc, UserResponseDto user) {
+        rows[doc] = user;
+        docVersions[doc] = ++version;
+        names.add(doc, user);
+        surnames.add(doc, user);
+        datesOfBirth.add(doc, user);
+        String gender = key(user.getGender());
+        if (gender != null) {
+            genders.computeIfAbsent(gender, key -> new Bitmap()).add(doc);
+        }
+    }
+
+    private void unindex(int doc, UserResponseDto user) {
+        names.remove(doc, user);
+        surnames.remove(doc, user);
+        datesOfBirth.remove(doc, user);
+        String gender = key(user.getGender());
+        if (gender != null) {
+            Bitmap bitmap = genders.get(gender);
+            if (bitmap != null && bitmap.remove(doc)) {
+                genders.remove(gender);
+            }
+        }
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Documentos candidatos de una consulta
+     */
+    private interface Candidates {
+
+        /**
+         * @param cap, estimacion a batir; se puede dejar de contar al superarla
+         */
+        long estimate(long cap);
+
+        Cursor cursor();
+    }
+
+    /**
+     * Recorrido por tramos de los candidatos. Cada llamada a next() se hace con el read lock, y el
+     * cursor guarda lo necesario para continuar aunque el indice cambie entre dos llamadas
+     */
+    private interface Cursor {
+
+        /**
+         * Visita como mucho budget candidatos
+         *
+         * @return false si no quedan candidatos o el visitante ha pedido parar
+         */
+        boolean next(IntPredicate visitor, int budget);
+    }
+
+    /**
+     * Las listas de documentos no estan ordenadas y cambian de orden al borrar, asi que el cursor
+     * avanza por claves (higherEntry de la ultima visitada) y copia la lista de cada clave al
+     * empezarla. Con el indice sin cambios cada documento esta en una sola lista; solo un documento
+     * reindexado despues de crear el cursor (usuario modificado o documento reutilizado) puede
+     * aparecer en una clave posterior a la que ya se visito, y esos se saltan. Asi no hace falta
+     * recordar los documentos visitados
+     */
+    private final class PostingCandidates implements Candidates {
+
+        private final NavigableMap<String, IntPostingList> postings;
+
+        private PostingCandidates(NavigableMap<String, IntPostingList> postings) {
+            this.postings = postings;
+        }
+
+        @Override
+        public long estimate(long cap) {
+            long ret = 0;
+            for (IntPostingList list : postings.values()) {
+                ret += list.size();
+                if (ret >= cap) {
+                    break;
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public Cursor cursor() {
+            return new Cursor() {
+
+                private final long startVersion = version;
+                private String lastKey;
+                private int[] pending = new int[INITIAL_CAPACITY];
+                private int pendingCount;
+                private int pendingPosition;
+
+                @Override
+                public boolean next(IntPredicate visitor, int budget) {
+                    int visits = 0;
+                    while (visits < budget) {
+                        if (pendingPosition == pendingCount) {
+                            Map.Entry<String, IntPostingList> entry = lastKey == null
+                                    ? postings.firstEntry()
+                                    : postings.higherEntry(lastKey);
+                            if (entry == null) {
+                                return false;
+                            }
+                            lastKey = entry.getKey();
+                            pending = entry.getValue().copyTo(pending);
+                            pendingCount = entry.getValue().size();
+                            pendingPosition = 0;
+                            continue;
+                        }
+                        int doc = pending[pendingPosition++];
+                        if (docVersions[doc] > startVersion) {
+                            continue;
+                        }
+                        visits++;
+                        if (!visitor.test(doc)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+
+    private final class AllCandidates implements Candidates {
+
+        @Override
+        public long estimate(long cap) {
+            return docCount - freeCount;
+        }
+
+        @Override
+        public Cursor cursor() {
+            return new Cursor() {
+
+                private int doc;
+
+                @Override
+                public boolean next(IntPredicate visitor, int budget) {
+                    int end = (int) Math.min(docCount, (long) doc + budget);
+                    while (doc < end) {
+                        if (!visitor.test(doc++)) {
+                            return false;
+                        }
+                    }
+                    return doc < docCount;
+                }
+            };
+        }
+    }
+
+    private static final class Bitmap implements Candidates {
+
+        private final BitSet docs = new BitSet();
+        private int count;
+
+        private void add(int doc) {
+            docs.set(doc);
+            count++;
+        }
+
+        /**
+         * @return true si el bitmap ha quedado vacio
+         */
+        private boolean remove(int doc) {
+            docs.clear(doc);
+            return --count == 0;
+        }
+
+        @Override
+        public long estimate(long cap) {
+            return count;
+        }
+
+        @Override
+        public Cursor cursor() {
+            return new Cursor() {
+
+                private int from;
+
+                @Override
+                public boolean next(IntPredicate visitor, int budget) {
+                    for (int visits = 0; visits < budget; visits++) {
+                        int doc = docs.nextSetBit(from);
+                        if (doc < 0) {
+                            return false;
+                        }
+                        from = doc + 1;
+                        if (!visitor.test(doc)) {
+                            return false;
+                        }
+                    }
+                    return docs.nextSetBit(from) >= 0;
+                }
+            };
+        }
+    }
+
+    /**
+     * Indice de una clave de texto (en minusculas) a sus documentos, con la posicion de cada
+     * documento en su lista
+     */
+    private static final class KeyIndex {
+
+        private final UserQuery.Field field;
+        private final TreeMap<String, IntPostingList> postings = new TreeMap<>();
+        private int[] positions = new int[INITIAL_CAPACITY];
+
+        private KeyIndex(UserQuery.Field field) {
+            this.field = field;
+        }
+
+        private void grow(int capacity) {
+            positions = Arrays.copyOf(positions, capacity);
+        }
+
+        private void add(int doc, UserResponseDto user) {
+            String key = key(field.value(user));
+            if (key == null) {
+                return;
+            }
+            positions[doc] = postings.computeIfAbsent(key, k -> new IntPostingList()).add(doc);
+        }
+
+        private void remove(int doc, UserResponseDto user) {
+            String key = key(field.value(user));
+            if (key == null) {
+                return;
+            }
+            IntPostingList list = postings.get(key);
+            int moved = list.removeAt(positions[doc]);
+            if (moved >= 0) {
+                positions[moved] = positions[doc];
+            }
+            if (list.size() == 0) {
+                postings.remove(key);
+            }
+        }
+
+        private NavigableMap<String, IntPostingList> exact(String key) {
+            return postings.subMap(key, true, key, true);
+        }
+
+        private NavigableMap<String, IntPostingList> prefix(String prefix) {
+            return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        private NavigableMap<String, IntPostingList> range(String from, String to) {
+            if (from == null && to == null) {
+                return postings;
+            }
+            if (from == null) {
+                return postings.headMap(key(to), true);
+            }
+            if (to == null) {
+                return postings.tailMap(key(from), true);
+            }
+            if (key(from).compareTo(key(to)) > 0) {
+                return Collections.emptyNavigableMap();
+            }
+            return postings.subMap(key(from), true, key(to), true);
+        }
+    }
+
+    /**
+     * Visitante de los candidatos: descarta con los bitmaps de gender, comprueba la consulta
+     * sobre el usuario y aplica offset y limit
+     */
+    private final class Matcher implements IntPredicate {
+
+        private final UserQuery query;
+        private final Consumer<UserResponseDto> action;
+        private final long limit;
+        private final BitSet[] filters;
+        private final boolean empty;
+        private long skip;
+        private long emitted;
+
+        private Matcher(UserQuery query, long offset, long limit, Consumer<UserResponseDto> action) {
+            this.query = query;
+            this.skip = offset;
+            this.limit = limit;
+            this.action = action;
+            BitSet[] filters = new BitSet[query.getCriteria().size()];
+            int count = 0;
+            boolean empty = false;
+            for (UserQuery.Criterion criterion : query.getCriteria()) {
+                if (criterion.getField() == UserQuery.Field.GENDER && criterion.getMatch() == UserQuery.Match.EXACT) {
+                    Bitmap bitmap = genders.get(key(criterion.getValue()));
+                    if (bitmap == null) {
+                        empty = true;
+                    } else {
+                        filters[count++] = bitmap.docs;
+                    }
+                }
+            }
+            this.filters = Arrays.copyOf(filters, count);
+            this.empty = empty;
+        }
+
+        @Override
+        public boolean test(int doc) {
+            UserResponseDto user = rows[doc];
+            if (user == null) {
+                return true;
+            }
+            for (BitSet filter : filters) {
+                if (!filter.get(doc)) {
+                    return true;
+                }
+            }
+            if (!query.matches(user)) {
+                return true;
+            }
+            if (skip > 0) {
+                skip--;
+                return true;
+            }
+            action.accept(user);
+            return ++emitted < limit;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Almacen de usuarios en memoria, indexado por UUID y particionado en shards.
+ *
+ * El numero de shards es la potencia de dos igual o superior al numero de procesadores. Cada
+ * shard tiene su propio UuidOpenHashMap y un StampedLock:
+ *  - las escrituras de un shard se serializan con el write lock (un unico escritor por shard),
+ *    y escrituras en shards distintos no compiten entre si;
+ *  - las lecturas son optimistas: no adquieren ningun lock y solo reintentan, con read lock,
+ *    si un escritor ha modificado el shard durante la lectura.
+ *
+ * Asi las lecturas escalan con el numero de nucleos y las claves nunca se convierten en objetos.
+ *
+ * Cada usuario se guarda como VersionedUser, con el hash de su contenido y el instante de su
+ * ultima modificacion, calculados una sola vez al escribirlo.
+ *
+ * Los UserStoreListener registrados (indices secundarios) se actualizan dentro del write lock
+ * del shard, en el mismo orden que las escrituras de cada UUID.
+ *
+ * El log de escritura previa (setWriteAheadLog, el UserLog) se invoca tambien con el write lock,
+ * pero antes de modificar el mapa: si falla (campo demasiado largo, disco lleno...), la excepcion
+ * llega al llamante y ni el mapa ni los indices cambian, de modo que ningun lector ve un cambio
+ * que no este en el log.
+ *
+ */
+public class UserStore {
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final List<UserStoreListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile UserStoreListener writeAheadLog;
+
+    public UserStore() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public UserStore(int concurrency) {
+        int count = 1;
+        while (count < concurrency) {
+            count <<= 1;
+        }
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = count - 1;
+    }
+
+    public void addListener(UserStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param log, log al que se añade cada cambio antes de aplicarlo en memoria; sus excepciones
+     *             cancelan el cambio
+     */
+    public void setWriteAheadLog(UserStoreListener log) {
+        this.writeAheadLog = log;
+    }
+
+    public UserResponseDto get(UUID uuid) {
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public UserResponseDto get(long msb, long lsb) {
+        VersionedUser versioned = shard(msb, lsb).get(msb, lsb);
+        return versioned == null ? null : versioned.getUser();
+    }
+
+    /**
+     * @return usuario con su version y fecha de modificacion, o null si no existe
+     */
+    public VersionedUser getVersioned(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return shard(msb, lsb).get(msb, lsb);
+    }
+
+    public boolean contains(UUID uuid) {
+        return get(uuid) != null;
+    }
+
+    /**
+     * @return usuario anterior con el mismo UUID, o null
+     */
+    public UserResponseDto put(UserResponseDto user) {
+        UUID uuid = user.getUuid();
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return shard(msb, lsb).put(msb, lsb, user);
+    }
+
+    /**
+     * @return usuario borrado, o null si no existia
+     */
+    public UserResponseDto remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return shard(msb, lsb).remove(msb, lsb);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * @return copia de todos los usuarios, sin orden definido
+     */
+    public List<UserResponseDto> values() {
+        List<UserResponseDto> ret = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.copyTo(ret);
+        }
+        return ret;
+    }
+
+    private Shard shard(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0xC2B2AE3D27D4EB4FL;
+        return shards[(int) (h >>> 40) & shardMask];
+    }
+
+    private final class Shard {
+
+        private final StampedLock lock = new StampedLock();
+        private final UuidOpenHashMap<VersionedUser> map = new UuidOpenHashMap<>();
+
+        VersionedUser get(long msb, long lsb) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                VersionedUser user = map.get(msb, lsb);
+                if (lock.validate(stamp)) {
+                    return user;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return map.get(msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        UserResponseDto put(long msb, long lsb, UserResponseDto user) {
+            long now = System.currentTimeMillis();
+            long stamp = lock.writeLock();
+            try {
+                VersionedUser current = map.get(msb, lsb);
+                UserResponseDto previous = current == null ? null : current.getUser();
+                UserStoreListener log = writeAheadLog;
+                if (log != null) {
+                    log.onPut(previous, user);
+                }
+                map.put(msb, lsb, VersionedUser.of(user, current, now));
+                for (UserStoreListener listener : listeners) {
+                    listener.onPut(previous, user);
+                }
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        UserResponseDto remove(long msb, long lsb) {
+            long stamp = lock.writeLock();
+            try {
+                VersionedUser removed = map.get(msb, lsb);
+                if (removed == null) {
+                    return null;
+                }
+                UserResponseDto previous = removed.getUser();
+                UserStoreListener log = writeAheadLog;
+                if (log != null) {
+                    log.onRemove(previous);
+                }
+                map.remove(msb, lsb);
+                for (UserStoreListener listener : listeners) {
+                    listener.onRemove(previous);
+                }
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Borra los usuarios uno a uno: si el log falla a mitad, solo quedan borrados en memoria
+         * los que ya estan borrados en el log
+         */
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                List<UserResponseDto> users = new ArrayList<>(map.size());
+                map.forEach(versioned -> users.add(versioned.getUser()));
+                UserStoreListener log = writeAheadLog;
+                for (UserResponseDto previous : users) {
+                    if (log != null) {
+                        log.onRemove(previous);
+                    }
+                    UUID uuid = previous.getUuid();
+                    map.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                    for (UserStoreListener listener : listeners) {
+                        listener.onRemove(previous);
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyTo(List<UserResponseDto> target) {
+            long stamp = lock.readLock();
+            try {
+                map.forEach(versioned -> target.add(versioned.getUser()));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
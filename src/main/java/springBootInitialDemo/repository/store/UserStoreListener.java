@@ -0,0 +1,20 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+
+/**
+ * Indice secundario mantenido por UserStore.
+ * Los metodos se invocan con el write lock del shard del usuario, por lo que los cambios de un
+ * mismo UUID llegan en orden; cambios de UUIDs distintos pueden llegar en paralelo
+ *
+ */
+public interface UserStoreListener {
+
+    /**
+     * @param previous, version anterior del usuario, o null si es nuevo
+     * @param current, version guardada
+     */
+    void onPut(UserResponseDto previous, UserResponseDto current);
+
+    void onRemove(UserResponseDto previous);
+}
@@ -0,0 +1,190 @@
+package springBootInitialDemo.repository.store;
+
+/**
+ * Mapa de direccionamiento abierto (sondeo lineal) con claves UUID almacenadas como dos long
+ * en arrays primitivos, de modo que ni la consulta ni la insercion crean objetos para la clave.
+ *
+ * No es thread-safe: el acceso concurrente lo coordina UserStore. Las lecturas son tolerantes a
+ * un escritor concurrente (no fallan ni entran en bucle infinito con un estado a medio escribir),
+ * para poder usarlas con lecturas optimistas; el resultado solo es valido si la lectura se valida.
+ *
+ * @param <V> tipo de los valores; null no es un valor valido
+ */
+final class UuidOpenHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    UuidOpenHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long msb, long lsb) {
+        long[] msbs = mostSignificant;
+        long[] lsbs = leastSignificant;
+        Object[] vals = values;
+        int length = Math.min(vals.length, Math.min(msbs.length, lsbs.length));
+        int mask = length - 1;
+        int index = slot(msb, lsb) & mask;
+        for (int probes = 0; probes < length; probes++) {
+            Object value = vals[index];
+            if (value == null) {
+                return null;
+            }
+            if (msbs[index] == msb && lsbs[index] == lsb) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return valor anterior, o null si la clave no existia
+     */
+    @SuppressWarnings("unchecked")
+    V put(long msb, long lsb, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value");
+        }
+        int mask = values.length - 1;
+        int index = slot(msb, lsb) & mask;
+        while (values[index] != null) {
+            if (mostSignificant[index] == msb && leastSignificant[index] == lsb) {
+                Object previous = values[index];
+                values[index] = value;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        mostSignificant[index] = msb;
+        leastSignificant[index] = lsb;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Borra la clave desplazando hacia atras las entradas siguientes del mismo grupo,
+     * sin marcas de borrado
+     *
+     * @return valor borrado, o null si la clave no existia
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long msb, long lsb) {
+        int mask = values.length - 1;
+        int index = slot(msb, lsb) & mask;
+        while (values[index] != null) {
+            if (mostSignificant[index] == msb && leastSignificant[index] == lsb) {
+                Object previous = values[index];
+                shiftBack(index, mask);
+                size--;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Recorre los valores del mapa
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(java.util.function.Consumer<? super V> action) {
+        Object[] vals = values;
+        for (Object value : vals) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Recorre las entradas del mapa, con la clave como dos long
+     */
+    @SuppressWarnings("unchecked")
+    void forEachEntry(EntryConsumer<? super V> action) {
+        long[] msbs = mostSignificant;
+        long[] lsbs = leastSignificant;
+        Object[] vals = values;
+        for (int i = 0; i < vals.length; i++) {
+            if (vals[i] != null) {
+                action.accept(msbs[i], lsbs[i], (V) vals[i]);
+            }
+        }
+    }
+
+    interface EntryConsumer<V> {
+        void accept(long msb, long lsb, V value);
+    }
+
+    private void shiftBack(int hole, int mask) {
+        int index = (hole + 1) & mask;
+        while (values[index] != null) {
+            int home = slot(mostSignificant[index], leastSignificant[index]) & mask;
+            // la entrada en index puede ocupar el hueco si su posicion ideal no esta entre hole (excluido) e index
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                mostSignificant[hole] = mostSignificant[index];
+                leastSignificant[hole] = leastSignificant[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMsb = mostSignificant;
+        long[] oldLsb = leastSignificant;
+        Object[] oldValues = values;
+        long[] newMsb = new long[capacity];
+        long[] newLsb = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldMsb[i], oldLsb[i]) & mask;
+                while (newValues[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newMsb[index] = oldMsb[i];
+                newLsb[index] = oldLsb[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        mostSignificant = newMsb;
+        leastSignificant = newLsb;
+        values = newValues;
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    private void allocate(int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        values = new Object[capacity];
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    static int slot(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
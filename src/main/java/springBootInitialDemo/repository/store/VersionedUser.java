@@ -0,0 +1,61 @@
+package springBootInitialDemo.repository.store;
+
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.ContentHash;
+
+/**
+ * Usuario tal y como lo guarda el UserStore: el DTO junto con su version (hash del contenido,
+ * calculado una vez al escribirlo) y el instante en que cambio por ultima vez.
+ * Permite responder a peticiones condicionales (ETag / Last-Modified) sin serializar el usuario
+ *
+ */
+public final class VersionedUser {
+
+    private final UserResponseDto user;
+    private final long version;
+    private final long lastModified;
+
+    private VersionedUser(UserResponseDto user, long version, long lastModified) {
+        this.user = user;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @param previous, version anterior del mismo usuario, o null; si el contenido no ha cambiado
+     *                  se conserva su lastModified
+     */
+    static VersionedUser of(UserResponseDto user, VersionedUser previous, long now) {
+        long version = version(user);
+        if (previous != null && previous.version == version) {
+            return new VersionedUser(user, version, previous.lastModified);
+        }
+        return new VersionedUser(user, version, now);
+    }
+
+    static long version(UserResponseDto user) {
+        return new ContentHash()
+                .add(user.getUuid().getMostSignificantBits())
+                .add(user.getUuid().getLeastSignificantBits())
+                .add(user.getName())
+                .add(user.getSurname())
+                .add(user.getDateOfBirth())
+                .add(user.getGender())
+                .value();
+    }
+
+    public UserResponseDto getUser() {
+        return user;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return instante de la ultima modificacion, en milisegundos desde epoch
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
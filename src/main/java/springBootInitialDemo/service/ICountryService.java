@@ -0,0 +1,22 @@
+package springBootInitialDemo.service;
+
+import springBootInitialDemo.dto.CountryDto;
+import springBootInitialDemo.repository.CountryCatalog;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ICountryService {
+
+    Optional<CountryCatalog.CatalogVersion> getVersion();
+
+    List<CountryDto> getCountries();
+
+    Optional<CountryDto> getCountry(String alphaCode);
+
+    List<CountryDto> getCountriesByCallingCode(String callingCode);
+
+    List<CountryDto> getCountriesByLanguage(String language);
+
+    List<CountryDto> getCountriesByRegion(String region);
+}
@@ -2,6 +2,10 @@ package springBootInitialDemo.service;
 
 import springBootInitialDemo.dto.GreetingResponseDto;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
 /**
  * Interface de la capa Service
  *
@@ -10,4 +14,7 @@ public interface IGreetingService {
 
     GreetingResponseDto getGreeting(String greeting);
     GreetingResponseDto getGreeting();
+    GreetingResponseDto getGreeting(String greeting, Locale locale);
+    GreetingResponseDto getGreeting(Locale locale);
+    void createGreetings(List<String> names, Locale locale, Consumer<GreetingResponseDto> consumer);
 }
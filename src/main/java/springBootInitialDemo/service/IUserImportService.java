@@ -0,0 +1,30 @@
+package springBootInitialDemo.service;
+
+import springBootInitialDemo.dto.UserImportStatusDto;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface del servicio de importacion masiva de usuarios
+ *
+ */
+public interface IUserImportService {
+
+    enum Format { JSONL, CSV }
+
+    /**
+     * Importa los usuarios leidos del flujo, bloqueando hasta terminar
+     *
+     * @return estado final de la importacion
+     */
+    UserImportStatusDto importUsers(InputStream input, Format format);
+
+    Optional<UserImportStatusDto> getStatus(String id);
+
+    /**
+     * @return estado de las importaciones recientes, en curso o terminadas
+     */
+    List<UserImportStatusDto> getStatuses();
+}
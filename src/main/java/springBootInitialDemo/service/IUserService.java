@@ -1,8 +1,28 @@
 package springBootInitialDemo.service;
 
 import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.store.UserOrdering;
+import springBootInitialDemo.repository.store.UserQuery;
+import springBootInitialDemo.repository.store.VersionedUser;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface IUserService {
 
-    UserResponseDto getUser(String uuid);
+    Optional<UserResponseDto> getUser(String uuid);
+
+    Optional<VersionedUser> getVersionedUser(String uuid);
+
+    UserResponseDto saveUser(UserResponseDto user);
+
+    void getUsers(List<UUID> uuids, Consumer<UserResponseDto> found, Consumer<UUID> missing);
+
+    List<UserResponseDto> getUserPage(UserOrdering ordering, boolean descending, UserResponseDto after, int limit);
+
+    void forEachUser(UserOrdering ordering, boolean descending, Consumer<UserResponseDto> action);
+
+    List<UserResponseDto> searchUsers(UserQuery query, long offset, int limit);
 }
@@ -0,0 +1,46 @@
+package springBootInitialDemo.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import springBootInitialDemo.dto.CountryDto;
+import springBootInitialDemo.repository.CountryCatalog;
+import springBootInitialDemo.service.ICountryService;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class CountryServiceImpl implements ICountryService {
+
+    private final CountryCatalog countryCatalog;
+
+    @Autowired
+    public CountryServiceImpl(CountryCatalog countryCatalog){
+        this.countryCatalog = countryCatalog;
+    }
+
+    public Optional<CountryCatalog.CatalogVersion> getVersion(){
+        return countryCatalog.getVersion();
+    }
+
+    public List<CountryDto> getCountries(){
+        return countryCatalog.findAll();
+    }
+
+    public Optional<CountryDto> getCountry(String alphaCode){
+        return countryCatalog.findByAlphaCode(alphaCode);
+    }
+
+    public List<CountryDto> getCountriesByCallingCode(String callingCode){
+        return countryCatalog.findByCallingCode(callingCode);
+    }
+
+    public List<CountryDto> getCountriesByLanguage(String language){
+        return countryCatalog.findByLanguage(language);
+    }
+
+    public List<CountryDto> getCountriesByRegion(String region){
+        return countryCatalog.findByRegion(region);
+    }
+
+}
@@ -2,9 +2,15 @@ package springBootInitialDemo.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import springBootInitialDemo.cache.GreetingContentCache;
 import springBootInitialDemo.dto.GreetingResponseDto;
 import springBootInitialDemo.repository.GreetingRepository;
 import springBootInitialDemo.service.IGreetingService;
+import springBootInitialDemo.stats.GreetingStats;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Clase de la capa Service, implementa la interface IGreetingService
@@ -25,17 +31,25 @@ import springBootInitialDemo.service.IGreetingService;
 public class GreetingServiceImpl implements IGreetingService {
 
     private final GreetingRepository greetingRepository;
+    private final GreetingContentCache contentCache;
+    private final GreetingStats greetingStats;
 
     /**
-     * Constructor de la clase, parametrizado con la la clase GreetingRepository
+     * Constructor de la clase, parametrizado con la la clase GreetingRepository,
+     * la cache de saludos renderizados y las estadisticas de nombres saludados
      * Marcado con la anotacion @Autowired, la clase de servicio es automaticamente
      * detectada por Spring
      *
      * @param greetingRepository, objeto de tipo GreetingRepository
+     * @param contentCache, objeto de tipo GreetingContentCache
+     * @param greetingStats, objeto de tipo GreetingStats
      */
     @Autowired
-    public GreetingServiceImpl(GreetingRepository greetingRepository) {
+    public GreetingServiceImpl(GreetingRepository greetingRepository, GreetingContentCache contentCache,
+                               GreetingStats greetingStats) {
         this.greetingRepository = greetingRepository;
+        this.contentCache = contentCache;
+        this.greetingStats = greetingStats;
     }
 
     /**
@@ -51,8 +65,9 @@ public class GreetingServiceImpl implements IGreetingService {
     }
 
     /**
-     * Delega en el objeto GreetingRepository, accediendo a uno de sus metodos
-     * para retornar un objeto de tipo GreetingResponseDto
+     * Anota el nombre en las estadisticas de nombres saludados, obtiene el contenido
+     * del saludo de la cache de saludos renderizados y delega
+     * en el objeto GreetingRepository para crear el GreetingResponseDto con un id nuevo
      *
      * @param greeting, valor de tipo String que sirve como parametro en la
      *                  invocacion al metodo del GreetingRepository
@@ -61,7 +76,45 @@ public class GreetingServiceImpl implements IGreetingService {
      */
     @Override
     public GreetingResponseDto getGreeting(String greeting) {
-        return greetingRepository.getGreeting(greeting);
+        greetingStats.record(greeting);
+        return greetingRepository.createGreeting(contentCache.getContent(greeting));
+    }
+
+    /**
+     * Igual que getGreeting(), con el locale indicado en lugar del de la peticion en curso
+     *
+     * @param locale, locale de la plantilla de saludo
+     */
+    @Override
+    public GreetingResponseDto getGreeting(Locale locale) {
+        return greetingRepository.getGreeting(locale);
+    }
+
+    /**
+     * Igual que getGreeting(greeting), con el locale indicado en lugar del de la peticion en curso.
+     * Para hilos donde LocaleContextHolder no tiene la peticion (handlers asincronos, rutas reactivas)
+     *
+     * @param greeting, nombre a saludar
+     * @param locale, locale de la plantilla de saludo
+     */
+    @Override
+    public GreetingResponseDto getGreeting(String greeting, Locale locale) {
+        greetingStats.record(greeting);
+        return greetingRepository.createGreeting(contentCache.getContent(greeting, locale));
+    }
+
+    /**
+     * Delega en el objeto GreetingRepository la creacion en lote de un saludo por nombre.
+     * No pasa por la cache de saludos renderizados: los nombres de un lote (por ejemplo una
+     * lista de correo) suelen ser distintos y solo desplazarian de la cache a los frecuentes
+     *
+     * @param names, nombres a saludar
+     * @param locale, locale de la plantilla de saludo
+     * @param consumer, recibe cada GreetingResponseDto a medida que se crea
+     */
+    @Override
+    public void createGreetings(List<String> names, Locale locale, Consumer<GreetingResponseDto> consumer) {
+        greetingRepository.createGreetings(names, locale, consumer);
     }
 
 }
@@ -0,0 +1,301 @@
+package springBootInitialDemo.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import springBootInitialDemo.dto.UserImportStatusDto;
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.UserRepository;
+import springBootInitialDemo.repository.store.UserLog;
+import springBootInitialDemo.service.IUserImportService;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clase de la capa Service, implementa la interface IUserImportService
+ *
+ * Importa usuarios desde un flujo JSONL (un UserResponseDto por linea) o CSV
+ * (name,surname,dateOfBirth,gender, con cabecera opcional):
+ *  - el hilo que llama lee el flujo linea a linea y lo agrupa en bloques de user.import.chunk-size lineas;
+ *  - cada bloque se analiza y valida en un ForkJoinPool de user.import.parallelism hilos y los
+ *    usuarios validos se guardan con un unico saveAll (un fsync por bloque);
+ *  - como mucho hay user.import.max-in-flight-chunks bloques pendientes: si se alcanza el limite
+ *    la lectura espera, de modo que la memoria no depende del tamaño del fichero.
+ *
+ * Las filas leidas, importadas y rechazadas y las filas por segundo se actualizan a medida que
+ * avanza la importacion; se pueden consultar con getStatus y se escriben en el log periodicamente.
+ *
+ */
+@Service
+public class UserImportServiceImpl implements IUserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private static final String CSV_HEADER = "name,surname,dateofbirth,gender";
+    private static final int MAX_TRACKED_JOBS = 100;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final UserRepository userRepository;
+    private final ObjectReader userReader;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> jobOrder = new ConcurrentLinkedDeque<>();
+
+    @Autowired
+    public UserImportServiceImpl(UserRepository userRepository, ObjectMapper objectMapper,
+                                 @Value("${user.import.parallelism:0}") int parallelism,
+                                 @Value("${user.import.chunk-size:10000}") int chunkSize,
+                                 @Value("${user.import.max-in-flight-chunks:0}") int maxInFlightChunks) {
+        this.userRepository = userRepository;
+        this.userReader = objectMapper.readerFor(UserResponseDto.class);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.chunkSize = chunkSize;
+        this.maxInFlightChunks = maxInFlightChunks > 0 ? maxInFlightChunks : threads * 2;
+    }
+
+    @Override
+    public UserImportStatusDto importUsers(InputStream input, Format format) {
+        Job job = register();
+        Semaphore inFlight = new Semaphore(maxInFlightChunks);
+        long lastProgress = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024)) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null && job.error.get() == null) {
+                if (first && format == Format.CSV && line.replace(" ", "").equalsIgnoreCase(CSV_HEADER)) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                job.rowsRead.incrementAndGet();
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    submit(job, chunk, format, inFlight);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    log.info("{}", job.status());
+                    lastProgress = now;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(job, chunk, format, inFlight);
+            }
+            inFlight.acquire(maxInFlightChunks);
+            inFlight.release(maxInFlightChunks);
+        } catch (IOException e) {
+            job.error.compareAndSet(null, "Error leyendo el fichero: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.error.compareAndSet(null, "Importacion interrumpida");
+        }
+        job.finish();
+        UserImportStatusDto status = job.status();
+        log.info("{}", status);
+        return status;
+    }
+
+    @Override
+    public Optional<UserImportStatusDto> getStatus(String id) {
+        Job job = jobs.get(id);
+        return job == null ? Optional.empty() : Optional.of(job.status());
+    }
+
+    @Override
+    public List<UserImportStatusDto> getStatuses() {
+        List<UserImportStatusDto> ret = new ArrayList<>();
+        for (String id : jobOrder) {
+            Job job = jobs.get(id);
+            if (job != null) {
+                ret.add(job.status());
+            }
+        }
+        return ret;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void submit(Job job, List<String> chunk, Format format, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    importChunk(job, chunk, format);
+                } catch (RuntimeException e) {
+                    job.error.compareAndSet(null, e.toString());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void importChunk(Job job, List<String> chunk, Format format) {
+        List<UserResponseDto> valid = new ArrayList<>(chunk.size());
+        for (String line : chunk) {
+            UserResponseDto user = format == Format.CSV ? parseCsv(line) : parseJson(line);
+            if (user != null && isValid(user)) {
+                valid.add(user);
+            } else {
+                job.rejected.incrementAndGet();
+            }
+        }
+        if (!valid.isEmpty()) {
+            userRepository.saveAll(valid);
+            job.imported.addAndGet(valid.size());
+        }
+    }
+
+    private UserResponseDto parseJson(String line) {
+        try {
+            return userReader.readValue(line);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Analiza una linea CSV de cuatro campos; admite campos entre comillas dobles con "" como escape
+     */
+    static UserResponseDto parseCsv(String line) {
+        String[] fields = new String[4];
+        int field = 0;
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (field == fields.length - 1) {
+                    return null;
+                }
+                fields[field++] = current.toString().trim();
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted || field != fields.length - 1) {
+            return null;
+        }
+        fields[field] = current.toString().trim();
+        return new UserResponseDto(null, emptyToNull(fields[0]), emptyToNull(fields[1]),
+                emptyToNull(fields[2]), emptyToNull(fields[3]));
+    }
+
+    static boolean isValid(UserResponseDto user) {
+        if (isBlank(user.getName()) || isBlank(user.getSurname())) {
+            return false;
+        }
+        if (!UserLog.isEncodable(user.getName()) || !UserLog.isEncodable(user.getSurname())
+                || !UserLog.isEncodable(user.getDateOfBirth()) || !UserLog.isEncodable(user.getGender())) {
+            return false;
+        }
+        if (user.getDateOfBirth() != null) {
+            try {
+                LocalDate.parse(user.getDateOfBirth());
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private Job register() {
+        Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        jobOrder.addLast(job.id);
+        while (jobOrder.size() > MAX_TRACKED_JOBS) {
+            String oldest = jobOrder.pollFirst();
+            if (oldest != null) {
+                jobs.remove(oldest);
+            }
+        }
+        return job;
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicReference<String> error = new AtomicReference<>();
+        private volatile long endNanos;
+
+        private Job(String id) {
+            this.id = id;
+        }
+
+        private void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        private UserImportStatusDto status() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            double seconds = Math.max(1, end - startNanos) / 1e9;
+            long processed = imported.get() + rejected.get();
+            String state = endNanos == 0 ? "RUNNING" : error.get() != null ? "FAILED" : "COMPLETED";
+            return new UserImportStatusDto(id, state, rowsRead.get(), imported.get(), rejected.get(),
+                    processed / seconds, error.get());
+        }
+    }
+}
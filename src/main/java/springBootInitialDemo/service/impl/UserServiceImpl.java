@@ -5,8 +5,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import springBootInitialDemo.dto.UserResponseDto;
 import springBootInitialDemo.repository.UserRepository;
+import springBootInitialDemo.repository.store.UserOrdering;
+import springBootInitialDemo.repository.store.UserQuery;
+import springBootInitialDemo.repository.store.VersionedUser;
 import springBootInitialDemo.service.IUserService;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
 @Service
 public class UserServiceImpl implements IUserService {
 
@@ -17,8 +25,32 @@ public class UserServiceImpl implements IUserService {
         this.userRepository = userRepository;
     }
 
-    public UserResponseDto getUser(String uuid){
-        return userRepository.getUser(uuid);
+    public Optional<UserResponseDto> getUser(String uuid){
+        return Optional.ofNullable(userRepository.getUser(uuid));
+    }
+
+    public Optional<VersionedUser> getVersionedUser(String uuid){
+        return Optional.ofNullable(userRepository.getVersionedUser(uuid));
+    }
+
+    public UserResponseDto saveUser(UserResponseDto user){
+        return (UserResponseDto) userRepository.save(user);
+    }
+
+    public void getUsers(List<UUID> uuids, Consumer<UserResponseDto> found, Consumer<UUID> missing){
+        userRepository.forEachById(uuids, found, missing);
+    }
+
+    public List<UserResponseDto> getUserPage(UserOrdering ordering, boolean descending, UserResponseDto after, int limit){
+        return userRepository.findPage(ordering, descending, after, limit);
+    }
+
+    public void forEachUser(UserOrdering ordering, boolean descending, Consumer<UserResponseDto> action){
+        userRepository.forEachOrdered(ordering, descending, action);
+    }
+
+    public List<UserResponseDto> searchUsers(UserQuery query, long offset, int limit){
+        return userRepository.search(query, offset, limit);
     }
 
 }
@@ -0,0 +1,139 @@
+package springBootInitialDemo.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Informe de arranque: al recibir ApplicationReadyEvent desglosa el tiempo de arranque a partir
+ * de la linea temporal de BufferingApplicationStartup (configurada en App):
+ *  - tiempo total desde el arranque de la JVM y desde el inicio de SpringApplication
+ *  - tiempo por fase del contexto (nombre del paso: spring.context.refresh,
+ *    spring.context.beans.post-process, ...)
+ *  - los startup.report.top-beans beans mas lentos, por tiempo propio (descontando la
+ *    instanciacion de sus dependencias, que cuelgan de su paso como hijos)
+ *
+ * El resumen se escribe en el log y, si se indica startup.report.file, en un fichero JSON que la
+ * tarea startupReport de Gradle compara con un presupuesto para detectar regresiones.
+ * La linea temporal completa sigue disponible en /actuator/startup.
+ *
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private final ObjectMapper objectMapper;
+    private final String file;
+    private final int topBeans;
+
+    @Autowired
+    public StartupReport(ObjectMapper objectMapper,
+                         @Value("${startup.report.file:}") String file,
+                         @Value("${startup.report.top-beans:15}") int topBeans) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.topBeans = topBeans;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        Instant now = Instant.now();
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+
+        Map<String, Object> report = build(timeline, now);
+        log.info("Arranque: {} ms desde la JVM, {} ms desde SpringApplication; fases (ms): {}; beans mas lentos (ms): {}",
+                report.get("jvmToReadyMs"), report.get("applicationToReadyMs"), report.get("phases"),
+                report.get("beans"));
+
+        if (!file.isEmpty()) {
+            try {
+                Path path = Paths.get(file);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+            } catch (IOException e) {
+                log.warn("No se ha podido escribir el informe de arranque en {}: {}", file, e.toString());
+            }
+        }
+    }
+
+    private Map<String, Object> build(StartupTimeline timeline, Instant now) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+
+        // tiempo de los hijos directos de cada paso, para calcular el tiempo propio de los beans
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parent = event.getStartupStep().getParentId();
+            if (parent != null) {
+                childNanos.merge(parent, event.getDuration().toNanos(), Long::sum);
+            }
+        }
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        List<Map<String, Object>> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            long nanos = event.getDuration().toNanos();
+            if (BEAN_STEP.equals(step.getName())) {
+                Map<String, Object> bean = new LinkedHashMap<>();
+                bean.put("name", tag(step, "beanName"));
+                bean.put("selfMs", millis(nanos - childNanos.getOrDefault(step.getId(), 0L)));
+                bean.put("totalMs", millis(nanos));
+                beans.add(bean);
+            } else {
+                phases.merge(step.getName(), millis(nanos), Long::sum);
+            }
+        }
+        beans.sort((a, b) -> Long.compare((Long) b.get("selfMs"), (Long) a.get("selfMs")));
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("jvmToReadyMs", now.toEpochMilli() - ManagementFactory.getRuntimeMXBean().getStartTime());
+        ret.put("applicationToReadyMs", Duration.between(timeline.getStartTime(), now).toMillis());
+        ret.put("beanCount", beans.size());
+        ret.put("phases", phases);
+        ret.put("beans", beans.subList(0, Math.min(topBeans, beans.size())));
+        return ret;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,97 @@
+package springBootInitialDemo.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sketch Count-Min: estima cuantas veces ha aparecido cada elemento en memoria fija, sin guardar
+ * los elementos. Con width = ceil(e / epsilon) y depth = ceil(ln(1 / (1 - confidence))), la
+ * estimacion nunca es menor que la frecuencia real y, con probabilidad confidence, no la supera en
+ * mas de epsilon * total.
+ *
+ * Los contadores estan en un AtomicLongArray (depth filas de width columnas): anotar un elemento
+ * son depth incrementos atomicos, sin bloqueos. Las columnas de cada fila salen de un hash de 64
+ * bits partido en dos de 32 (h1 + i * h2, Kirsch-Mitzenmacher), asi que se calcula un solo hash
+ *
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param epsilon, error maximo de cada estimacion, como fraccion del total anotado
+     * @param confidence, probabilidad de que el error no supere epsilon * total (0 < confidence < 1)
+     */
+    public CountMinSketch(double epsilon, double confidence) {
+        if (epsilon <= 0 || epsilon >= 1 || confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("epsilon y confidence deben estar entre 0 y 1");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * @param hash, hash de 64 bits del elemento
+     */
+    public void add(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters.getAndIncrement(row * width + column(h1 + row * h2));
+        }
+    }
+
+    /**
+     * @param hash, hash de 64 bits del elemento
+     * @return frecuencia estimada del elemento (cota superior)
+     */
+    public long estimate(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32);
+        long ret = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            ret = Math.min(ret, counters.get(row * width + column(h1 + row * h2)));
+        }
+        return ret;
+    }
+
+    /**
+     * Pone los contadores a cero. No es atomico respecto a add: solo se llama sobre un sketch
+     * que ya no recibe anotaciones
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return memoria de los contadores en bytes
+     */
+    public long getSizeInBytes() {
+        return (long) width * depth * Long.BYTES;
+    }
+
+    private int column(int hash) {
+        return (hash & Integer.MAX_VALUE) % width;
+    }
+
+    // finalizador de SplitMix64: reparte por los 64 bits las diferencias de los bits bajos de FNV
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,248 @@
+package springBootInitialDemo.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import springBootInitialDemo.repository.ContentHash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadisticas de los nombres saludados en GET /?name= (los alimenta GreetingServiceImpl), en
+ * memoria fija y sin guardar cada nombre: por ventana de tiempo, un sketch Count-Min para estimar
+ * la frecuencia de cualquier nombre y un top-K Space-Saving con los mas frecuentes.
+ *
+ * Hay dos ventanas con sus estructuras preasignadas: la activa recibe las anotaciones y la otra
+ * espera. Cada greeting.stats.window-ms (@Scheduled) se vacia la que espera, pasa a ser la activa,
+ * y del top-K de la que termina se guarda una copia en el historico (greeting.stats.windows
+ * ventanas). La ventana que termina se vacia una ventana despues, cuando ya no puede quedar ningun
+ * hilo anotando en ella.
+ *
+ * Precision y memoria se configuran con greeting.stats.epsilon y greeting.stats.confidence (ancho
+ * y profundidad del sketch), greeting.stats.top-k y greeting.stats.max-name-length (los nombres
+ * mas largos se truncan).
+ *
+ */
+@Component
+public class GreetingStats {
+
+    private final boolean enabled;
+    private final double epsilon;
+    private final double confidence;
+    private final int maxNameLength;
+    private final int maxWindows;
+
+    private volatile Window active;
+    private Window standby;
+    private volatile List<WindowSnapshot> history = Collections.emptyList();
+
+    @Autowired
+    public GreetingStats(@Value("${greeting.stats.enabled:true}") boolean enabled,
+                         @Value("${greeting.stats.epsilon:0.001}") double epsilon,
+                         @Value("${greeting.stats.confidence:0.99}") double confidence,
+                         @Value("${greeting.stats.top-k:100}") int topK,
+                         @Value("${greeting.stats.max-name-length:64}") int maxNameLength,
+                         @Value("${greeting.stats.windows:60}") int maxWindows) {
+        this.enabled = enabled;
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+        this.maxNameLength = maxNameLength;
+        this.maxWindows = maxWindows;
+        this.active = new Window(epsilon, confidence, topK, System.currentTimeMillis());
+        this.standby = new Window(epsilon, confidence, topK, 0);
+    }
+
+    /**
+     * Anota un nombre saludado en la ventana activa
+     *
+     * @param name, nombre a saludar
+     */
+    public void record(String name) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(name);
+        Window window = active;
+        window.total.increment();
+        window.sketch.add(hash(key));
+        window.topK.add(key);
+    }
+
+    /**
+     * Cierra la ventana activa y guarda su top-K en el historico
+     */
+    @Scheduled(fixedDelayString = "${greeting.stats.window-ms:60000}")
+    public synchronized void rollup() {
+        long now = System.currentTimeMillis();
+        Window finished = active;
+        standby.reset(now);
+        active = standby;
+        standby = finished;
+
+        List<WindowSnapshot> ret = new ArrayList<>(Math.min(maxWindows, history.size() + 1));
+        ret.add(finished.snapshot(now));
+        for (WindowSnapshot snapshot : history) {
+            if (ret.size() >= maxWindows) {
+                break;
+            }
+            ret.add(snapshot);
+        }
+        history = Collections.unmodifiableList(ret);
+    }
+
+    /**
+     * @param name, nombre del que estimar la frecuencia en la ventana activa; null = ninguno
+     * @param limit, elementos del top-K a devolver
+     * @return configuracion y memoria, ventana activa, top-K acumulado de la ventana activa y el
+     * historico, y el top-K de cada ventana del historico
+     */
+    public Map<String, Object> getStats(String name, int limit) {
+        Window window = active;
+        List<WindowSnapshot> windows = history;
+        long now = System.currentTimeMillis();
+        WindowSnapshot current = window.snapshot(now);
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("config", config(window));
+        ret.put("current", current.toMap(limit));
+        ret.put("aggregate", aggregate(current, windows, limit));
+        if (name != null) {
+            String key = key(name);
+            long total = window.total.sum();
+            Map<String, Object> estimate = new LinkedHashMap<>();
+            estimate.put("name", key);
+            estimate.put("count", Math.min(total, window.sketch.estimate(hash(key))));
+            estimate.put("error", (long) Math.ceil(epsilon * total));
+            estimate.put("confidence", confidence);
+            ret.put("estimate", estimate);
+        }
+        List<Map<String, Object>> previous = new ArrayList<>(windows.size());
+        for (WindowSnapshot snapshot : windows) {
+            previous.add(snapshot.toMap(limit));
+        }
+        ret.put("windows", previous);
+        return ret;
+    }
+
+    private Map<String, Object> config(Window window) {
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("epsilon", epsilon);
+        ret.put("confidence", confidence);
+        ret.put("sketchWidth", window.sketch.getWidth());
+        ret.put("sketchDepth", window.sketch.getDepth());
+        ret.put("topK", window.topK.getK());
+        ret.put("maxNameLength", maxNameLength);
+        ret.put("windows", maxWindows);
+        ret.put("sketchBytes", 2 * window.sketch.getSizeInBytes());
+        return ret;
+    }
+
+    private static Map<String, Object> aggregate(WindowSnapshot current, List<WindowSnapshot> windows, int limit) {
+        long total = current.total;
+        Map<String, long[]> merged = new HashMap<>();
+        merge(merged, current.top);
+        for (WindowSnapshot snapshot : windows) {
+            total += snapshot.total;
+            merge(merged, snapshot.top);
+        }
+        List<HeavyHitter> top = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            top.add(new HeavyHitter(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("start", windows.isEmpty() ? current.start : windows.get(windows.size() - 1).start);
+        ret.put("end", current.end);
+        ret.put("total", total);
+        ret.put("top", top.subList(0, Math.min(limit, top.size())));
+        return ret;
+    }
+
+    private static void merge(Map<String, long[]> merged, List<HeavyHitter> top) {
+        for (HeavyHitter hitter : top) {
+            long[] value = merged.computeIfAbsent(hitter.getName(), name -> new long[2]);
+            value[0] += hitter.getCount();
+            value[1] += hitter.getError();
+        }
+    }
+
+    private String key(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.length() > maxNameLength ? name.substring(0, maxNameLength) : name;
+    }
+
+    private static long hash(String key) {
+        return new ContentHash().add(key).value();
+    }
+
+    private static final class Window {
+
+        private final CountMinSketch sketch;
+        private final SpaceSavingTopK topK;
+        private final LongAdder total = new LongAdder();
+        private volatile long start;
+
+        private Window(double epsilon, double confidence, int topK, long start) {
+            this.sketch = new CountMinSketch(epsilon, confidence);
+            this.topK = new SpaceSavingTopK(topK);
+            this.start = start;
+        }
+
+        private void reset(long start) {
+            sketch.clear();
+            topK.clear();
+            total.reset();
+            this.start = start;
+        }
+
+        /**
+         * La cuenta de cada elemento del top-K es la menor de las dos cotas superiores, la del
+         * Space-Saving y la del sketch
+         */
+        private WindowSnapshot snapshot(long end) {
+            List<HeavyHitter> top = new ArrayList<>();
+            for (HeavyHitter hitter : topK.snapshot()) {
+                long count = Math.min(hitter.getCount(), sketch.estimate(hash(hitter.getName())));
+                long error = Math.min(hitter.getError(), count);
+                top.add(new HeavyHitter(hitter.getName(), count, error));
+            }
+            top.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+            return new WindowSnapshot(start, end, total.sum(), top);
+        }
+    }
+
+    private static final class WindowSnapshot {
+
+        private final long start;
+        private final long end;
+        private final long total;
+        private final List<HeavyHitter> top;
+
+        private WindowSnapshot(long start, long end, long total, List<HeavyHitter> top) {
+            this.start = start;
+            this.end = end;
+            this.total = total;
+            this.top = top;
+        }
+
+        private Map<String, Object> toMap(int limit) {
+            Map<String, Object> ret = new LinkedHashMap<>();
+            ret.put("start", start);
+            ret.put("end", end);
+            ret.put("total", total);
+            ret.put("top", top.subList(0, Math.min(limit, top.size())));
+            return ret;
+        }
+    }
+}
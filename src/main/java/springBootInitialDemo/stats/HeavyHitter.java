@@ -0,0 +1,31 @@
+package springBootInitialDemo.stats;
+
+/**
+ * Elemento frecuente de un resumen top-K: su frecuencia estimada (cota superior) y el error
+ * maximo de la estimacion, de modo que la frecuencia real esta en [count - error, count]
+ *
+ */
+public final class HeavyHitter {
+
+    private final String name;
+    private final long count;
+    private final long error;
+
+    public HeavyHitter(String name, long count, long error) {
+        this.name = name;
+        this.count = count;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getError() {
+        return error;
+    }
+}
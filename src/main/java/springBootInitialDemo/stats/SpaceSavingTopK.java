@@ -0,0 +1,121 @@
+package springBootInitialDemo.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Top-K con el algoritmo Space-Saving (Metwally et al.): k contadores fijos; un elemento que ya
+ * tiene contador lo incrementa y uno nuevo sustituye al contador minimo, heredando su cuenta
+ * (count = min + 1, error = min). Todo elemento con frecuencia mayor que total / k esta en el
+ * resumen, y la cuenta de cada uno supera la real en como mucho su error.
+ *
+ * Sin bloqueos: los contadores estan en un AtomicReferenceArray y un ConcurrentHashMap los indexa
+ * por elemento. Incrementar es un get del mapa y un incremento atomico; sustituir el minimo
+ * (recorrer los k contadores) es un compareAndSet sobre su posicion, que se reintenta unas pocas
+ * veces si otro hilo la cambia antes. Con carreras se puede perder algun incremento, lo que solo
+ * afecta a elementos que estan entrando o saliendo del resumen
+ *
+ */
+public final class SpaceSavingTopK {
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    private final AtomicReferenceArray<Counter> slots;
+    private final ConcurrentHashMap<String, Counter> index;
+
+    public SpaceSavingTopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k debe ser positivo");
+        }
+        this.slots = new AtomicReferenceArray<>(k);
+        this.index = new ConcurrentHashMap<>(k * 2);
+    }
+
+    public void add(String item) {
+        Counter counter = index.get(item);
+        if (counter != null) {
+            counter.count.incrementAndGet();
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int slot = 0;
+            Counter min = null;
+            long minCount = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                Counter current = slots.get(i);
+                if (current == null) {
+                    slot = i;
+                    min = null;
+                    minCount = 0;
+                    break;
+                }
+                long count = current.count.get();
+                if (count < minCount) {
+                    slot = i;
+                    min = current;
+                    minCount = count;
+                }
+            }
+
+            Counter candidate = new Counter(item, minCount + 1, minCount);
+            Counter previous = index.putIfAbsent(item, candidate);
+            if (previous != null) {
+                previous.count.incrementAndGet();
+                return;
+            }
+            if (slots.compareAndSet(slot, min, candidate)) {
+                if (min != null) {
+                    index.remove(min.item, min);
+                }
+                return;
+            }
+            index.remove(item, candidate);
+        }
+    }
+
+    /**
+     * @return elementos del resumen, de mayor a menor cuenta
+     */
+    public List<HeavyHitter> snapshot() {
+        List<HeavyHitter> ret = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Counter counter = slots.get(i);
+            if (counter != null) {
+                ret.add(new HeavyHitter(counter.item, counter.count.get(), counter.error));
+            }
+        }
+        ret.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+        return ret;
+    }
+
+    /**
+     * Vacia el resumen. Solo se llama sobre un resumen que ya no recibe elementos
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        index.clear();
+    }
+
+    public int getK() {
+        return slots.length();
+    }
+
+    private static final class Counter {
+
+        private final String item;
+        private final AtomicLong count;
+        private final long error;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = new AtomicLong(count);
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package springBootInitialDemo.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plantilla de saludo precompilada.
+ *
+ * La cadena de formato (por ejemplo "HELLO %s") se analiza una sola vez, al construir
+ * la plantilla, separandola en segmentos literales y huecos "%s". El renderizado solo
+ * concatena los segmentos sobre un StringBuilder con la capacidad ya calculada, sin
+ * volver a analizar el formato ni crear un java.util.Formatter en cada peticion.
+ *
+ * Solo se admiten los especificadores "%s" y "%%", que son los que usan las plantillas
+ * de saludo. El resultado es identico al de String.format para esos casos.
+ */
+public final class GreetingTemplate {
+
+    private final String source;
+    private final String[] literals;
+    private final int literalLength;
+
+    private GreetingTemplate(String source, String[] literals) {
+        this.source = source;
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compila una cadena de formato en segmentos literales y huecos
+     *
+     * @param source, cadena de formato con huecos "%s"
+     * @return plantilla compilada
+     * @throws IllegalArgumentException si la cadena contiene un especificador distinto de "%s" o "%%"
+     */
+    public static GreetingTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder(source.length());
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c != '%') {
+                current.append(c);
+                continue;
+            }
+            if (i + 1 >= source.length()) {
+                throw new IllegalArgumentException("Especificador incompleto al final de la plantilla: " + source);
+            }
+            char next = source.charAt(++i);
+            if (next == '%') {
+                current.append('%');
+            } else if (next == 's') {
+                literals.add(current.toString());
+                current.setLength(0);
+            } else {
+                throw new IllegalArgumentException("Especificador no soportado '%" + next + "' en la plantilla: " + source);
+            }
+        }
+        literals.add(current.toString());
+        return new GreetingTemplate(source, literals.toArray(new String[0]));
+    }
+
+    /**
+     * @return numero de huecos "%s" de la plantilla
+     */
+    public int getPlaceholderCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Renderiza la plantilla sustituyendo todos los huecos por el mismo valor
+     *
+     * @param value, valor para los huecos; null se representa como "null", igual que String.format
+     * @return cadena renderizada
+     */
+    public String render(String value) {
+        String text = String.valueOf(value);
+        StringBuilder builder = new StringBuilder(literalLength + text.length() * getPlaceholderCount());
+        renderTo(builder, text);
+        return builder.toString();
+    }
+
+    /**
+     * Renderiza la plantilla directamente sobre un buffer existente, sin cadenas intermedias
+     *
+     * @param builder, buffer de destino
+     * @param value, valor para los huecos
+     */
+    public void renderTo(StringBuilder builder, String value) {
+        String text = String.valueOf(value);
+        builder.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            builder.append(text).append(literals[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,98 @@
+package springBootInitialDemo.template;
+
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Motor de plantillas de saludo.
+ *
+ * Carga las plantillas del resource bundle "greetings" (greetings.properties,
+ * greetings_es.properties, ...) y las compila una sola vez por locale.
+ * El locale de la peticion lo resuelve el DispatcherServlet a partir de la cabecera
+ * Accept-Language y se obtiene aqui a traves de LocaleContextHolder.
+ *
+ * La resolucion locale -> plantilla se guarda en cache. Como el locale lo controla el
+ * cliente, la cache se limita a MAX_CACHED_LOCALES entradas; por encima de ese numero
+ * la plantilla se resuelve sin guardarla.
+ *
+ * Anotaciones:
+ * @Component
+ * Indica que una clase es un "componente", candidata para la detección automática
+ * mediante el escaneo del classpath
+ *
+ */
+@Component
+public class GreetingTemplateEngine {
+
+    static final String BUNDLE_NAME = "greetings";
+    static final String TEMPLATE_KEY = "greeting.template";
+    static final String DEFAULT_TEMPLATE = "HELLO %s";
+    private static final int MAX_CACHED_LOCALES = 64;
+
+    /**
+     * Sin fallback al locale por defecto de la JVM: un locale sin bundle propio
+     * usa siempre greetings.properties, independientemente de la maquina
+     */
+    private static final ResourceBundle.Control CONTROL =
+            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+    private final ConcurrentMap<Locale, GreetingTemplate> templates = new ConcurrentHashMap<>();
+    private final GreetingTemplate rootTemplate = load(Locale.ROOT);
+
+    /**
+     * @return plantilla correspondiente al locale de la peticion en curso
+     */
+    public GreetingTemplate currentTemplate() {
+        return template(LocaleContextHolder.getLocale());
+    }
+
+    /**
+     * @param locale, locale solicitado; null equivale al bundle por defecto
+     * @return plantilla compilada para el locale
+     */
+    public GreetingTemplate template(Locale locale) {
+        if (locale == null || Locale.ROOT.equals(locale)) {
+            return rootTemplate;
+        }
+        GreetingTemplate template = templates.get(locale);
+        if (template != null) {
+            return template;
+        }
+        template = load(locale);
+        if (templates.size() < MAX_CACHED_LOCALES) {
+            GreetingTemplate previous = templates.putIfAbsent(locale, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Renderiza el saludo para el locale de la peticion en curso
+     *
+     * @param name, nombre a saludar
+     * @return saludo renderizado, por ejemplo "HELLO WORLD"
+     */
+    public String render(String name) {
+        return currentTemplate().render(name);
+    }
+
+    private GreetingTemplate load(Locale locale) {
+        try {
+            ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale, CONTROL);
+            if (!Locale.ROOT.equals(locale) && Locale.ROOT.equals(bundle.getLocale()) && rootTemplate != null) {
+                return rootTemplate;
+            }
+            return GreetingTemplate.compile(bundle.getString(TEMPLATE_KEY));
+        } catch (MissingResourceException e) {
+            return rootTemplate != null ? rootTemplate : GreetingTemplate.compile(DEFAULT_TEMPLATE);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package springBootInitialDemo.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Con el stripe lleno, los clientes nuevos comparten el cubo de desbordamiento y el barrido de
+ * inactivos de ese stripe se hace como mucho una vez por sweepInterval.
+ *
+ * La tabla tiene 2 stripes de CAPACITY clientes y todos los clientes de la prueba caen en el primero
+ *
+ */
+class TokenBucketTableTest {
+
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final int CAPACITY = 4;
+
+    private final TokenBucketTable table = new TokenBucketTable(1, 1, 2, 2 * CAPACITY, IDLE_TIMEOUT, SWEEP_INTERVAL);
+
+    @Test
+    void sustainedRateAndBurst() {
+        long now = 0;
+        String client = client("a", 0);
+        assertEquals(0, table.tryAcquire(client, now));
+        assertTrue(table.tryAcquire(client, now) > 0);
+        assertEquals(0, table.tryAcquire(client, now + TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void fullStripeIsSweptAtMostOncePerInterval() {
+        long now = 0;
+        fill(now);
+
+        // sin inactivos: el barrido no libera nada y el cliente va al cubo de desbordamiento
+        table.tryAcquire(client("overflow", 1), now);
+        assertEquals(CAPACITY, table.size());
+
+        // los clientes ya estan inactivos, pero el stripe se barrio hace menos de sweepInterval
+        now += 3 * IDLE_TIMEOUT;
+        table.tryAcquire(client("overflow", 2), now);
+        assertEquals(CAPACITY, table.size());
+
+        // pasado sweepInterval, el siguiente cliente nuevo barre el stripe y obtiene cubo propio
+        now = SWEEP_INTERVAL;
+        assertEquals(0, table.tryAcquire(client("new", 0), now));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void scheduledEvictionIsNotThrottled() {
+        long now = 0;
+        fill(now);
+        table.tryAcquire(client("overflow", 0), now);
+
+        now += 3 * IDLE_TIMEOUT;
+        assertEquals(CAPACITY, table.evictIdle(now));
+        assertEquals(0, table.size());
+        assertEquals(0, table.tryAcquire(client("new", 0), now));
+        assertEquals(1, table.size());
+    }
+
+    private void fill(long now) {
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(0, table.tryAcquire(client("client", i), now));
+        }
+        assertEquals(CAPACITY, table.size());
+    }
+
+    /**
+     * @return nombre de cliente distinto para cada (prefix, n) que cae en el primer stripe
+     */
+    private static String client(String prefix, int n) {
+        for (int i = 0; ; i++) {
+            String client = prefix + "-" + n + "-" + i;
+            int h = client.hashCode();
+            if (((h ^ (h >>> 16)) & 1) == 0) {
+                return client;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import springBootInitialDemo.dto.CountryDto;
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.service.IUserService;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET condicionales de usuarios y paises: con un If-None-Match que coincide con el ETag actual la
+ * respuesta es 304 sin cuerpo y el DTO no llega a serializarse.
+ *
+ * Un BeanSerializerModifier registrado en los ObjectMapper de los conversores envuelve los
+ * serializadores de UserResponseDto y CountryDto (los escritos a mano o los de Jackson, segun
+ * serialization.mode) y cuenta cuantas veces se invocan
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    private static final AtomicInteger USER_SERIALIZATIONS = new AtomicInteger();
+    private static final AtomicInteger COUNTRY_SERIALIZATIONS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IUserService userService;
+
+    @BeforeEach
+    void resetCounters() {
+        USER_SERIALIZATIONS.set(0);
+        COUNTRY_SERIALIZATIONS.set(0);
+    }
+
+    @Test
+    void matchingUserETagReturns304WithoutSerializing() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        userService.saveUser(new UserResponseDto(uuid, "Ana", "Garcia", "1990-01-01", "F"));
+
+        String eTag = conditionalGet("/v1/user/" + uuid, USER_SERIALIZATIONS);
+
+        MvcResult async = mockMvc.perform(get("/v1/async/user/" + uuid).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isNotModified());
+        assertEquals(0, USER_SERIALIZATIONS.get());
+    }
+
+    @Test
+    void changedUserDoesNotMatchTheOldETag() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        userService.saveUser(new UserResponseDto(uuid, "Ana", "Garcia", "1990-01-01", "F"));
+        String eTag = conditionalGet("/v1/user/" + uuid, USER_SERIALIZATIONS);
+
+        userService.saveUser(new UserResponseDto(uuid, "Ana", "Lopez", "1990-01-01", "F"));
+
+        mockMvc.perform(get("/v1/user/" + uuid).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        assertEquals(1, USER_SERIALIZATIONS.get());
+    }
+
+    @Test
+    void matchingCountryETagReturns304WithoutSerializing() throws Exception {
+        conditionalGet("/v1/countries/alpha/ARG", COUNTRY_SERIALIZATIONS);
+        conditionalGet("/v1/countries/region/Americas", COUNTRY_SERIALIZATIONS);
+    }
+
+    /**
+     * Primera peticion sin validadores (200, se serializa) y segunda con el ETag recibido
+     * (304 sin cuerpo, no se serializa)
+     *
+     * @return ETag de la primera respuesta
+     */
+    private String conditionalGet(String path, AtomicInteger serializations) throws Exception {
+        MvcResult result = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        int serialized = serializations.get();
+        assertTrue(serialized > 0, "la respuesta 200 debe serializar el cuerpo");
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(serialized, serializations.get(), "la respuesta 304 no debe serializar el cuerpo");
+
+        serializations.set(0);
+        return eTag;
+    }
+
+    @TestConfiguration
+    static class CountingSerializersConfiguration implements WebMvcConfigurer {
+
+        /**
+         * Cada conversor Jackson de Spring MVC tiene su propio ObjectMapper (el de JSON no es el bean
+         * ObjectMapper de la aplicacion), asi que el contador se registra en todos
+         */
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            Set<ObjectMapper> mappers = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (HttpMessageConverter<?> converter : converters) {
+                if (converter instanceof AbstractJackson2HttpMessageConverter) {
+                    ObjectMapper mapper = ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper();
+                    if (mappers.add(mapper)) {
+                        mapper.registerModule(new SimpleModule("counting").setSerializerModifier(new CountingModifier()));
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class CountingModifier extends BeanSerializerModifier {
+
+        @Override
+        public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                  JsonSerializer<?> serializer) {
+            Class<?> type = beanDesc.getBeanClass();
+            if (type == UserResponseDto.class) {
+                return new CountingSerializer<>(serializer, USER_SERIALIZATIONS);
+            }
+            if (type == CountryDto.class) {
+                return new CountingSerializer<>(serializer, COUNTRY_SERIALIZATIONS);
+            }
+            return serializer;
+        }
+    }
+
+    private static final class CountingSerializer<T> extends JsonSerializer<T> implements ResolvableSerializer {
+
+        private final JsonSerializer<T> delegate;
+        private final AtomicInteger count;
+
+        @SuppressWarnings("unchecked")
+        private CountingSerializer(JsonSerializer<?> delegate, AtomicInteger count) {
+            this.delegate = (JsonSerializer<T>) delegate;
+            this.count = count;
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            count.incrementAndGet();
+            delegate.serialize(value, generator, provider);
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) delegate).resolve(provider);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /v1/greetings/batch: un saludo por nombre, en orden y con ids distintos, y una entrada no
+ * valida termina la respuesta con una linea de error sin repetir los saludos del bloque pendiente
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GreetingBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void oneGreetingPerNameInOrder() throws Exception {
+        List<JsonNode> lines = batch("text/plain", "Ana\n\nLuis\nEva\n");
+
+        assertContents(lines, "Ana", "Luis", "Eva");
+        assertUniqueIds(lines);
+    }
+
+    @Test
+    void invalidNdjsonLineEndsTheResponseWithoutRepeatingGreetings() throws Exception {
+        List<JsonNode> lines = batch("application/x-ndjson", "\"Ana\"\n{\"name\":\"Luis\"}\n\"Eva\"\n42\n\"Raul\"\n");
+
+        assertEquals(4, lines.size());
+        assertContents(lines.subList(0, 3), "Ana", "Luis", "Eva");
+        assertUniqueIds(lines.subList(0, 3));
+        assertTrue(lines.get(3).has("error"), lines.get(3).toString());
+    }
+
+    private List<JsonNode> batch(String contentType, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/v1/greetings/batch")
+                        .header(HttpHeaders.CONTENT_TYPE, contentType)
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> ret = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            if (!line.isEmpty()) {
+                ret.add(objectMapper.readTree(line));
+            }
+        }
+        return ret;
+    }
+
+    private static void assertContents(List<JsonNode> lines, String... names) {
+        assertEquals(names.length, lines.size());
+        for (int i = 0; i < names.length; i++) {
+            assertEquals("HELLO " + names[i], lines.get(i).path("content").asText());
+        }
+    }
+
+    private static void assertUniqueIds(List<JsonNode> lines) {
+        Set<Long> ids = new HashSet<>();
+        for (JsonNode line : lines) {
+            assertTrue(ids.add(line.path("id").asLong()), "id repetido: " + line);
+        }
+    }
+}
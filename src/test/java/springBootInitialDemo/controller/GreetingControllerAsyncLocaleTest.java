@@ -0,0 +1,62 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Las variantes asincronas generan el saludo en el RequestExecutor, donde LocaleContextHolder
+ * esta vacio: el locale de Accept-Language debe llegar igualmente a la plantilla.
+ *
+ * La plantilla "es" (HOLA %s) es la de greetings_es.properties
+ *
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class GreetingControllerAsyncLocaleTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void asyncGreetingUsesTheRequestLocale() throws Exception {
+        assertEquals("HOLA maria", greet("/async?name=maria", "es").path("content").asText());
+        assertEquals("HELLO maria", greet("/async?name=maria", "en").path("content").asText());
+    }
+
+    @Test
+    void asyncDefaultGreetingUsesTheRequestLocale() throws Exception {
+        assertEquals("HOLA " + GreetingController.DEFAULT_NAME, greet("/v1/async", "es").path("content").asText());
+        assertEquals("HELLO " + GreetingController.DEFAULT_NAME, greet("/v1/async", "en").path("content").asText());
+    }
+
+    @Test
+    void asyncAndSyncGreetingsAgree() throws Exception {
+        assertEquals(greet("/?name=ana", "es").path("content").asText(),
+                greet("/async?name=ana", "es").path("content").asText());
+    }
+
+    private JsonNode greet(String path, String language) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, language);
+        ResponseEntity<String> response = restTemplate.exchange("http://localhost:" + port + path, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return objectMapper.readTree(response.getBody());
+    }
+}
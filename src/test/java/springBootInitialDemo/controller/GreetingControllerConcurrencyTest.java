@@ -0,0 +1,97 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Peticiones concurrentes a / y /v1 desde muchos hilos: cada respuesta debe llevar un id distinto
+ * y el contenido y los enlaces de su propia peticion, nunca los de otra.
+ *
+ * El cliente es un RestTemplate sobre HttpURLConnection, sin el limite de 2 conexiones por ruta
+ * del pool de HttpClient que usa TestRestTemplate, para que las peticiones lleguen de verdad en paralelo
+ *
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class GreetingControllerConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS_PER_THREAD = 250;
+
+    @LocalServerPort
+    private int port;
+
+    private final RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void concurrentGreetingsHaveUniqueIdsAndTheirOwnContent() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        boolean v1 = (thread + i) % 2 == 0;
+                        String name = v1 ? GreetingController.DEFAULT_NAME : "name-" + thread + "-" + i;
+                        JsonNode greeting = greet(v1 ? "/v1" : "/?name=" + name);
+
+                        long id = greeting.path("id").asLong();
+                        assertTrue(ids.add(id), "id repetido: " + id);
+                        assertEquals("HELLO " + name, greeting.path("content").asText());
+                        assertEquals(base() + "/?name=" + name, greeting.at("/_links/self/0/href").asText());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * REQUESTS_PER_THREAD, ids.size());
+    }
+
+    private JsonNode greet(String path) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+        ResponseEntity<String> response = restTemplate.exchange(base() + path, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private String base() {
+        return "http://localhost:" + port;
+    }
+}
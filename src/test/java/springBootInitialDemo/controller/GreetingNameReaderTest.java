@@ -0,0 +1,83 @@
+package springBootInitialDemo.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ready() debe contar los nombres ya recibidos aunque esten en el buffer del lector (el del
+ * BufferedReader o el del parser de Jackson), y no contar los blancos que quedan tras el ultimo
+ *
+ * La entrada es una tuberia en la que la prueba escribe, como un cliente que envia por partes
+ *
+ */
+class GreetingNameReaderTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void ndjsonReadyCountsNamesBufferedByTheParser() throws IOException {
+        assertReadyFollowsBufferedNames(true, "\"Ana\"\n{\"name\":\"Luis\",\"age\":3}\n\"Eva\"\n");
+    }
+
+    @Test
+    void textReadyCountsNamesBufferedByTheReader() throws IOException {
+        assertReadyFollowsBufferedNames(false, "Ana\nLuis\nEva\n");
+    }
+
+    @Test
+    void ndjsonRejectsInvalidLines() throws IOException {
+        try (GreetingNameReader names = open(true, "\"Ana\"\n42\n")) {
+            assertEquals("Ana", names.next());
+            assertThrows(IllegalArgumentException.class, names::next);
+        }
+        try (GreetingNameReader names = open(true, "{\"age\":3}\n")) {
+            assertThrows(IllegalArgumentException.class, names::next);
+        }
+        try (GreetingNameReader names = open(true, "{\"name\":\n")) {
+            assertThrows(IllegalArgumentException.class, names::next);
+        }
+    }
+
+    private void assertReadyFollowsBufferedNames(boolean ndjson, String body) throws IOException {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(client, 64 * 1024);
+        // el parser de Jackson lee los primeros bytes al crearse para detectar la codificacion
+        client.write(body.getBytes(StandardCharsets.UTF_8));
+        client.flush();
+        try (GreetingNameReader names = GreetingNameReader.open(input, ndjson, jsonFactory)) {
+            // el primer next() lleva todo lo recibido al buffer del lector
+            assertEquals("Ana", names.next());
+            assertEquals(0, input.available());
+            assertTrue(names.ready());
+            assertEquals("Luis", names.next());
+            assertTrue(names.ready());
+            assertEquals("Eva", names.next());
+            // solo queda el fin de linea: el siguiente nombre bloquearia
+            assertFalse(names.ready());
+
+            client.write((ndjson ? "\"Raul\"\n" : "Raul\n").getBytes(StandardCharsets.UTF_8));
+            client.close();
+            assertTrue(names.ready());
+            assertEquals("Raul", names.next());
+            assertNull(names.next());
+        }
+    }
+
+    private GreetingNameReader open(boolean ndjson, String body) throws IOException {
+        InputStream input = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        return GreetingNameReader.open(input, ndjson, jsonFactory);
+    }
+}
@@ -0,0 +1,60 @@
+package springBootInitialDemo.controller;
+
+import org.junit.jupiter.api.Test;
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.repository.store.UserOrdering;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida y vuelta del cursor de paginacion, tambien con valores que contienen el separador
+ *
+ */
+class UserCursorTest {
+
+    @Test
+    void roundTripsASurnameWithNewlines() {
+        UUID uuid = UUID.randomUUID();
+        UserResponseDto last = new UserResponseDto(uuid, "Ana", "Garcia\nde\nla Vega\n", "1990-01-01", "F");
+
+        UserResponseDto probe = UserCursor.decode(UserOrdering.SURNAME, UserCursor.encode(UserOrdering.SURNAME, last));
+
+        assertEquals("Garcia\nde\nla Vega\n", probe.getSurname());
+        assertEquals(uuid, probe.getUuid());
+    }
+
+    @Test
+    void roundTripsMissingAndEmptyValues() {
+        UUID uuid = UUID.randomUUID();
+        UserResponseDto withoutSurname = new UserResponseDto(uuid, "Ana", null, "1990-01-01", "F");
+        UserResponseDto emptySurname = new UserResponseDto(uuid, "Ana", "", "1990-01-01", "F");
+
+        assertNull(UserCursor.decode(UserOrdering.SURNAME,
+                UserCursor.encode(UserOrdering.SURNAME, withoutSurname)).getSurname());
+        assertEquals("", UserCursor.decode(UserOrdering.SURNAME,
+                UserCursor.encode(UserOrdering.SURNAME, emptySurname)).getSurname());
+    }
+
+    @Test
+    void rejectsCursorsOfOtherOrderingsOrMalformed() {
+        UserResponseDto last = new UserResponseDto(UUID.randomUUID(), "Ana", "Garcia", "1990-01-01", "F");
+        String cursor = UserCursor.encode(UserOrdering.SURNAME, last);
+
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode(UserOrdering.DATE_OF_BIRTH, cursor));
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode(UserOrdering.SURNAME, encoded("surname")));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserCursor.decode(UserOrdering.SURNAME, encoded("surname\n" + UUID.randomUUID())));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserCursor.decode(UserOrdering.SURNAME, encoded("surname\nGarcia\n" + UUID.randomUUID())));
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
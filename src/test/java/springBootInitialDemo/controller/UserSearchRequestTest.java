@@ -0,0 +1,60 @@
+package springBootInitialDemo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import springBootInitialDemo.dto.UserResponseDto;
+import springBootInitialDemo.service.IUserService;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /v1/users/search: las fechas deben ser ISO (yyyy-MM-dd); cualquier otro valor es un 400
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserSearchRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IUserService userService;
+
+    @Test
+    void invalidDatesAreRejected() throws Exception {
+        for (String parameter : new String[] { "dateOfBirth", "dateOfBirthFrom", "dateOfBirthTo" }) {
+            for (String value : new String[] { "01/02/1990", "1990-13-01", "1990-02-30", "1990-2-1", "ayer" }) {
+                mockMvc.perform(get("/v1/users/search").param(parameter, value))
+                        .andExpect(status().isBadRequest());
+            }
+        }
+        mockMvc.perform(get("/v1/users/search").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void validDatesAreSearched() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        userService.saveUser(new UserResponseDto(uuid, "Marta", "Ruiz", "1985-06-15", "F"));
+
+        mockMvc.perform(get("/v1/users/search").param("dateOfBirth", "1985-06-15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].uuid", hasItem(uuid.toString())));
+        mockMvc.perform(get("/v1/users/search")
+                        .param("dateOfBirthFrom", "1985-01-01")
+                        .param("dateOfBirthTo", "1985-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].uuid", hasItem(uuid.toString())));
+    }
+}
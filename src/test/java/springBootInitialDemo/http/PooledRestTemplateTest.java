@@ -0,0 +1,151 @@
+package springBootInitialDemo.http;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import springBootInitialDemo.configuration.SpringConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * RestTemplate de SpringConfiguration (pool keep-alive + SingleFlightRequestInterceptor) contra un
+ * servidor local: reutilizacion de conexiones y agrupacion de GET identicos concurrentes
+ *
+ */
+class PooledRestTemplateTest {
+
+    private static final int THREADS = 16;
+    private static final String BODY = "{\"greeting\":\"HELLO\"}";
+
+    private StubHttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private SingleFlightRequestInterceptor singleFlight;
+    private HttpClientStats stats;
+    private RestTemplate restTemplate;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.respond(200, BODY.getBytes(StandardCharsets.UTF_8));
+        SpringConfiguration configuration = new SpringConfiguration();
+        connectionManager = configuration.httpClientConnectionManager(THREADS * 2, THREADS, 2000);
+        singleFlight = configuration.singleFlightRequestInterceptor();
+        stats = new HttpClientStats(connectionManager, singleFlight);
+        restTemplate = configuration.getRestTemplate(
+                configuration.getClientHttpRequestFactory(connectionManager, 2000, 10000, 1000, 30000),
+                singleFlight, true);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        connectionManager.shutdown();
+        server.close();
+    }
+
+    @Test
+    void sequentialRequestsReuseOneKeepAliveConnection() {
+        for (int i = 0; i < 50; i++) {
+            assertEquals(BODY, restTemplate.getForObject(server.url("/countries?page=" + i), String.class));
+        }
+
+        assertEquals(50, server.getRequests());
+        assertEquals(1, server.getConnections());
+        Map<String, Long> current = stats.getStats();
+        assertEquals(0L, current.get("leased"));
+        assertEquals(1L, current.get("available"));
+        assertEquals(50L, current.get("executed"));
+        assertEquals(0L, current.get("coalesced"));
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamRequest() throws Exception {
+        CountDownLatch release = server.hold();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> restTemplate.getForObject(server.url("/countries"), String.class)));
+        }
+        // todas las peticiones estan en curso (una en el servidor, las demas esperando su resultado)
+        await(() -> singleFlight.getStats().get("coalesced") == THREADS - 1);
+        assertEquals(1L, stats.getStats().get("leased"));
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals(BODY, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, server.getRequests());
+        assertEquals(1L, singleFlight.getStats().get("executed"));
+        assertEquals(0L, singleFlight.getStats().get("inFlight"));
+
+        // terminada la peticion no queda en cache: la siguiente vuelve al servidor
+        restTemplate.getForObject(server.url("/countries"), String.class);
+        assertEquals(2, server.getRequests());
+    }
+
+    @Test
+    void coalescedRequestsShareTheUpstreamError() throws Exception {
+        server.respond(500, "{}".getBytes(StandardCharsets.UTF_8));
+        CountDownLatch release = server.hold();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> restTemplate.getForObject(server.url("/countries"), String.class)));
+        }
+        await(() -> singleFlight.getStats().get("coalesced") == THREADS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof HttpServerErrorException, e.toString());
+        }
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    void differentUrlsAreNotCoalesced() throws Exception {
+        CountDownLatch release = server.hold();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String url = server.url("/countries/" + i);
+            results.add(executor.submit(() -> restTemplate.getForObject(url, String.class)));
+        }
+        await(() -> server.getRequests() == THREADS);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals(BODY, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(THREADS, server.getConnections());
+        assertEquals(0L, singleFlight.getStats().get("coalesced"));
+        assertEquals((long) THREADS, stats.getStats().get("available"));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condicion no alcanzada en 10 s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
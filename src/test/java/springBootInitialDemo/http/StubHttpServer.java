@@ -0,0 +1,101 @@
+package springBootInitialDemo.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP local para los tests (com.sun.net.httpserver del JDK), en un puerto efimero de loopback.
+ *
+ * Responde a cualquier ruta con el status y el cuerpo configurados, con Content-Length para que
+ * el cliente pueda mantener la conexion abierta. Cuenta las peticiones recibidas y las conexiones
+ * distintas (puerto de origen del cliente), y con hold() retiene las respuestas hasta que el
+ * test las libera
+ *
+ */
+public final class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile int status = 200;
+    private volatile byte[] body = new byte[0];
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return URL absoluta de la ruta en este servidor
+     */
+    public String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    public void respond(int status, byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * Las respuestas siguientes esperan a que se libere el latch devuelto
+     */
+    public CountDownLatch hold() {
+        CountDownLatch ret = new CountDownLatch(1);
+        gate = ret;
+        return ret;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getConnections() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        gate.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody(); OutputStream output = exchange.getResponseBody()) {
+            while (input.read() >= 0) {
+                // se descarta el cuerpo de la peticion
+            }
+            requests.incrementAndGet();
+            connections.add(exchange.getRemoteAddress());
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            byte[] response = body;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+            output.write(response);
+        }
+    }
+}
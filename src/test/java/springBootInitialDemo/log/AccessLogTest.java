@@ -0,0 +1,74 @@
+package springBootInitialDemo.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escritura y rotacion del log de accesos con nombres que ocupan mas de un byte por caracter
+ *
+ */
+class AccessLogTest {
+
+    private static final int MAX_FILE_SIZE = 1000;
+    private static final int RECORDS = 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void utf8LengthCountsEncodedBytes() {
+        assertEquals(5, AccessLog.utf8Length("HELLO"));
+        assertEquals(10, AccessLog.utf8Length("\u00f1and\u00fa\u20ac"));
+        assertEquals(4, AccessLog.utf8Length("\uD83D\uDE00"));
+        assertEquals(1, AccessLog.utf8Length("\uD83D"));
+        String mixed = "\u00f1and\u00fa\u20ac\uD83D\uDE00";
+        assertEquals(mixed.getBytes(StandardCharsets.UTF_8).length, AccessLog.utf8Length(mixed));
+    }
+
+    @Test
+    void rotatesOnEncodedBytes() throws Exception {
+        Path file = directory.resolve("access.log");
+        AccessLog accessLog = new AccessLog(true, file.toString(), 64, 10, MAX_FILE_SIZE, RECORDS);
+        accessLog.start();
+        String name = String.join("", Collections.nCopies(100, "\u00f1"));
+        for (int i = 0; i < RECORDS; i++) {
+            accessLog.log("/", i, name, 1000);
+        }
+        accessLog.stop();
+
+        List<Path> files = logFiles();
+        List<String> lines = new ArrayList<>();
+        for (Path path : files) {
+            lines.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+        }
+        assertEquals(RECORDS, lines.size());
+
+        int maxLineBytes = lines.stream().mapToInt(line -> AccessLog.utf8Length(line) + 1).max().getAsInt();
+        assertTrue(maxLineBytes > name.length() * 2);
+        for (Path path : files) {
+            if (!path.equals(file)) {
+                long size = Files.size(path);
+                assertTrue(size >= MAX_FILE_SIZE && size < MAX_FILE_SIZE + maxLineBytes, path + ": " + size);
+            }
+        }
+    }
+
+    private List<Path> logFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
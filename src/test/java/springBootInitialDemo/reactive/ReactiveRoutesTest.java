@@ -0,0 +1,110 @@
+package springBootInitialDemo.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import springBootInitialDemo.id.AtomicGreetingIdGenerator;
+import springBootInitialDemo.id.GreetingIdBlock;
+import springBootInitialDemo.id.IGreetingIdGenerator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rutas del perfil "reactive" sobre Netty: el saludo usa el locale de Accept-Language y, con un
+ * generador de identificadores bloqueante, los identificadores no se generan en el event loop.
+ *
+ * greeting.id.generator=test desactiva los generadores de IdGeneratorConfiguration y el de la
+ * prueba registra el hilo de cada llamada. IdGeneratorTestConfiguration se importa y no lleva
+ * @Configuration para que el escaneo de componentes de la aplicacion no la registre en los
+ * contextos de otros tests
+ *
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "greeting.id.generator=test")
+@ActiveProfiles({ "test", "reactive" })
+@Import(ReactiveRoutesTest.IdGeneratorTestConfiguration.class)
+class ReactiveRoutesTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RecordingIdGenerator idGenerator;
+
+    @BeforeEach
+    void clearThreads() {
+        idGenerator.threads.clear();
+    }
+
+    @Test
+    void greetingUsesTheRequestLocale() {
+        greet("/?name=maria", "es").jsonPath("$.content").isEqualTo("HOLA maria");
+        greet("/?name=maria", "en").jsonPath("$.content").isEqualTo("HELLO maria");
+        greet("/v1", "es").jsonPath("$.content").isEqualTo("HOLA " + ReactiveRoutes.DEFAULT_NAME);
+    }
+
+    @Test
+    void blockingIdGeneratorRunsOffTheEventLoop() {
+        for (int i = 0; i < 8; i++) {
+            greet("/?name=n" + i, "en");
+            greet("/v1", "en");
+        }
+        assertFalse(idGenerator.threads.isEmpty());
+        for (String thread : idGenerator.threads) {
+            assertFalse(thread.startsWith("reactor-http"), "id generado en el event loop: " + thread);
+            assertTrue(thread.startsWith("boundedElastic"), thread);
+        }
+    }
+
+    private WebTestClient.BodyContentSpec greet(String path, String language) {
+        return webTestClient.get().uri(path)
+                .header(HttpHeaders.ACCEPT_LANGUAGE, language)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody();
+    }
+
+    static class IdGeneratorTestConfiguration {
+
+        @Bean
+        RecordingIdGenerator recordingIdGenerator() {
+            return new RecordingIdGenerator();
+        }
+    }
+
+    /**
+     * Generador que se declara bloqueante y anota el hilo de cada llamada
+     */
+    static class RecordingIdGenerator implements IGreetingIdGenerator {
+
+        private final IGreetingIdGenerator delegate = new AtomicGreetingIdGenerator();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public long nextId() {
+            threads.add(Thread.currentThread().getName());
+            return delegate.nextId();
+        }
+
+        @Override
+        public GreetingIdBlock reserve(int count) {
+            threads.add(Thread.currentThread().getName());
+            return delegate.reserve(count);
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package springBootInitialDemo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.web.client.RestTemplate;
+import springBootInitialDemo.dto.CountryDto;
+import springBootInitialDemo.http.StubHttpServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CountryCatalog contra un servidor local que sirve la respuesta grabada de REST Countries
+ * (postman/response/GET Countries.postman_response.json)
+ *
+ */
+class CountryCatalogTest {
+
+    private static final String PATH = "/rest/v2/lang/es";
+
+    private StubHttpServer server;
+    private byte[] recorded;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        recorded = Files.readAllBytes(Paths.get("postman/response/GET Countries.postman_response.json"));
+        server = new StubHttpServer();
+        server.respond(200, recorded);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void loadsAndIndexesTheRecordedResponse() {
+        CountryCatalog catalog = catalog(server.url(PATH));
+        assertFalse(catalog.isLoaded());
+
+        catalog.refresh();
+
+        assertTrue(catalog.isLoaded());
+        assertEquals(24, catalog.findAll().size());
+        assertEquals("Argentina", catalog.findByAlphaCode("AR").get().getName());
+        assertEquals("Argentina", catalog.findByAlphaCode("arg").get().getName());
+        assertFalse(catalog.findByAlphaCode("XX").isPresent());
+        assertEquals(names(catalog.findByCallingCode("54")), "Argentina");
+        assertEquals(24, catalog.findByLanguage("es").size());
+        assertEquals(names(catalog.findByLanguage("es")), names(catalog.findByLanguage("SPA")));
+        assertTrue(catalog.findByRegion("europe").stream().anyMatch(country -> country.getAlpha2Code().equals("ES")));
+        assertTrue(catalog.findByRegion("unknown").isEmpty());
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    void keepsServingThePreviousSnapshotWhenTheRefreshFails() {
+        CountryCatalog catalog = catalog(server.url(PATH));
+        catalog.refresh();
+        CountryCatalog.CatalogVersion version = catalog.getVersion().get();
+
+        server.respond(500, "{}".getBytes(StandardCharsets.UTF_8));
+        catalog.refresh();
+        server.respond(200, "not json".getBytes(StandardCharsets.UTF_8));
+        catalog.refresh();
+
+        assertSame(version, catalog.getVersion().get());
+        assertEquals(24, catalog.findAll().size());
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    void swapsTheSnapshotOnlyWhenTheContentChanges() throws IOException {
+        CountryCatalog catalog = catalog(server.url(PATH));
+        catalog.refresh();
+        CountryCatalog.CatalogVersion version = catalog.getVersion().get();
+
+        catalog.refresh();
+        assertSame(version, catalog.getVersion().get());
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<?> countries = mapper.readValue(recorded, List.class);
+        server.respond(200, mapper.writeValueAsBytes(countries.subList(0, 10)));
+        catalog.refresh();
+
+        assertNotEquals(version.getVersion(), catalog.getVersion().get().getVersion());
+        assertEquals(10, catalog.findAll().size());
+    }
+
+    @Test
+    void loadsTheBundledDefaultSource() {
+        CountryCatalog catalog = catalog(CountryCatalog.DEFAULT_SOURCE);
+        catalog.refresh();
+        assertEquals(24, catalog.findAll().size());
+        assertEquals(0, server.getRequests());
+    }
+
+    private static CountryCatalog catalog(String source) {
+        return new CountryCatalog(new RestTemplate(), new DefaultResourceLoader(), new ObjectMapper(), source);
+    }
+
+    private static String names(List<CountryDto> countries) {
+        return countries.stream().map(CountryDto::getName).sorted().collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,44 @@
+package springBootInitialDemo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas por ejemplo del UserRepository: con el UUID ignorado por el matcher, count, exists y
+ * findAll resuelven la sonda por el resto de campos y coinciden entre si
+ *
+ */
+class UserRepositoryTest {
+
+    private final UserRepository repository = new UserRepository();
+
+    UserRepositoryTest() {
+        repository.save(new UserResponseDto(UUID.randomUUID(), "Ana", "Garcia", "1990-01-01", "F"));
+        repository.save(new UserResponseDto(UUID.randomUUID(), "Ana", "Lopez", "1985-05-05", "F"));
+        repository.save(new UserResponseDto(UUID.randomUUID(), "Luis", "Garcia", "1970-07-07", "M"));
+    }
+
+    @Test
+    void ignoredUuidIsNotUsedAsALookupKey() {
+        UserResponseDto probe = new UserResponseDto(UUID.randomUUID(), "Ana", null, null, null);
+        Example<UserResponseDto> example = Example.of(probe, ExampleMatcher.matching().withIgnorePaths("uuid"));
+
+        assertEquals(2, repository.count(example));
+        assertEquals(2, repository.findAll(example).size());
+        assertTrue(repository.exists(example));
+    }
+
+    @Test
+    void uuidInTheProbeIsALookupKey() {
+        UserResponseDto probe = new UserResponseDto(UUID.randomUUID(), "Ana", null, null, null);
+
+        assertEquals(0, repository.count(Example.of(probe)));
+    }
+}
@@ -0,0 +1,340 @@
+package springBootInitialDemo.repository.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recuperacion del UserLog tras cortes y corrupcion del fichero, y compactacion.
+ *
+ * Los casos de fallo se simulan sobre el fichero cerrado: se borra el indice (users.idx) para
+ * que la recuperacion reproduzca el log completo y se trunca o se altera users.log
+ *
+ */
+class UserLogTest {
+
+    /** [int longitud][int crc]: el crc esta en los bytes 4 a 7 de cada registro */
+    private static final int CRC_OFFSET = Integer.BYTES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversPutsUpdatesAndDeletes() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        UserResponseDto ana = user("Ana");
+        UserResponseDto bob = user("Bob");
+        UserResponseDto eva = user("Eva");
+        store.put(ana);
+        store.put(bob);
+        store.put(eva);
+        store.put(rename(bob, "Roberto"));
+        store.remove(eva.getUuid());
+        Map<UUID, String> expected = contents(store);
+        log.close();
+
+        assertEquals(expected, reopen());
+        assertEquals(2, expected.size());
+    }
+
+    @Test
+    void recordTruncatedInTheMiddleIsDiscarded() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        UserResponseDto ana = user("Ana");
+        store.put(ana);
+        long afterAna = Files.size(logFile());
+        store.put(user("Bob"));
+        log.close();
+        Files.delete(indexFile());
+
+        truncate(logFile(), Files.size(logFile()) - 5);
+
+        UserStore recovered = new UserStore();
+        UserLog reopened = open(recovered);
+        assertEquals(contents(ana), contents(recovered));
+        assertEquals(afterAna, Files.size(logFile()));
+
+        // el log sigue siendo valido para nuevas escrituras
+        UserResponseDto eva = user("Eva");
+        recovered.put(eva);
+        reopened.close();
+        assertEquals(contents(ana, eva), reopen());
+    }
+
+    @Test
+    void flippedCrcInTheLastRecordIsDiscarded() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        UserResponseDto ana = user("Ana");
+        store.put(ana);
+        long afterAna = Files.size(logFile());
+        store.put(user("Bob"));
+        log.close();
+        Files.delete(indexFile());
+
+        flip(logFile(), afterAna + CRC_OFFSET);
+
+        assertEquals(contents(ana), reopen());
+        assertEquals(afterAna, Files.size(logFile()));
+    }
+
+    @Test
+    void flippedCrcInTheMiddleFailsRecoveryWithoutTouchingTheLog() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        store.put(user("Ana"));
+        long afterAna = Files.size(logFile());
+        store.put(user("Bob"));
+        store.put(user("Eva"));
+        log.close();
+        Files.delete(indexFile());
+
+        flip(logFile(), afterAna + CRC_OFFSET);
+        byte[] corrupted = Files.readAllBytes(logFile());
+
+        UserLog reopened = new UserLog(dir);
+        try {
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> reopened.recover(new UserStore()));
+            assertTrue(e.getMessage().contains("posicion " + afterAna), e.getMessage());
+        } finally {
+            reopened.close();
+        }
+        assertArrayEquals(corrupted, Files.readAllBytes(logFile()));
+    }
+
+    @Test
+    void compactedLogReplaysToTheSameUsers() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(user("user" + i));
+        }
+        for (int version = 0; version < 20; version++) {
+            for (UserResponseDto user : users) {
+                store.put(rename(user, user.getName() + "-v" + version));
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            store.remove(users.get(i).getUuid());
+        }
+        long beforeCompaction = Files.size(logFile());
+
+        log.compact();
+        assertTrue(Files.size(logFile()) < beforeCompaction / 10);
+
+        // escrituras posteriores a la compactacion, sobre el log nuevo
+        store.put(user("after"));
+        store.remove(users.get(50).getUuid());
+        Map<UUID, String> expected = contents(store);
+        log.close();
+
+        // con el indice del checkpoint
+        assertEquals(expected, reopen());
+        // reproduciendo el log compactado completo
+        Files.delete(indexFile());
+        assertEquals(expected, reopen());
+    }
+
+    @Test
+    void garbageBeforeACheckpointStillTriggersCompactionAfterRestart() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(user("user" + i));
+        }
+        for (int version = 0; version < 200; version++) {
+            for (UserResponseDto user : users) {
+                store.put(rename(user, user.getName() + "-v" + version));
+            }
+        }
+        Map<UUID, String> expected = contents(store);
+        log.close();
+        long beforeCompaction = Files.size(logFile());
+
+        // al reabrir con el indice solo se leen los 10 registros vivos, pero el log tiene 2000
+        UserStore reopened = new UserStore();
+        UserLog restarted = open(reopened);
+        restarted.compactIfNeeded();
+        assertTrue(Files.size(logFile()) < beforeCompaction / 10);
+        restarted.close();
+
+        assertEquals(expected, reopen());
+    }
+
+    @Test
+    void syncAndCompactionDoNotDeadlock() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = open(store);
+        List<UserResponseDto> users = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            users.add(user("user" + i));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger compactions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+                List<Future<?>> writers = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    writers.add(executor.submit(() -> {
+                        for (int i = 0; i < 2000; i++) {
+                            UserResponseDto user = users.get(i % users.size());
+                            store.put(rename(user, user.getName() + "-" + i));
+                            log.sync();
+                        }
+                        return null;
+                    }));
+                }
+                Future<?> compactor = executor.submit(() -> {
+                    while (running.get()) {
+                        log.compact();
+                        compactions.incrementAndGet();
+                    }
+                    return null;
+                });
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+                running.set(false);
+                compactor.get();
+            });
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+        assertTrue(compactions.get() > 0);
+        Map<UUID, String> expected = contents(store);
+        log.close();
+        assertEquals(expected, reopen());
+    }
+
+    @Test
+    void fieldOverTheEncodingLimitIsRejectedBeforeChangingTheStore() throws IOException {
+        UserStore store = new UserStore();
+        AtomicInteger indexed = new AtomicInteger();
+        store.addListener(new UserStoreListener() {
+            @Override
+            public void onPut(UserResponseDto previous, UserResponseDto current) {
+                indexed.incrementAndGet();
+            }
+
+            @Override
+            public void onRemove(UserResponseDto previous) {
+                indexed.incrementAndGet();
+            }
+        });
+        UserLog log = open(store);
+        UserResponseDto ana = user("Ana");
+        store.put(ana);
+
+        char[] name = new char[UserLog.MAX_FIELD_BYTES / 2 + 1];
+        Arrays.fill(name, 'ñ');
+        assertThrows(IllegalArgumentException.class, () -> store.put(rename(ana, new String(name))));
+        assertThrows(IllegalArgumentException.class, () -> store.put(rename(user("x"), new String(name))));
+
+        assertEquals(contents(ana), contents(store));
+        assertEquals(1, indexed.get());
+        log.close();
+        assertEquals(contents(ana), reopen());
+    }
+
+    @Test
+    void encodableLimitCountsModifiedUtf8Bytes() {
+        char[] ascii = new char[UserLog.MAX_FIELD_BYTES];
+        Arrays.fill(ascii, 'a');
+        assertTrue(UserLog.isEncodable(new String(ascii)));
+        assertTrue(UserLog.isEncodable(null));
+        ascii[0] = 'ñ';
+        assertEquals(false, UserLog.isEncodable(new String(ascii)));
+    }
+
+    private UserLog open(UserStore store) {
+        UserLog log = new UserLog(dir);
+        log.recover(store);
+        store.setWriteAheadLog(log);
+        return log;
+    }
+
+    private Map<UUID, String> reopen() throws IOException {
+        UserStore store = new UserStore();
+        UserLog log = new UserLog(dir);
+        try {
+            log.recover(store);
+            return contents(store);
+        } finally {
+            log.close();
+        }
+    }
+
+    private Path logFile() {
+        return dir.resolve("users.log");
+    }
+
+    private Path indexFile() {
+        return dir.resolve("users.idx");
+    }
+
+    private static UserResponseDto user(String name) {
+        return new UserResponseDto(UUID.randomUUID(), name, "Surname " + name, "1980-01-01", "F");
+    }
+
+    private static UserResponseDto rename(UserResponseDto user, String name) {
+        return new UserResponseDto(user.getUuid(), name, user.getSurname(), user.getDateOfBirth(), user.getGender());
+    }
+
+    private static Map<UUID, String> contents(UserStore store) {
+        return contents(store.values().toArray(new UserResponseDto[0]));
+    }
+
+    private static Map<UUID, String> contents(UserResponseDto... users) {
+        Map<UUID, String> ret = new TreeMap<>();
+        for (UserResponseDto user : users) {
+            ret.put(user.getUuid(), user.getName() + "|" + user.getSurname() + "|" + user.getDateOfBirth()
+                    + "|" + user.getGender());
+        }
+        return ret;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+        }
+    }
+
+    private static void flip(Path file, long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+    }
+}
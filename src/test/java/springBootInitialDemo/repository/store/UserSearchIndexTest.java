@@ -0,0 +1,179 @@
+package springBootInitialDemo.repository.store;
+
+import org.junit.jupiter.api.Test;
+import springBootInitialDemo.dto.UserResponseDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas de UserSearchIndex sobre mas de un tramo de SCAN_CHUNK documentos: mismos resultados
+ * que recorrer todos los usuarios, entrega sin el lock del indice (las escrituras no esperan a la
+ * consulta) y consistencia debil con escrituras concurrentes
+ *
+ */
+class UserSearchIndexTest {
+
+    private static final int USERS = 3 * UserSearchIndex.SCAN_CHUNK + 123;
+    private static final String[] NAMES = { "Ana", "Andres", "Angela", "Luis", "Lucia", "Eva" };
+    private static final String[] GENDERS = { "F", "M" };
+
+    private final UserSearchIndex index = new UserSearchIndex();
+    private final List<UserResponseDto> users = new ArrayList<>();
+
+    UserSearchIndexTest() {
+        Random random = new Random(11);
+        for (int i = 0; i < USERS; i++) {
+            UserResponseDto user = new UserResponseDto(UUID.randomUUID(),
+                    NAMES[random.nextInt(NAMES.length)] + (i % 7),
+                    "Surname" + i,
+                    String.format("19%02d-%02d-%02d",
+                            50 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    GENDERS[random.nextInt(GENDERS.length)]);
+            users.add(user);
+            index.onPut(null, user);
+        }
+    }
+
+    @Test
+    void resultsMatchAFullScanForEveryPlan() {
+        // sin criterios indexables (todos los documentos), bitmap de gender, prefijo y rango de fechas
+        assertSameAsFullScan(query(criterion(UserQuery.Field.SURNAME, "3", UserQuery.Match.SUFFIX)));
+        assertSameAsFullScan(query(criterion(UserQuery.Field.GENDER, "f", UserQuery.Match.EXACT)));
+        assertSameAsFullScan(query(criterion(UserQuery.Field.NAME, "an", UserQuery.Match.PREFIX)));
+        assertSameAsFullScan(new UserQuery(Collections.emptyList(), "1960-01-01", "1979-12-31"));
+        assertSameAsFullScan(query(criterion(UserQuery.Field.NAME, "lu", UserQuery.Match.PREFIX),
+                criterion(UserQuery.Field.GENDER, "m", UserQuery.Match.EXACT)));
+    }
+
+    @Test
+    void offsetAndLimitSpanChunks() {
+        UserQuery query = query();
+        List<UserResponseDto> all = search(query, 0, Long.MAX_VALUE);
+        assertEquals(USERS, all.size());
+
+        long offset = UserSearchIndex.SCAN_CHUNK - 10;
+        List<UserResponseDto> page = search(query, offset, 50);
+        assertEquals(all.subList((int) offset, (int) offset + 50), page);
+        assertEquals(USERS, index.count(query));
+    }
+
+    @Test
+    void writesDoNotWaitForTheConsumer() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> search = executor.submit(() -> index.search(query(), 0, Long.MAX_VALUE, user -> {
+                delivered.countDown();
+                try {
+                    written.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+
+            // la consulta esta parada en el consumidor: la escritura no debe esperar al read lock
+            UserResponseDto user = new UserResponseDto(UUID.randomUUID(), "Nuevo", "Usuario", "2000-01-01", "F");
+            index.onPut(null, user);
+            written.countDown();
+
+            search.get(10, TimeUnit.SECONDS);
+        } finally {
+            written.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void stableUsersAreSeenExactlyOnceDuringConcurrentWrites() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // otro hilo añade, renombra dentro del prefijo y borra usuarios que no son los del constructor
+            Future<?> writer = executor.submit(() -> {
+                Random random = new Random(5);
+                List<UserResponseDto> churn = new ArrayList<>();
+                while (!stop.get()) {
+                    if (churn.size() < 500 || random.nextBoolean()) {
+                        UserResponseDto user = new UserResponseDto(UUID.randomUUID(), "Anx" + random.nextInt(100),
+                                "Churn", "1970-01-01", GENDERS[random.nextInt(2)]);
+                        index.onPut(null, user);
+                        churn.add(user);
+                    } else {
+                        UserResponseDto previous = churn.remove(random.nextInt(churn.size()));
+                        if (random.nextBoolean()) {
+                            UserResponseDto renamed = new UserResponseDto(previous.getUuid(),
+                                    "Anz" + random.nextInt(100), "Churn", "1970-01-01", previous.getGender());
+                            index.onPut(previous, renamed);
+                            churn.add(renamed);
+                        } else {
+                            index.onRemove(previous);
+                        }
+                    }
+                }
+            });
+
+            for (UserQuery query : Arrays.asList(query(),
+                    query(criterion(UserQuery.Field.NAME, "an", UserQuery.Match.PREFIX)),
+                    query(criterion(UserQuery.Field.GENDER, "f", UserQuery.Match.EXACT)))) {
+                for (int i = 0; i < 20; i++) {
+                    List<UserResponseDto> found = search(query, 0, Long.MAX_VALUE);
+                    Set<UUID> uuids = new HashSet<>();
+                    for (UserResponseDto user : found) {
+                        assertTrue(uuids.add(user.getUuid()), "usuario repetido: " + user.getName());
+                    }
+                    for (UserResponseDto user : users) {
+                        if (query.matches(user)) {
+                            assertTrue(uuids.contains(user.getUuid()), "falta " + user.getName());
+                        }
+                    }
+                }
+            }
+            stop.set(true);
+            writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            stop.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSameAsFullScan(UserQuery query) {
+        Set<UserResponseDto> expected = users.stream().filter(query::matches).collect(Collectors.toSet());
+        List<UserResponseDto> found = search(query, 0, Long.MAX_VALUE);
+        assertEquals(expected.size(), found.size());
+        assertEquals(expected, new HashSet<>(found));
+        assertEquals(expected.size(), index.count(query));
+    }
+
+    private List<UserResponseDto> search(UserQuery query, long offset, long limit) {
+        List<UserResponseDto> ret = new ArrayList<>();
+        index.search(query, offset, limit, ret::add);
+        return ret;
+    }
+
+    private static UserQuery query(UserQuery.Criterion... criteria) {
+        return new UserQuery(Arrays.asList(criteria), null, null);
+    }
+
+    private static UserQuery.Criterion criterion(UserQuery.Field field, String value, UserQuery.Match match) {
+        return new UserQuery.Criterion(field, value, match, true);
+    }
+}
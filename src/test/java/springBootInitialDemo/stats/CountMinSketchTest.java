@@ -0,0 +1,86 @@
+package springBootInitialDemo.stats;
+
+import org.junit.jupiter.api.Test;
+import springBootInitialDemo.repository.ContentHash;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dimensiones del sketch segun epsilon y confidence, y cota del error sobre un flujo sesgado:
+ * la estimacion nunca es menor que la frecuencia real y, salvo para una fraccion 1 - confidence
+ * de los elementos como mucho, no la supera en mas de epsilon * N
+ *
+ */
+class CountMinSketchTest {
+
+    @Test
+    void widthAndDepthFollowEpsilonAndConfidence() {
+        assertDimensions(0.001, 0.99, 2719, 5);
+        assertDimensions(0.01, 0.9, 272, 3);
+        assertDimensions(0.1, 0.5, 28, 1);
+
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.99);
+        assertEquals(2719L * 5 * Long.BYTES, sketch.getSizeInBytes());
+    }
+
+    @Test
+    void rejectsParametersOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 0.99));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(1, 0.99));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0.01, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0.01, 1));
+    }
+
+    @Test
+    void estimateStaysWithinEpsilonTimesTotalOnSkewedStream() {
+        double epsilon = 0.001;
+        double confidence = 0.99;
+        int distinct = 50_000;
+        int total = 500_000;
+
+        CountMinSketch sketch = new CountMinSketch(epsilon, confidence);
+        long[] frequencies = new long[distinct];
+        ZipfStream stream = new ZipfStream(distinct, 1.1, 42);
+        for (int i = 0; i < total; i++) {
+            int index = stream.next();
+            frequencies[index]++;
+            sketch.add(hash(index));
+        }
+
+        long bound = (long) Math.ceil(epsilon * total);
+        int outside = 0;
+        for (int index = 0; index < distinct; index++) {
+            long estimate = sketch.estimate(hash(index));
+            assertTrue(estimate >= frequencies[index], "estimacion por debajo de la frecuencia real");
+            if (estimate - frequencies[index] > bound) {
+                outside++;
+            }
+        }
+        assertTrue(outside <= (1 - confidence) * distinct,
+                outside + " de " + distinct + " elementos superan el error epsilon * N");
+    }
+
+    @Test
+    void clearResetsAllCounters() {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.9);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(hash(i % 10));
+        }
+        sketch.clear();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, sketch.estimate(hash(i)));
+        }
+    }
+
+    private static void assertDimensions(double epsilon, double confidence, int width, int depth) {
+        CountMinSketch sketch = new CountMinSketch(epsilon, confidence);
+        assertEquals(width, sketch.getWidth(), "width = ceil(e / epsilon)");
+        assertEquals(depth, sketch.getDepth(), "depth = ceil(ln(1 / (1 - confidence)))");
+    }
+
+    private static long hash(int index) {
+        return new ContentHash().add(ZipfStream.name(index)).value();
+    }
+}
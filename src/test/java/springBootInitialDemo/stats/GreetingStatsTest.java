@@ -0,0 +1,77 @@
+package springBootInitialDemo.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GreetingStats sobre un flujo sesgado: dimensiones publicadas, estimacion de un nombre dentro del
+ * error publicado y nombres frecuentes en el top-K de la ventana activa y, tras rollup, del historico
+ *
+ */
+class GreetingStatsTest {
+
+    private static final double EPSILON = 0.001;
+    private static final double CONFIDENCE = 0.99;
+    private static final int TOP_K = 20;
+    private static final int TOTAL = 100_000;
+
+    private final GreetingStats stats = new GreetingStats(true, EPSILON, CONFIDENCE, TOP_K, 64, 3);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void configMatchesEpsilonAndConfidence() {
+        Map<String, Object> config = (Map<String, Object>) stats.getStats(null, 10).get("config");
+
+        assertEquals(2719, config.get("sketchWidth"));
+        assertEquals(5, config.get("sketchDepth"));
+        assertEquals(TOP_K, config.get("topK"));
+        assertEquals(2L * 2719 * 5 * Long.BYTES, config.get("sketchBytes"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void estimatesAndTopKOnSkewedStream() {
+        long[] frequencies = record(new ZipfStream(5_000, 1.2, 3));
+
+        Map<String, Object> estimate = (Map<String, Object>) stats.getStats(ZipfStream.name(0), 10).get("estimate");
+        long count = (Long) estimate.get("count");
+        long error = (Long) estimate.get("error");
+        assertEquals((long) Math.ceil(EPSILON * TOTAL), error);
+        assertTrue(count >= frequencies[0] && count - frequencies[0] <= error, "estimacion fuera de la cota");
+
+        List<HeavyHitter> top = (List<HeavyHitter>) ((Map<String, Object>) stats.getStats(null, TOP_K)
+                .get("current")).get("top");
+        assertEquals(ZipfStream.name(0), top.get(0).getName());
+        assertHeavyHittersPresent(top, frequencies);
+
+        stats.rollup();
+        List<Map<String, Object>> windows = (List<Map<String, Object>>) stats.getStats(null, TOP_K).get("windows");
+        assertEquals(1, windows.size());
+        assertEquals((long) TOTAL, windows.get(0).get("total"));
+        assertHeavyHittersPresent((List<HeavyHitter>) windows.get(0).get("top"), frequencies);
+    }
+
+    private long[] record(ZipfStream stream) {
+        long[] frequencies = new long[5_000];
+        for (int i = 0; i < TOTAL; i++) {
+            int index = stream.next();
+            frequencies[index]++;
+            stats.record(ZipfStream.name(index));
+        }
+        return frequencies;
+    }
+
+    private static void assertHeavyHittersPresent(List<HeavyHitter> top, long[] frequencies) {
+        for (int index = 0; index < frequencies.length; index++) {
+            if (frequencies[index] > TOTAL / TOP_K) {
+                String name = ZipfStream.name(index);
+                assertTrue(top.stream().anyMatch(hitter -> hitter.getName().equals(name)), name + " falta en el top-K");
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package springBootInitialDemo.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garantias de Space-Saving sobre un flujo sesgado: todo elemento con frecuencia mayor que N / k
+ * esta en el resumen, y la frecuencia real de cada uno esta en [count - error, count]
+ *
+ */
+class SpaceSavingTopKTest {
+
+    @Test
+    void keepsEveryItemAboveTotalOverK() {
+        int k = 50;
+        int distinct = 20_000;
+        int total = 300_000;
+
+        SpaceSavingTopK topK = new SpaceSavingTopK(k);
+        long[] frequencies = new long[distinct];
+        ZipfStream stream = new ZipfStream(distinct, 1.1, 7);
+        for (int i = 0; i < total; i++) {
+            int index = stream.next();
+            frequencies[index]++;
+            topK.add(ZipfStream.name(index));
+        }
+
+        Map<String, HeavyHitter> summary = new HashMap<>();
+        for (HeavyHitter hitter : topK.snapshot()) {
+            summary.put(hitter.getName(), hitter);
+        }
+        assertEquals(k, summary.size());
+
+        int heavy = 0;
+        for (int index = 0; index < distinct; index++) {
+            if (frequencies[index] > total / k) {
+                heavy++;
+                assertTrue(summary.containsKey(ZipfStream.name(index)), ZipfStream.name(index) + " falta en el top-K");
+            }
+        }
+        assertTrue(heavy > 0, "el flujo de prueba debe tener elementos por encima de N / k");
+
+        for (HeavyHitter hitter : summary.values()) {
+            long frequency = frequencies[Integer.parseInt(hitter.getName().substring("name-".length()))];
+            assertTrue(hitter.getCount() >= frequency, "count por debajo de la frecuencia real");
+            assertTrue(hitter.getCount() - hitter.getError() <= frequency, "count - error por encima de la real");
+        }
+    }
+
+    @Test
+    void snapshotIsSortedByCountDescending() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(3);
+        for (int i = 0; i < 5; i++) {
+            topK.add("a");
+        }
+        topK.add("b");
+        for (int i = 0; i < 3; i++) {
+            topK.add("c");
+        }
+
+        List<HeavyHitter> snapshot = topK.snapshot();
+        assertEquals("a", snapshot.get(0).getName());
+        assertEquals("c", snapshot.get(1).getName());
+        assertEquals("b", snapshot.get(2).getName());
+
+        topK.clear();
+        assertTrue(topK.snapshot().isEmpty());
+    }
+
+    @Test
+    void concurrentWritersKeepTheHeavyHitters() throws Exception {
+        int k = 20;
+        int threads = 8;
+        int perThread = 50_000;
+        SpaceSavingTopK topK = new SpaceSavingTopK(k);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        // una cuarta parte para "hot", el resto repartido entre muchos nombres
+                        topK.add(i % 4 == 0 ? "hot" : "cold-" + thread + "-" + i);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+
+        HeavyHitter first = topK.snapshot().get(0);
+        assertEquals("hot", first.getName());
+        assertTrue(first.getCount() - first.getError() <= threads * perThread / 4);
+    }
+}
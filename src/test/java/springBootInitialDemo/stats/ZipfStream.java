@@ -0,0 +1,38 @@
+package springBootInitialDemo.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Flujo sesgado de prueba: elementos "name-i" con distribucion de Zipf (el i-esimo con peso
+ * 1 / i^exponent) y semilla fija, de modo que cada ejecucion genera la misma secuencia
+ *
+ */
+final class ZipfStream {
+
+    private final double[] cumulative;
+    private final Random random;
+
+    ZipfStream(int distinct, double exponent, long seed) {
+        this.cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return indice del siguiente elemento, entre 0 y distinct - 1
+     */
+    int next() {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+
+    static String name(int index) {
+        return "name-" + index;
+    }
+}